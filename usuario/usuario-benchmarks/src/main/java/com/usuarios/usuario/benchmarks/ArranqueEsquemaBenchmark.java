@@ -0,0 +1,66 @@
+package com.usuarios.usuario.benchmarks;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// Arranque completo de la aplicación contra un esquema que ya existe, el caso de cada
+// reinicio en producción: Flyway con ddl-auto=validate frente al ddl-auto=update anterior.
+// H2 responde los metadatos en memoria; contra el diccionario de datos de Oracle la
+// diferencia es mayor, así que este resultado es una cota inferior
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 15)
+@Fork(1)
+public class ArranqueEsquemaBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:usuarios_arranque;MODE=Oracle";
+
+    @Param({"flyway", "update"})
+    public String esquema;
+
+    private Connection retenida;
+
+    @Setup(Level.Trial)
+    public void iniciar() throws SQLException {
+        // Mantiene viva la base entre arranques; el primero crea el esquema y no se mide
+        retenida = DriverManager.getConnection(URL, "sa", "");
+        arrancar().close();
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() throws SQLException {
+        retenida.close();
+    }
+
+    @Benchmark
+    public void arranque() {
+        arrancar().close();
+    }
+
+    private ConfigurableApplicationContext arrancar() {
+        if ("update".equals(esquema)) {
+            return ContextoAplicacion.iniciar("spring.datasource.url=" + URL,
+                "spring.flyway.enabled=false", "spring.jpa.hibernate.ddl-auto=update");
+        }
+        return ContextoAplicacion.iniciar("spring.datasource.url=" + URL);
+    }
+}
@@ -0,0 +1,47 @@
+package com.usuarios.usuario.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.usuarios.usuario.UsuarioApplication;
+import com.usuarios.usuario.dto.RolDTO;
+import com.usuarios.usuario.dto.UsuarioDTO;
+import com.usuarios.usuario.models.Rol;
+import com.usuarios.usuario.services.RolService;
+import com.usuarios.usuario.services.UsuarioService;
+
+// Arranca la aplicación real con el perfil "bench" (H2 embebida) y sin servidor web
+final class ContextoAplicacion {
+
+    private ContextoAplicacion() {
+    }
+
+    static ConfigurableApplicationContext iniciar(String... propiedades) {
+        return new SpringApplicationBuilder(UsuarioApplication.class)
+            .profiles("bench")
+            .web(WebApplicationType.NONE)
+            .logStartupInfo(false)
+            .properties(propiedades)
+            .run();
+    }
+
+    static Rol crearRol(ConfigurableApplicationContext contexto, String nombre, String... permisos) {
+        RolDTO rolDTO = new RolDTO();
+        rolDTO.setNombre(nombre);
+        rolDTO.setPermisos(new ArrayList<>(List.of(permisos)));
+        return contexto.getBean(RolService.class).crearRol(rolDTO);
+    }
+
+    static void crearUsuario(ConfigurableApplicationContext contexto, String username, String password, Long rolId) {
+        UsuarioDTO usuarioDTO = new UsuarioDTO();
+        usuarioDTO.setUsername(username);
+        usuarioDTO.setPassword(password);
+        usuarioDTO.setNombreCompleto("Usuario " + username);
+        usuarioDTO.setRolId(rolId);
+        contexto.getBean(UsuarioService.class).crearUsuario(usuarioDTO);
+    }
+}
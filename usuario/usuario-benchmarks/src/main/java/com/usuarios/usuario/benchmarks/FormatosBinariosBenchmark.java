@@ -0,0 +1,113 @@
+package com.usuarios.usuario.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.usuarios.usuario.dto.ResponseDTO;
+import com.usuarios.usuario.models.Rol;
+import com.usuarios.usuario.models.Usuario;
+
+// JSON frente a CBOR y Smile para un listado de usuarios en ResponseDTO, con los mappers que
+// usan los convertidores de Spring MVC. El tiempo lo mide JMH; el tamaño (sin comprimir y con
+// gzip) se imprime al preparar cada combinación porque no varía entre iteraciones
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FormatosBinariosBenchmark {
+
+    private static final int ROLES = 10;
+
+    @Param({"json", "cbor", "smile"})
+    public String formato;
+
+    @Param({"1000", "10000", "100000"})
+    public int usuarios;
+
+    private ObjectMapper objectMapper;
+    private ResponseDTO respuesta;
+    private byte[] codificada;
+
+    @Setup(Level.Trial)
+    public void iniciar() throws IOException {
+        switch (formato) {
+            case "cbor":
+                objectMapper = Jackson2ObjectMapperBuilder.cbor().build();
+                break;
+            case "smile":
+                objectMapper = Jackson2ObjectMapperBuilder.smile().build();
+                break;
+            default:
+                objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        }
+
+        List<Rol> roles = new ArrayList<>(ROLES);
+        for (int i = 0; i < ROLES; i++) {
+            Rol rol = new Rol();
+            rol.setId((long) i);
+            rol.setNombre("ROL_" + i);
+            rol.setVersion(0L);
+            rol.setPermisos(List.of("LEER", "ESCRIBIR", "ELIMINAR"));
+            roles.add(rol);
+        }
+        List<Usuario> lista = new ArrayList<>(usuarios);
+        for (int i = 0; i < usuarios; i++) {
+            Usuario usuario = new Usuario();
+            usuario.setId((long) i);
+            usuario.setUsername("usuario" + i);
+            usuario.setNombreCompleto("Usuario número " + i);
+            usuario.setPassword("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z6Rw9v0zM0QmZ1zq6JKVyG2W");
+            usuario.setVersion((long) (i % 7));
+            usuario.setRol(roles.get(i % ROLES));
+            lista.add(usuario);
+        }
+        respuesta = new ResponseDTO("Usuarios obtenidos exitosamente", lista, true);
+        codificada = objectMapper.writeValueAsBytes(respuesta);
+        System.out.printf("%n%s, %d usuarios: %d bytes, %d bytes con gzip%n",
+            formato, usuarios, codificada.length, gzip(codificada).length);
+    }
+
+    @Benchmark
+    public byte[] codificar() throws IOException {
+        return objectMapper.writeValueAsBytes(respuesta);
+    }
+
+    // A un árbol genérico, como lo lee un consumidor que no comparte las clases del servicio
+    @Benchmark
+    public JsonNode decodificar() throws IOException {
+        return objectMapper.readTree(codificada);
+    }
+
+    private static byte[] gzip(byte[] datos) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(datos.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(datos);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.toByteArray();
+    }
+}
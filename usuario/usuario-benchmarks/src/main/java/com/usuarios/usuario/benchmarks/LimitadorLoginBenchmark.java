@@ -0,0 +1,73 @@
+package com.usuarios.usuario.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.usuarios.usuario.services.LimitadorLoginService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Escalabilidad del limitador de login con 1, 4 y todos los núcleos. Con una sola clave todos
+// los hilos compiten por el mismo AtomicLong; con muchas claves se reparten entre las franjas.
+// Los límites son altos para medir el camino permitido (lectura, CAS) y no el rechazo.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LimitadorLoginBenchmark {
+
+    @Param({"1", "10000"})
+    public int claves;
+
+    private LimitadorLoginService limitador;
+    private String[] usernames;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        limitador = new LimitadorLoginService(true, Integer.MAX_VALUE, Integer.MAX_VALUE,
+            Integer.MAX_VALUE, Integer.MAX_VALUE, 1_000_000, new SimpleMeterRegistry());
+        usernames = new String[claves];
+        for (int i = 0; i < claves; i++) {
+            usernames[i] = "usuario" + i;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long unHilo() {
+        return intentar();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long cuatroHilos() {
+        return intentar();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public long todosLosNucleos() {
+        return intentar();
+    }
+
+    private long intentar() {
+        String username = usernames[ThreadLocalRandom.current().nextInt(usernames.length)];
+        return limitador.intentar(username, null);
+    }
+}
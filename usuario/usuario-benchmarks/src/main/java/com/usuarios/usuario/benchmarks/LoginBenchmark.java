@@ -0,0 +1,67 @@
+package com.usuarios.usuario.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import com.usuarios.usuario.controllers.AuthController;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginBenchmark {
+
+    // Con la caché desactivada cada login llega a la base de datos
+    @Param({"true", "false"})
+    public boolean cacheLogin;
+
+    private ConfigurableApplicationContext contexto;
+    private AuthController authController;
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+    private Map<String, String> credencialesValidas;
+    private Map<String, String> credencialesInvalidas;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = ContextoAplicacion.iniciar("usuarios.login-cache.max-entradas=" + (cacheLogin ? 10000 : 0));
+        authController = contexto.getBean(AuthController.class);
+        Long rolId = ContextoAplicacion.crearRol(contexto, "BENCH", "LEER").getId();
+        ContextoAplicacion.crearUsuario(contexto, "bench", "secreta", rolId);
+        credencialesValidas = Map.of("username", "bench", "password", "secreta");
+        credencialesInvalidas = Map.of("username", "bench", "password", "incorrecta");
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<?> loginValido() {
+        return authController.login(credencialesValidas, request);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> loginInvalido() {
+        return authController.login(credencialesInvalidas, request);
+    }
+}
@@ -0,0 +1,81 @@
+package com.usuarios.usuario.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import com.usuarios.usuario.controllers.AuthController;
+
+// Logins por segundo con bcrypt (costo 10 del perfil "bench") y sin caché de login, con 1, 16 y
+// 64 solicitudes concurrentes. Con el pool de contraseñas de un hilo el rendimiento queda fijo en
+// el de un núcleo; con un hilo por núcleo ("0") debería escalar hasta los núcleos y mantenerse
+// estable por encima, en lugar de repartir la CPU entre todas las solicitudes a la vez.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LoginConcurrenteBenchmark {
+
+    @Param({"1", "0"})
+    public int hilosPassword;
+
+    private ConfigurableApplicationContext contexto;
+    private AuthController authController;
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+    private Map<String, String> credenciales;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = ContextoAplicacion.iniciar(
+            "usuarios.login-cache.max-entradas=0",
+            "usuarios.password.hilos=" + hilosPassword,
+            // La cola no limita: se mide el rendimiento, no el rechazo
+            "usuarios.password.cola=1024");
+        authController = contexto.getBean(AuthController.class);
+        Long rolId = ContextoAplicacion.crearRol(contexto, "BENCH", "LEER").getId();
+        ContextoAplicacion.crearUsuario(contexto, "bench", "secreta", rolId);
+        credenciales = Map.of("username", "bench", "password", "secreta");
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public ResponseEntity<?> unaSolicitud() {
+        return authController.login(credenciales, request);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public ResponseEntity<?> dieciseisSolicitudes() {
+        return authController.login(credenciales, request);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public ResponseEntity<?> sesentaYCuatroSolicitudes() {
+        return authController.login(credenciales, request);
+    }
+}
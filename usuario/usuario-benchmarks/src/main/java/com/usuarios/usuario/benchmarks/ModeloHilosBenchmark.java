@@ -0,0 +1,102 @@
+package com.usuarios.usuario.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import com.usuarios.usuario.controllers.AuthController;
+
+// Compara hilos de plataforma (como el pool de Tomcat) con un hilo virtual por solicitud.
+// Los logins no usan caché, así que cada solicitud compite por una de las conexiones del pool
+// y por el pool de bcrypt (ver LoginConcurrenteBenchmark). La admisión del DataSource se activa
+// en ambos modelos: es la configuración recomendada con hilos virtuales, y así la plataforma
+// se mide con la misma cola delante de Hikari.
+// El modelo "virtual" requiere Java 21: el pom solo lo incluye al ejecutar con JDK 21 o posterior
+// (perfil hilos-virtuales) y, si se pide a mano en Java 17, el setup falla con un mensaje claro.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModeloHilosBenchmark {
+
+    private static final int SOLICITUDES = 500;
+    private static final int HILOS_TOMCAT = 200;
+
+    @Param({"plataforma", "virtual"})
+    public String modelo;
+
+    private ConfigurableApplicationContext contexto;
+    private AuthController authController;
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+    private ExecutorService executor;
+    private Map<String, String> credenciales;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        // Antes de arrancar el contexto: en Java 17 el trial falla en el acto
+        executor = "virtual".equals(modelo) ? hilosVirtuales() : Executors.newFixedThreadPool(HILOS_TOMCAT);
+        // Con 500 solicitudes a la vez la cola de bcrypt no debe rechazar ninguna
+        contexto = ContextoAplicacion.iniciar("usuarios.login-cache.max-entradas=0", "usuarios.password.cola=1024",
+            "usuarios.admision.habilitada=true");
+        authController = contexto.getBean(AuthController.class);
+        Long rolId = ContextoAplicacion.crearRol(contexto, "BENCH", "LEER").getId();
+        ContextoAplicacion.crearUsuario(contexto, "bench", "secreta", rolId);
+        credenciales = Map.of("username", "bench", "password", "secreta");
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        executor.shutdownNow();
+        contexto.close();
+    }
+
+    @Benchmark
+    public int atenderSolicitudes() throws Exception {
+        List<Future<ResponseEntity<?>>> respuestas = new ArrayList<>(SOLICITUDES);
+        for (int i = 0; i < SOLICITUDES; i++) {
+            respuestas.add(executor.submit(() -> authController.login(credenciales, request)));
+        }
+        int exitosas = 0;
+        for (Future<ResponseEntity<?>> respuesta : respuestas) {
+            if (respuesta.get().getStatusCode().is2xxSuccessful()) {
+                exitosas++;
+            }
+        }
+        return exitosas;
+    }
+
+    private static ExecutorService hilosVirtuales() {
+        if (Runtime.version().feature() < 21) {
+            throw new IllegalStateException("El modelo de hilos virtuales requiere Java 21 (en uso: "
+                + Runtime.version() + "); ejecute con -p modelo=plataforma");
+        }
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("El modelo de hilos virtuales requiere Java 21", e);
+        }
+    }
+}
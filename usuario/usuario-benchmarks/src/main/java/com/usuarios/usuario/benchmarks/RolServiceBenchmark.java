@@ -0,0 +1,69 @@
+package com.usuarios.usuario.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.usuarios.usuario.dto.RolDTO;
+import com.usuarios.usuario.models.Rol;
+import com.usuarios.usuario.services.RolService;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RolServiceBenchmark {
+
+    private ConfigurableApplicationContext contexto;
+    private RolService rolService;
+    private Long rolId;
+    private RolDTO[] cambios;
+    private int siguiente;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = ContextoAplicacion.iniciar();
+        rolService = contexto.getBean(RolService.class);
+        rolId = ContextoAplicacion.crearRol(contexto, "BENCH_A", "LEER").getId();
+        // Se alterna entre dos versiones del rol para que cada llamada escriba nombre y permisos
+        cambios = new RolDTO[] {
+            rolDTO("BENCH_B", "LEER", "ESCRIBIR", "ELIMINAR"),
+            rolDTO("BENCH_A", "LEER")
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Rol actualizarRol() {
+        RolDTO rolDTO = cambios[siguiente];
+        siguiente = (siguiente + 1) % cambios.length;
+        return rolService.actualizarRol(rolId, rolDTO);
+    }
+
+    private static RolDTO rolDTO(String nombre, String... permisos) {
+        RolDTO rolDTO = new RolDTO();
+        rolDTO.setNombre(nombre);
+        rolDTO.setPermisos(new ArrayList<>(List.of(permisos)));
+        return rolDTO;
+    }
+}
@@ -0,0 +1,77 @@
+package com.usuarios.usuario.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.usuarios.usuario.dto.ResponseDTO;
+import com.usuarios.usuario.models.Rol;
+import com.usuarios.usuario.models.Usuario;
+
+// Serialización de las respuestas tal como las escribe Spring MVC, sin base de datos
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializacionBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int tamanio;
+
+    private ObjectMapper objectMapper;
+    private ResponseDTO respuestaRoles;
+    private ResponseDTO respuestaUsuarios;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        List<Rol> roles = new ArrayList<>(tamanio);
+        List<Usuario> usuarios = new ArrayList<>(tamanio);
+        for (int i = 0; i < tamanio; i++) {
+            Rol rol = new Rol();
+            rol.setId((long) i);
+            rol.setNombre("ROL_" + i);
+            rol.setPermisos(List.of("LEER", "ESCRIBIR", "ELIMINAR"));
+            roles.add(rol);
+
+            Usuario usuario = new Usuario();
+            usuario.setId((long) i);
+            usuario.setUsername("usuario" + i);
+            usuario.setNombreCompleto("Usuario número " + i);
+            usuario.setPassword("secreta");
+            usuario.setRol(rol);
+            usuarios.add(usuario);
+        }
+        respuestaRoles = new ResponseDTO("Roles obtenidos exitosamente", roles, true);
+        respuestaUsuarios = new ResponseDTO("Usuarios obtenidos exitosamente", usuarios, true);
+    }
+
+    @Benchmark
+    public byte[] serializarRoles() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(respuestaRoles);
+    }
+
+    @Benchmark
+    public byte[] serializarUsuarios() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(respuestaUsuarios);
+    }
+}
@@ -0,0 +1,59 @@
+package com.usuarios.usuario.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.usuarios.usuario.dto.UsuarioDTO;
+import com.usuarios.usuario.models.Usuario;
+import com.usuarios.usuario.services.UsuarioService;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UsuarioServiceBenchmark {
+
+    private ConfigurableApplicationContext contexto;
+    private UsuarioService usuarioService;
+    private Long rolId;
+    private long secuencia;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = ContextoAplicacion.iniciar();
+        usuarioService = contexto.getBean(UsuarioService.class);
+        rolId = ContextoAplicacion.crearRol(contexto, "BENCH", "LEER", "ESCRIBIR").getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        contexto.close();
+    }
+
+    // Cada invocación crea un usuario distinto: username y nombre completo son únicos
+    @Benchmark
+    public Usuario crearUsuario() {
+        long n = ++secuencia;
+        UsuarioDTO usuarioDTO = new UsuarioDTO();
+        usuarioDTO.setUsername("bench" + n);
+        usuarioDTO.setPassword("secreta");
+        usuarioDTO.setNombreCompleto("Usuario bench " + n);
+        usuarioDTO.setRolId(rolId);
+        return usuarioService.crearUsuario(usuarioDTO);
+    }
+}
@@ -0,0 +1,63 @@
+package com.usuarios.usuario.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Compara un informe con el de una versión anterior. Se controlan p50, p95 y p99 de cada
+// operación; p999 y el máximo dependen de unas pocas muestras y se informan sin bloquear
+final class ComparadorLineaBase {
+
+    // Diferencias menores son ruido aunque superen la tolerancia relativa (p. ej. 0,3 ms a 0,5 ms)
+    static final double MARGEN_MINIMO_MS = 1.0;
+    private static final String[] PERCENTILES = {"p50", "p95", "p99"};
+
+    private final double tolerancia;
+    private final double toleranciaErrores;
+
+    ComparadorLineaBase(double tolerancia, double toleranciaErrores) {
+        this.tolerancia = tolerancia;
+        this.toleranciaErrores = toleranciaErrores;
+    }
+
+    List<String> regresiones(JsonNode base, JsonNode actual) {
+        List<String> regresiones = new ArrayList<>();
+        comparar("total", base.path("total"), actual.path("total"), regresiones);
+
+        double rpsBase = base.path("total").path("rps").asDouble();
+        double rpsActual = actual.path("total").path("rps").asDouble();
+        if (rpsActual < rpsBase * (1 - tolerancia)) {
+            regresiones.add(String.format(Locale.ROOT, "total: throughput %.1f rps, línea base %.1f rps", rpsActual, rpsBase));
+        }
+
+        Iterator<Map.Entry<String, JsonNode>> operaciones = actual.path("operaciones").fields();
+        while (operaciones.hasNext()) {
+            Map.Entry<String, JsonNode> operacion = operaciones.next();
+            JsonNode anterior = base.path("operaciones").path(operacion.getKey());
+            // Una operación nueva en la mezcla no tiene con qué compararse
+            if (!anterior.isMissingNode()) {
+                comparar(operacion.getKey(), anterior, operacion.getValue(), regresiones);
+            }
+        }
+        return regresiones;
+    }
+
+    private void comparar(String nombre, JsonNode base, JsonNode actual, List<String> regresiones) {
+        for (String percentil : PERCENTILES) {
+            double anterior = base.path("latenciaMs").path(percentil).asDouble();
+            double nuevo = actual.path("latenciaMs").path(percentil).asDouble();
+            if (nuevo > anterior * (1 + tolerancia) && nuevo - anterior > MARGEN_MINIMO_MS) {
+                regresiones.add(String.format(Locale.ROOT, "%s: %s %.3f ms, línea base %.3f ms", nombre, percentil, nuevo, anterior));
+            }
+        }
+        double erroresBase = base.path("tasaErrores").asDouble();
+        double erroresActual = actual.path("tasaErrores").asDouble();
+        if (erroresActual > erroresBase + toleranciaErrores) {
+            regresiones.add(String.format(Locale.ROOT, "%s: tasa de errores %.4f, línea base %.4f", nombre, erroresActual, erroresBase));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.usuarios.usuario.carga;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+// Argumentos "--clave=valor" del generador. Sin --url arranca la aplicación en este proceso
+// con el perfil "carga" (H2 embebida)
+final class Configuracion {
+
+    static final String MEZCLA_POR_DEFECTO =
+        "login=50,listarUsuarios=20,listarRoles=20,crearUsuario=5,actualizarRol=5";
+
+    private static final Set<String> CLAVES = Set.of(
+        "rps", "duracion", "calentamiento", "mezcla", "usuarios", "roles", "url",
+        "salida", "linea-base", "tolerancia", "tolerancia-errores", "timeout");
+
+    final double rps;
+    final Duration duracion;
+    final Duration calentamiento;
+    final Mezcla mezcla;
+    final int usuarios;
+    final int roles;
+    final URI url;
+    final Path salida;
+    final Path lineaBase;
+    final double tolerancia;
+    final double toleranciaErrores;
+    final Duration timeout;
+
+    private Configuracion(Map<String, String> valores) {
+        this.rps = Double.parseDouble(valores.getOrDefault("rps", "200"));
+        this.duracion = Duration.ofSeconds(Long.parseLong(valores.getOrDefault("duracion", "60")));
+        this.calentamiento = Duration.ofSeconds(Long.parseLong(valores.getOrDefault("calentamiento", "15")));
+        this.mezcla = Mezcla.desde(valores.getOrDefault("mezcla", MEZCLA_POR_DEFECTO));
+        this.usuarios = Integer.parseInt(valores.getOrDefault("usuarios", "1000"));
+        this.roles = Integer.parseInt(valores.getOrDefault("roles", "10"));
+        this.url = valores.containsKey("url") ? URI.create(valores.get("url")) : null;
+        this.salida = Path.of(valores.getOrDefault("salida", "carga-resultados.json"));
+        this.lineaBase = valores.containsKey("linea-base") ? Path.of(valores.get("linea-base")) : null;
+        // Aumento relativo de latencia (o caída de throughput) admitido frente a la línea base
+        this.tolerancia = Double.parseDouble(valores.getOrDefault("tolerancia", "0.10"));
+        // Aumento absoluto de la tasa de errores admitido (0.005 = medio punto porcentual)
+        this.toleranciaErrores = Double.parseDouble(valores.getOrDefault("tolerancia-errores", "0.005"));
+        this.timeout = Duration.ofSeconds(Long.parseLong(valores.getOrDefault("timeout", "10")));
+
+        if (rps <= 0 || duracion.isZero() || duracion.isNegative() || calentamiento.isNegative()) {
+            throw new IllegalArgumentException("rps y duracion deben ser positivos");
+        }
+        if (usuarios < 1 || roles < 1) {
+            throw new IllegalArgumentException("Se necesita al menos un usuario y un rol");
+        }
+    }
+
+    static Configuracion desdeArgumentos(String... argumentos) {
+        Map<String, String> valores = new HashMap<>();
+        for (String argumento : argumentos) {
+            int igual = argumento.indexOf('=');
+            if (!argumento.startsWith("--") || igual < 0) {
+                throw new IllegalArgumentException("Argumento mal formado: '" + argumento + "', se espera --clave=valor");
+            }
+            String clave = argumento.substring(2, igual);
+            if (!CLAVES.contains(clave)) {
+                throw new IllegalArgumentException("Argumento desconocido: --" + clave);
+            }
+            valores.put(clave, argumento.substring(igual + 1));
+        }
+        return new Configuracion(valores);
+    }
+}
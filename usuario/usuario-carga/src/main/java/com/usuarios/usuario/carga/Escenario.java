@@ -0,0 +1,156 @@
+package com.usuarios.usuario.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Datos de la prueba y solicitudes de cada operación. Todo se crea por la API con un prefijo
+// propio de la ejecución, así también sirve contra una instancia desplegada (--url) sin chocar
+// con usuarios o roles existentes
+final class Escenario {
+
+    static final String PASSWORD = "Carga-12345";
+    private static final int FILAS_POR_BLOQUE = 1000;
+    private static final List<List<String>> PERMISOS_ALTERNADOS = List.of(
+        List.of("LEER", "ESCRIBIR"),
+        List.of("LEER", "ESCRIBIR", "ELIMINAR"));
+
+    private final HttpClient cliente;
+    private final URI base;
+    private final ObjectMapper objectMapper;
+    private final Duration timeout;
+    private final String prefijo;
+
+    private final List<String> usernames = new ArrayList<>();
+    private final List<Long> rolIds = new ArrayList<>();
+    private final List<String> rolNombres = new ArrayList<>();
+    private final AtomicLong siguienteUsuario = new AtomicLong();
+    private final AtomicLong siguienteCambioRol = new AtomicLong();
+
+    Escenario(HttpClient cliente, URI base, ObjectMapper objectMapper, Duration timeout) {
+        this.cliente = cliente;
+        this.base = base;
+        this.objectMapper = objectMapper;
+        this.timeout = timeout;
+        this.prefijo = "carga" + Long.toString(System.currentTimeMillis(), 36);
+    }
+
+    void sembrar(int usuarios, int roles) throws IOException, InterruptedException {
+        for (int i = 0; i < roles; i++) {
+            String nombre = prefijo + "_ROL_" + i;
+            JsonNode respuesta = enviar(post("api/roles/crear", rol(nombre, 0)));
+            rolIds.add(respuesta.path("data").path("id").asLong());
+            rolNombres.add(nombre);
+        }
+        for (int desde = 0; desde < usuarios; desde += FILAS_POR_BLOQUE) {
+            List<Map<String, Object>> bloque = new ArrayList<>();
+            for (int i = desde; i < Math.min(usuarios, desde + FILAS_POR_BLOQUE); i++) {
+                bloque.add(usuario(prefijo + "_" + i, rolIds.get(i % rolIds.size())));
+            }
+            for (JsonNode fila : enviar(post("api/usuarios/bulk", bloque)).path("data")) {
+                if (!fila.path("exito").asBoolean()) {
+                    throw new IllegalStateException("No se pudo crear " + fila.path("username").asText()
+                        + ": " + fila.path("mensaje").asText());
+                }
+                usernames.add(fila.path("username").asText());
+            }
+        }
+    }
+
+    HttpRequest solicitud(Operacion operacion, Random aleatorio) {
+        switch (operacion) {
+            case LOGIN: {
+                Map<String, Object> credenciales = new LinkedHashMap<>();
+                credenciales.put("username", usernames.get(aleatorio.nextInt(usernames.size())));
+                credenciales.put("password", PASSWORD);
+                return post("api/auth/login", credenciales);
+            }
+            case CREAR_USUARIO:
+                return post("api/usuarios/crear", usuario(prefijo + "_n" + siguienteUsuario.getAndIncrement(),
+                    rolIds.get(aleatorio.nextInt(rolIds.size()))));
+            case LISTAR_USUARIOS:
+                return get("api/usuarios");
+            case LISTAR_ROLES:
+                return get("api/roles");
+            case ACTUALIZAR_ROL: {
+                // Alterna los permisos de cada rol sin cambiar el nombre; sin If-Match, como un cliente que no lee antes
+                long cambio = siguienteCambioRol.getAndIncrement();
+                int indice = (int) (cambio % rolIds.size());
+                return HttpRequest.newBuilder(base.resolve("api/roles/" + rolIds.get(indice)))
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .PUT(cuerpo(rol(rolNombres.get(indice), (int) (cambio / rolIds.size()))))
+                    .build();
+            }
+            default:
+                throw new IllegalArgumentException("Operación sin solicitud: " + operacion);
+        }
+    }
+
+    int cantidadUsuarios() {
+        return usernames.size();
+    }
+
+    private static Map<String, Object> rol(String nombre, int variante) {
+        Map<String, Object> rol = new LinkedHashMap<>();
+        rol.put("nombre", nombre);
+        rol.put("permisos", PERMISOS_ALTERNADOS.get(variante % PERMISOS_ALTERNADOS.size()));
+        return rol;
+    }
+
+    private static Map<String, Object> usuario(String username, Long rolId) {
+        Map<String, Object> usuario = new LinkedHashMap<>();
+        usuario.put("username", username);
+        usuario.put("password", PASSWORD);
+        usuario.put("nombreCompleto", "Usuario " + username);
+        usuario.put("rolId", rolId);
+        return usuario;
+    }
+
+    private HttpRequest get(String ruta) {
+        return HttpRequest.newBuilder(base.resolve(ruta))
+            .timeout(timeout)
+            .header("Accept", "application/json")
+            .GET()
+            .build();
+    }
+
+    private HttpRequest post(String ruta, Object cuerpo) {
+        return HttpRequest.newBuilder(base.resolve(ruta))
+            .timeout(timeout)
+            .header("Content-Type", "application/json")
+            .POST(cuerpo(cuerpo))
+            .build();
+    }
+
+    private HttpRequest.BodyPublisher cuerpo(Object valor) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(valor));
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo serializar la solicitud", e);
+        }
+    }
+
+    private JsonNode enviar(HttpRequest solicitud) throws IOException, InterruptedException {
+        HttpResponse<byte[]> respuesta = cliente.send(solicitud, HttpResponse.BodyHandlers.ofByteArray());
+        if (respuesta.statusCode() != 200) {
+            throw new IllegalStateException("Preparación de datos fallida: " + solicitud.method() + " "
+                + solicitud.uri() + " respondió " + respuesta.statusCode() + " "
+                + new String(respuesta.body(), StandardCharsets.UTF_8));
+        }
+        return objectMapper.readTree(respuesta.body());
+    }
+}
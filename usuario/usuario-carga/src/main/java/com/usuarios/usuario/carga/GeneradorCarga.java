@@ -0,0 +1,193 @@
+package com.usuarios.usuario.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.usuarios.usuario.UsuarioApplication;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+// Generador de carga de modelo abierto: las solicitudes salen a la tasa objetivo sin esperar
+// a que terminen las anteriores, como llegan los clientes reales. Un servidor lento acumula
+// solicitudes en vuelo en lugar de frenar la carga, y esa espera aparece en la latencia.
+//
+// Escribe el informe en JSON y, con --linea-base, termina con código 1 si hay regresiones:
+//     mvn -f usuario-carga/pom.xml package exec:exec -Dcarga.args="--rps=300 --linea-base=carga-base.json"
+public final class GeneradorCarga {
+
+    private static final int CODIGO_REGRESION = 1;
+
+    private final Configuracion configuracion;
+    private final URI base;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private GeneradorCarga(Configuracion configuracion, URI base) {
+        this.configuracion = configuracion;
+        this.base = base;
+    }
+
+    public static void main(String[] argumentos) throws Exception {
+        Configuracion configuracion = Configuracion.desdeArgumentos(argumentos);
+        ConfigurableApplicationContext contexto = null;
+        URI base = configuracion.url;
+        if (base == null) {
+            contexto = new SpringApplicationBuilder(UsuarioApplication.class)
+                .profiles("carga")
+                .logStartupInfo(false)
+                .properties("server.port=0")
+                .run();
+            int puerto = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+            base = URI.create("http://localhost:" + puerto + "/");
+        } else if (!base.getPath().endsWith("/")) {
+            base = URI.create(base + "/");
+        }
+
+        int codigo;
+        try {
+            codigo = new GeneradorCarga(configuracion, base).ejecutar();
+        } finally {
+            if (contexto != null) {
+                contexto.close();
+            }
+        }
+        System.exit(codigo);
+    }
+
+    private int ejecutar() throws IOException, InterruptedException {
+        HttpClient cliente = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        Escenario escenario = new Escenario(cliente, base, objectMapper, configuracion.timeout);
+        System.out.printf("Preparando %d roles y %d usuarios en %s%n", configuracion.roles, configuracion.usuarios, base);
+        escenario.sembrar(configuracion.usuarios, configuracion.roles);
+
+        Resultados resultados = new Resultados(configuracion.mezcla.getPesos().keySet());
+        System.out.printf("Carga: %.0f rps durante %d s (más %d s de calentamiento)%n",
+            configuracion.rps, configuracion.duracion.toSeconds(), configuracion.calentamiento.toSeconds());
+        long atrasoMaximo = generar(cliente, escenario, resultados);
+
+        ObjectNode informe = informe(resultados, atrasoMaximo);
+        Path salida = configuracion.salida;
+        if (salida.getParent() != null) {
+            Files.createDirectories(salida.getParent());
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(salida.toFile(), informe);
+        imprimir(informe);
+        System.out.println("Informe: " + salida.toAbsolutePath());
+
+        if (configuracion.lineaBase == null) {
+            return 0;
+        }
+        JsonNode lineaBase = objectMapper.readTree(configuracion.lineaBase.toFile());
+        List<String> regresiones = new ComparadorLineaBase(configuracion.tolerancia, configuracion.toleranciaErrores)
+            .regresiones(lineaBase, informe);
+        if (regresiones.isEmpty()) {
+            System.out.println("Sin regresiones frente a " + configuracion.lineaBase);
+            return 0;
+        }
+        System.out.println("Regresiones frente a " + configuracion.lineaBase + ":");
+        regresiones.forEach(regresion -> System.out.println("  " + regresion));
+        return CODIGO_REGRESION;
+    }
+
+    // Devuelve el mayor atraso del despachador respecto del instante programado. Si es grande,
+    // el propio generador no sostuvo la tasa y el resultado no es fiable
+    private long generar(HttpClient cliente, Escenario escenario, Resultados resultados) throws InterruptedException {
+        Mezcla mezcla = configuracion.mezcla;
+        // Solo lo usa el hilo despachador
+        Random aleatorio = new Random();
+        AtomicInteger enVuelo = new AtomicInteger();
+        double intervaloNanos = TimeUnit.SECONDS.toNanos(1) / configuracion.rps;
+
+        long inicio = System.nanoTime();
+        long finCalentamiento = inicio + configuracion.calentamiento.toNanos();
+        long fin = finCalentamiento + configuracion.duracion.toNanos();
+        long atrasoMaximo = 0;
+        for (long i = 0; ; i++) {
+            long programado = inicio + (long) (i * intervaloNanos);
+            if (programado - fin >= 0) {
+                break;
+            }
+            long espera;
+            while ((espera = programado - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(espera);
+            }
+            boolean medida = programado - finCalentamiento >= 0;
+            if (medida) {
+                atrasoMaximo = Math.max(atrasoMaximo, System.nanoTime() - programado);
+            }
+
+            Operacion operacion = mezcla.elegir(aleatorio.nextInt(mezcla.total()));
+            HttpRequest solicitud = escenario.solicitud(operacion, aleatorio);
+            enVuelo.incrementAndGet();
+            cliente.sendAsync(solicitud, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((respuesta, error) -> {
+                    if (medida) {
+                        resultados.registrar(operacion, System.nanoTime() - programado,
+                            error == null ? respuesta.statusCode() : -1);
+                    }
+                    enVuelo.decrementAndGet();
+                });
+        }
+
+        // Las solicitudes en vuelo al terminar cuentan; el timeout de cada una acota la espera
+        long limite = System.nanoTime() + configuracion.timeout.toNanos() + TimeUnit.SECONDS.toNanos(1);
+        while (enVuelo.get() > 0 && System.nanoTime() - limite < 0) {
+            Thread.sleep(10);
+        }
+        return atrasoMaximo;
+    }
+
+    private ObjectNode informe(Resultados resultados, long atrasoMaximo) {
+        ObjectNode informe = objectMapper.createObjectNode();
+        informe.put("fecha", Instant.now().toString());
+        ObjectNode objetivo = informe.putObject("objetivo");
+        objetivo.put("rps", configuracion.rps);
+        objetivo.put("duracionSegundos", configuracion.duracion.toSeconds());
+        objetivo.put("calentamientoSegundos", configuracion.calentamiento.toSeconds());
+        objetivo.put("usuarios", configuracion.usuarios);
+        objetivo.put("roles", configuracion.roles);
+        ObjectNode mezcla = objetivo.putObject("mezcla");
+        for (Map.Entry<Operacion, Integer> peso : configuracion.mezcla.getPesos().entrySet()) {
+            mezcla.put(peso.getKey().getNombre(), peso.getValue());
+        }
+        informe.put("atrasoMaximoGeneradorMs", TimeUnit.NANOSECONDS.toMillis(atrasoMaximo));
+        informe.setAll(resultados.informe(objectMapper, configuracion.duracion.toMillis() / 1_000.0));
+        return informe;
+    }
+
+    private static void imprimir(JsonNode informe) {
+        System.out.printf("%-16s %10s %9s %9s %9s %9s %9s %8s%n",
+            "operación", "solicitudes", "rps", "p50 ms", "p95 ms", "p99 ms", "p999 ms", "errores");
+        informe.path("operaciones").fields().forEachRemaining(operacion -> fila(operacion.getKey(), operacion.getValue()));
+        fila("total", informe.path("total"));
+    }
+
+    private static void fila(String nombre, JsonNode resumen) {
+        JsonNode latencia = resumen.path("latenciaMs");
+        System.out.printf("%-16s %10d %9.1f %9.3f %9.3f %9.3f %9.3f %7.2f%%%n", nombre,
+            resumen.path("solicitudes").asLong(), resumen.path("rps").asDouble(),
+            latencia.path("p50").asDouble(), latencia.path("p95").asDouble(),
+            latencia.path("p99").asDouble(), latencia.path("p999").asDouble(),
+            resumen.path("tasaErrores").asDouble() * 100);
+    }
+}
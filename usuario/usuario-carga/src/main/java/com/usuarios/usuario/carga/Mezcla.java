@@ -0,0 +1,64 @@
+package com.usuarios.usuario.carga;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+// Proporción de cada operación en la carga, p. ej. "login=50,listarRoles=20,actualizarRol=5".
+// Los pesos no necesitan sumar 100
+final class Mezcla {
+
+    private final Map<Operacion, Integer> pesos;
+    private final Operacion[] operaciones;
+    private final int[] acumulado;
+
+    private Mezcla(Map<Operacion, Integer> pesos) {
+        this.pesos = Collections.unmodifiableMap(pesos);
+        this.operaciones = pesos.keySet().toArray(new Operacion[0]);
+        this.acumulado = new int[operaciones.length];
+        int suma = 0;
+        for (int i = 0; i < operaciones.length; i++) {
+            suma += pesos.get(operaciones[i]);
+            acumulado[i] = suma;
+        }
+    }
+
+    static Mezcla desde(String texto) {
+        Map<Operacion, Integer> pesos = new EnumMap<>(Operacion.class);
+        for (String parte : texto.split(",")) {
+            String[] claveValor = parte.trim().split("=");
+            if (claveValor.length != 2) {
+                throw new IllegalArgumentException("Peso mal formado en la mezcla: '" + parte + "'");
+            }
+            int peso = Integer.parseInt(claveValor[1].trim());
+            if (peso < 0) {
+                throw new IllegalArgumentException("Peso negativo en la mezcla: '" + parte + "'");
+            }
+            if (peso > 0) {
+                pesos.put(Operacion.desdeNombre(claveValor[0].trim()), peso);
+            }
+        }
+        if (pesos.isEmpty()) {
+            throw new IllegalArgumentException("La mezcla no tiene ninguna operación con peso");
+        }
+        return new Mezcla(pesos);
+    }
+
+    int total() {
+        return acumulado[acumulado.length - 1];
+    }
+
+    // valor en [0, total())
+    Operacion elegir(int valor) {
+        for (int i = 0; i < acumulado.length; i++) {
+            if (valor < acumulado[i]) {
+                return operaciones[i];
+            }
+        }
+        throw new IllegalArgumentException("Valor fuera de la mezcla: " + valor);
+    }
+
+    Map<Operacion, Integer> getPesos() {
+        return pesos;
+    }
+}
@@ -0,0 +1,29 @@
+package com.usuarios.usuario.carga;
+
+// Operaciones de la mezcla de carga; el nombre es el que se usa en los argumentos y en el informe
+public enum Operacion {
+    LOGIN("login"),
+    CREAR_USUARIO("crearUsuario"),
+    LISTAR_USUARIOS("listarUsuarios"),
+    LISTAR_ROLES("listarRoles"),
+    ACTUALIZAR_ROL("actualizarRol");
+
+    private final String nombre;
+
+    Operacion(String nombre) {
+        this.nombre = nombre;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public static Operacion desdeNombre(String nombre) {
+        for (Operacion operacion : values()) {
+            if (operacion.nombre.equals(nombre)) {
+                return operacion;
+            }
+        }
+        throw new IllegalArgumentException("Operación desconocida: " + nombre);
+    }
+}
@@ -0,0 +1,99 @@
+package com.usuarios.usuario.carga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latencias (HdrHistogram, en microsegundos, 3 dígitos significativos) y códigos de estado por
+// operación. La latencia se cuenta desde el instante programado, no desde el envío: si el
+// servidor se atrasa, la espera en cola también se mide
+final class Resultados {
+
+    static final String ESTADO_ERROR = "error";
+
+    private final Map<Operacion, PorOperacion> porOperacion = new EnumMap<>(Operacion.class);
+
+    Resultados(Iterable<Operacion> operaciones) {
+        for (Operacion operacion : operaciones) {
+            porOperacion.put(operacion, new PorOperacion());
+        }
+    }
+
+    // estado < 0: la solicitud no obtuvo respuesta (timeout, conexión rechazada)
+    void registrar(Operacion operacion, long latenciaNanos, int estado) {
+        PorOperacion resultados = porOperacion.get(operacion);
+        resultados.latencias.recordValue(Math.max(1, latenciaNanos / 1_000));
+        resultados.solicitudes.increment();
+        if (estado < 0 || estado >= 400) {
+            resultados.errores.increment();
+        }
+        resultados.estados.computeIfAbsent(estado < 0 ? ESTADO_ERROR : String.valueOf(estado), e -> new LongAdder())
+            .increment();
+    }
+
+    ObjectNode informe(ObjectMapper objectMapper, double segundosMedidos) {
+        ObjectNode operaciones = objectMapper.createObjectNode();
+        Histogram total = new Histogram(3);
+        long solicitudes = 0;
+        long errores = 0;
+        for (Map.Entry<Operacion, PorOperacion> entrada : porOperacion.entrySet()) {
+            PorOperacion resultados = entrada.getValue();
+            Histogram latencias = resultados.latencias.copy();
+            total.add(latencias);
+            long cantidad = resultados.solicitudes.sum();
+            long fallidas = resultados.errores.sum();
+            solicitudes += cantidad;
+            errores += fallidas;
+
+            ObjectNode nodo = resumen(objectMapper, latencias, cantidad, fallidas, segundosMedidos);
+            ObjectNode estados = nodo.putObject("estados");
+            new TreeMap<>(resultados.estados).forEach((estado, contador) -> estados.put(estado, contador.sum()));
+            operaciones.set(entrada.getKey().getNombre(), nodo);
+        }
+
+        ObjectNode informe = objectMapper.createObjectNode();
+        informe.set("total", resumen(objectMapper, total, solicitudes, errores, segundosMedidos));
+        informe.set("operaciones", operaciones);
+        return informe;
+    }
+
+    private static ObjectNode resumen(ObjectMapper objectMapper, Histogram latencias, long solicitudes,
+                                      long errores, double segundos) {
+        ObjectNode nodo = objectMapper.createObjectNode();
+        nodo.put("solicitudes", solicitudes);
+        nodo.put("errores", errores);
+        nodo.put("tasaErrores", solicitudes > 0 ? (double) errores / solicitudes : 0.0);
+        nodo.put("rps", redondear(solicitudes / segundos));
+        ObjectNode latencia = nodo.putObject("latenciaMs");
+        latencia.put("p50", milisegundos(latencias.getValueAtPercentile(50)));
+        latencia.put("p95", milisegundos(latencias.getValueAtPercentile(95)));
+        latencia.put("p99", milisegundos(latencias.getValueAtPercentile(99)));
+        latencia.put("p999", milisegundos(latencias.getValueAtPercentile(99.9)));
+        latencia.put("max", milisegundos(latencias.getMaxValue()));
+        latencia.put("media", redondear(latencias.getMean() / 1_000.0));
+        return nodo;
+    }
+
+    private static double milisegundos(long microsegundos) {
+        return redondear(microsegundos / 1_000.0);
+    }
+
+    private static double redondear(double valor) {
+        return Math.round(valor * 1_000.0) / 1_000.0;
+    }
+
+    private static final class PorOperacion {
+        // Admite registros concurrentes desde los hilos que completan las respuestas
+        private final ConcurrentHistogram latencias = new ConcurrentHistogram(3);
+        private final LongAdder solicitudes = new LongAdder();
+        private final LongAdder errores = new LongAdder();
+        private final ConcurrentHashMap<String, LongAdder> estados = new ConcurrentHashMap<>();
+    }
+}
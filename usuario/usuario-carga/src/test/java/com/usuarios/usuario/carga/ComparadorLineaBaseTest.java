@@ -0,0 +1,72 @@
+package com.usuarios.usuario.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ComparadorLineaBaseTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ComparadorLineaBase comparador = new ComparadorLineaBase(0.10, 0.005);
+
+    @Test
+    void regresiones_DentroDeLaTolerancia_NoHay() throws Exception {
+        JsonNode base = informe(300, 5.0, 20.0, 0.0);
+        JsonNode actual = informe(295, 5.4, 21.5, 0.002);
+
+        assertTrue(comparador.regresiones(base, actual).isEmpty());
+    }
+
+    @Test
+    void regresiones_P99MasLento_LaInforma() throws Exception {
+        JsonNode base = informe(300, 5.0, 20.0, 0.0);
+        JsonNode actual = informe(300, 5.0, 30.0, 0.0);
+
+        List<String> regresiones = comparador.regresiones(base, actual);
+
+        assertTrue(regresiones.contains("login: p99 30.000 ms, línea base 20.000 ms"));
+        assertTrue(regresiones.contains("total: p99 30.000 ms, línea base 20.000 ms"));
+    }
+
+    @Test
+    void regresiones_AumentoMenorAlMargenMinimo_SeIgnora() throws Exception {
+        JsonNode base = informe(300, 0.3, 0.8, 0.0);
+        JsonNode actual = informe(300, 0.6, 1.5, 0.0);
+
+        assertTrue(comparador.regresiones(base, actual).isEmpty());
+    }
+
+    @Test
+    void regresiones_MasErroresOMenosThroughput_LasInforma() throws Exception {
+        JsonNode base = informe(300, 5.0, 20.0, 0.0);
+        JsonNode actual = informe(250, 5.0, 20.0, 0.02);
+
+        List<String> regresiones = comparador.regresiones(base, actual);
+
+        assertTrue(regresiones.contains("total: throughput 250.0 rps, línea base 300.0 rps"));
+        assertTrue(regresiones.contains("login: tasa de errores 0.0200, línea base 0.0000"));
+    }
+
+    @Test
+    void mezcla_EligeSegunLosPesos() {
+        Mezcla mezcla = Mezcla.desde("login=3, listarRoles=1, crearUsuario=0");
+
+        assertEquals(4, mezcla.total());
+        assertEquals(Operacion.LOGIN, mezcla.elegir(2));
+        assertEquals(Operacion.LISTAR_ROLES, mezcla.elegir(3));
+        assertFalse(mezcla.getPesos().containsKey(Operacion.CREAR_USUARIO));
+        assertThrows(IllegalArgumentException.class, () -> Mezcla.desde("borrarTodo=1"));
+    }
+
+    private JsonNode informe(double rps, double p50, double p99, double tasaErrores) throws Exception {
+        String resumen = String.format(Locale.ROOT,
+            "{\"rps\":%s,\"tasaErrores\":%s,\"latenciaMs\":{\"p50\":%s,\"p95\":%s,\"p99\":%s}}",
+            rps, tasaErrores, p50, p50, p99);
+        return objectMapper.readTree("{\"total\":" + resumen + ",\"operaciones\":{\"login\":" + resumen + "}}");
+    }
+}
@@ -0,0 +1,13 @@
+package com.usuarios.reactivo;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class UsuarioReactivoApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(UsuarioReactivoApplication.class, args);
+	}
+
+}
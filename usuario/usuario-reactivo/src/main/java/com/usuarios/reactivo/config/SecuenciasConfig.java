@@ -0,0 +1,44 @@
+package com.usuarios.reactivo.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.r2dbc.mapping.event.BeforeConvertCallback;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import com.usuarios.reactivo.models.Rol;
+import com.usuarios.reactivo.models.Usuario;
+
+import reactor.core.publisher.Mono;
+
+// Ids desde las mismas secuencias que usa Hibernate en el servicio servlet. Hibernate reserva
+// bloques de 50 a partir de cada valor (optimizador pooled); aquí cada nextval se usa como id,
+// que es el tope de un bloque que Hibernate nunca recibe, así ambos servicios no chocan.
+@Configuration
+public class SecuenciasConfig {
+
+    @Bean
+    public BeforeConvertCallback<Usuario> idUsuario(DatabaseClient databaseClient) {
+        return (usuario, tabla) -> usuario.getId() != null
+            ? Mono.just(usuario)
+            : siguienteValor(databaseClient, "usuarios_seq").map(id -> {
+                usuario.setId(id);
+                return usuario;
+            });
+    }
+
+    @Bean
+    public BeforeConvertCallback<Rol> idRol(DatabaseClient databaseClient) {
+        return (rol, tabla) -> rol.getId() != null
+            ? Mono.just(rol)
+            : siguienteValor(databaseClient, "roles_seq").map(id -> {
+                rol.setId(id);
+                return rol;
+            });
+    }
+
+    private static Mono<Long> siguienteValor(DatabaseClient databaseClient, String secuencia) {
+        return databaseClient.sql("select " + secuencia + ".nextval from dual")
+            .map(fila -> fila.get(0, Long.class))
+            .one();
+    }
+}
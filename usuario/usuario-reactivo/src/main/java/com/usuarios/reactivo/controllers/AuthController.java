@@ -0,0 +1,68 @@
+package com.usuarios.reactivo.controllers;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.usuarios.reactivo.models.Usuario;
+import com.usuarios.reactivo.repository.RolRepository;
+import com.usuarios.reactivo.repository.UsuarioRepository;
+import com.usuarios.reactivo.services.PasswordHashService;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/auth")
+@RequiredArgsConstructor
+public class AuthController {
+
+    private final UsuarioRepository usuarioRepository;
+    private final RolRepository rolRepository;
+    private final PasswordHashService passwordHashService;
+
+    @PostMapping("/login")
+    public Mono<ResponseEntity<Map<String, Object>>> login(@RequestBody Map<String, String> credentials) {
+        String username = credentials.get("username");
+        String password = credentials.get("password");
+        if (username == null || password == null) {
+            return Mono.just(credencialesInvalidas());
+        }
+
+        return usuarioRepository.findByUsername(username)
+            .filterWhen(usuario -> passwordHashService.verificar(password, usuario.getPassword()))
+            .flatMap(usuario -> {
+                if (passwordHashService.requiereRehash(usuario.getPassword())) {
+                    rehash(usuario, password);
+                }
+                return rolRepository.findById(usuario.getRolId())
+                    .map(rol -> ResponseEntity.ok(loginExitoso(usuario.getUsername(), rol.getNombre())));
+            })
+            .defaultIfEmpty(credencialesInvalidas());
+    }
+
+    // En segundo plano: la respuesta no espera el nuevo hash; si falla se reintenta en el próximo login
+    private void rehash(Usuario usuario, String password) {
+        passwordHashService.hash(password)
+            .flatMap(nuevo -> usuarioRepository.actualizarPassword(usuario.getId(), usuario.getPassword(), nuevo))
+            .onErrorResume(e -> Mono.empty())
+            .subscribe();
+    }
+
+    private Map<String, Object> loginExitoso(String username, String rolNombre) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("mensaje", "Login exitoso");
+        response.put("rol", rolNombre);
+        response.put("username", username);
+        return response;
+    }
+
+    private ResponseEntity<Map<String, Object>> credencialesInvalidas() {
+        return ResponseEntity.badRequest().body(Map.of("mensaje", "Credenciales inválidas"));
+    }
+}
@@ -0,0 +1,65 @@
+package com.usuarios.reactivo.controllers;
+
+import com.usuarios.reactivo.dto.RolDTO;
+import com.usuarios.reactivo.dto.ResponseDTO;
+import com.usuarios.reactivo.models.Rol;
+import com.usuarios.reactivo.services.RolService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/roles")
+@CrossOrigin(origins = "*")
+public class RolController {
+
+    @Autowired
+    private RolService rolService;
+
+    @PostMapping("/crear")
+    public Mono<ResponseEntity<ResponseDTO>> crearRol(@RequestBody RolDTO rolDTO) {
+        if (rolDTO.getNombre() == null || rolDTO.getNombre().trim().isEmpty()) {
+            return Mono.just(ResponseEntity.badRequest()
+                .body(new ResponseDTO("El nombre del rol es requerido", null, false)));
+        }
+        return rolService.crearRol(rolDTO)
+            .map(rol -> ResponseEntity.ok(new ResponseDTO("Rol creado exitosamente", rol, true)))
+            .onErrorResume(RuntimeException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new ResponseDTO(e.getMessage(), null, false))));
+    }
+
+    // Se emite en streaming: arreglo JSON incremental o una línea por rol con application/x-ndjson
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Rol> obtenerTodosLosRoles() {
+        return rolService.obtenerTodosLosRoles();
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<ResponseDTO>> obtenerRolPorId(@PathVariable Long id) {
+        return rolService.obtenerRolPorId(id)
+            .map(rol -> ResponseEntity.ok(new ResponseDTO("Rol encontrado", rol, true)))
+            .onErrorResume(RuntimeException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(new ResponseDTO(e.getMessage(), null, false))));
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<ResponseDTO>> actualizarRol(@PathVariable Long id, @RequestBody RolDTO rolDTO) {
+        return rolService.actualizarRol(id, rolDTO)
+            .map(rol -> ResponseEntity.ok(new ResponseDTO("Rol actualizado exitosamente", rol, true)))
+            .onErrorResume(RuntimeException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new ResponseDTO(e.getMessage(), null, false))));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<ResponseDTO>> eliminarRol(@PathVariable Long id) {
+        return rolService.eliminarRol(id)
+            .then(Mono.just(ResponseEntity.ok(new ResponseDTO("Rol eliminado exitosamente", null, true))))
+            .onErrorResume(RuntimeException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(new ResponseDTO(e.getMessage(), null, false))));
+    }
+}
@@ -0,0 +1,105 @@
+package com.usuarios.reactivo.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.usuarios.reactivo.dto.ResponseDTO;
+import com.usuarios.reactivo.dto.UsuarioDTO;
+import com.usuarios.reactivo.dto.UsuarioResumenDTO;
+import com.usuarios.reactivo.models.Usuario;
+import com.usuarios.reactivo.services.UsuarioService;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/usuarios")
+public class UsuarioController {
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @PostMapping("/crear")
+    public Mono<ResponseEntity<ResponseDTO>> crearUsuario(@RequestBody UsuarioDTO usuarioDTO) {
+        if (usuarioDTO.getUsername() == null || usuarioDTO.getUsername().trim().isEmpty()) {
+            return Mono.just(ResponseEntity.badRequest()
+                .body(new ResponseDTO("El username es requerido", null, false)));
+        }
+        if (usuarioDTO.getPassword() == null || usuarioDTO.getPassword().trim().isEmpty()) {
+            return Mono.just(ResponseEntity.badRequest()
+                .body(new ResponseDTO("La contraseña es requerida", null, false)));
+        }
+        if (usuarioDTO.getNombreCompleto() == null || usuarioDTO.getNombreCompleto().trim().isEmpty()) {
+            return Mono.just(ResponseEntity.badRequest()
+                .body(new ResponseDTO("El nombre completo es requerido", null, false)));
+        }
+        if (usuarioDTO.getRolId() == null) {
+            return Mono.just(ResponseEntity.badRequest()
+                .body(new ResponseDTO("El rol es requerido", null, false)));
+        }
+
+        return usuarioService.crearUsuario(usuarioDTO)
+            .map(usuario -> ResponseEntity.ok(new ResponseDTO("Usuario creado exitosamente", usuario, true)))
+            .onErrorResume(RuntimeException.class, e -> {
+                log.error("Error al crear usuario", e);
+                return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ResponseDTO(e.getMessage(), null, false)));
+            });
+    }
+
+    // Se emite en streaming: arreglo JSON incremental o una línea por usuario con application/x-ndjson
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<UsuarioResumenDTO> getAllUsuarios() {
+        return usuarioService.findResumenes();
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<UsuarioResumenDTO>> getUsuarioById(@PathVariable Long id) {
+        return usuarioService.findResumenById(id)
+            .map(ResponseEntity::ok)
+            .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping
+    public Mono<Usuario> createUsuario(@RequestBody Usuario usuario) {
+        usuario.setId(null);
+        usuario.setVersion(null);
+        return usuarioService.save(usuario);
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<Usuario>> updateUsuario(@PathVariable Long id, @RequestBody Usuario usuario) {
+        return usuarioService.findById(id)
+            .flatMap(existente -> {
+                usuario.setId(id);
+                // Sin versión en el cuerpo se compara contra la versión leída
+                if (usuario.getVersion() == null) {
+                    usuario.setVersion(existente.getVersion());
+                }
+                return usuarioService.save(usuario);
+            })
+            .map(ResponseEntity::ok)
+            .onErrorResume(OptimisticLockingFailureException.class,
+                e -> Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).<Usuario>build()))
+            .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteUsuario(@PathVariable Long id) {
+        return usuarioService.findById(id)
+            .flatMap(existente -> usuarioService.deleteById(id).thenReturn(ResponseEntity.ok().<Void>build()))
+            .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
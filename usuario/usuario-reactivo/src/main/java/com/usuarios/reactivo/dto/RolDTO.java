@@ -0,0 +1,9 @@
+package com.usuarios.reactivo.dto;
+
+import lombok.Data;
+import java.util.List;
+@Data
+public class RolDTO {
+    private String nombre;
+    private List<String> permisos;
+}
@@ -0,0 +1,11 @@
+package com.usuarios.reactivo.dto;
+
+import lombok.Data;
+
+@Data
+public class UsuarioDTO {
+    private String username;
+    private String password;
+    private String nombreCompleto;
+    private Long rolId;
+}
@@ -0,0 +1,15 @@
+package com.usuarios.reactivo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Fila de listado: columnas de usuarios unidas con el nombre del rol
+@Data
+@AllArgsConstructor
+public class UsuarioResumenDTO {
+    private Long id;
+    private String username;
+    private String nombreCompleto;
+    private Long rolId;
+    private String rolNombre;
+}
@@ -0,0 +1,30 @@
+package com.usuarios.reactivo.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.util.List;
+
+// Los permisos viven en rol_permisos y los carga RolService
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("roles")
+public class Rol {
+    @Id
+    private Long id;
+
+    private String nombre;
+
+    // Misma columna de versión que usa Hibernate en el servicio servlet
+    @Version
+    private Long version;
+
+    @Transient
+    private List<String> permisos;
+}
@@ -0,0 +1,33 @@
+package com.usuarios.reactivo.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+// Sin asociaciones: R2DBC no carga relaciones, el rol se referencia por id
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("usuarios")
+public class Usuario {
+    @Id
+    private Long id;
+
+    @Column("nombre_completo")
+    private String nombreCompleto;
+
+    private String username;
+
+    private String password;
+
+    @Column("rol_id")
+    private Long rolId;
+
+    // Misma columna de versión que usa Hibernate en el servicio servlet
+    @Version
+    private Long version;
+}
@@ -0,0 +1,13 @@
+package com.usuarios.reactivo.repository;
+
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+import com.usuarios.reactivo.models.Rol;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface RolRepository extends ReactiveCrudRepository<Rol, Long> {
+    Mono<Rol> findByNombre(String nombre);
+    Flux<Rol> findAllByOrderByIdAsc();
+}
@@ -0,0 +1,29 @@
+package com.usuarios.reactivo.repository;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+import com.usuarios.reactivo.dto.UsuarioResumenDTO;
+import com.usuarios.reactivo.models.Usuario;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface UsuarioRepository extends ReactiveCrudRepository<Usuario, Long> {
+    Mono<Boolean> existsByUsername(String username);
+    Mono<Boolean> existsByNombreCompleto(String nombreCompleto);
+    // La contraseña se compara en Java contra el hash guardado
+    Mono<Usuario> findByUsername(String username);
+    // Rehash tras un login exitoso, solo si nadie cambió la contraseña entre medio
+    @Modifying
+    @Query("update usuarios set password = :nuevo where id = :id and password = :anterior")
+    Mono<Integer> actualizarPassword(Long id, String anterior, String nuevo);
+    // Listado en streaming: las filas se emiten a medida que llegan del cursor
+    @Query("select u.id, u.username, u.nombre_completo, r.id as rol_id, r.nombre as rol_nombre "
+        + "from usuarios u join roles r on r.id = u.rol_id order by u.id")
+    Flux<UsuarioResumenDTO> findResumenes();
+    @Query("select u.id, u.username, u.nombre_completo, r.id as rol_id, r.nombre as rol_nombre "
+        + "from usuarios u join roles r on r.id = u.rol_id where u.id = :id")
+    Mono<UsuarioResumenDTO> findResumenById(Long id);
+}
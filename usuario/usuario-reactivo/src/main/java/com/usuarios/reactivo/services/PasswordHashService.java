@@ -0,0 +1,68 @@
+package com.usuarios.reactivo.services;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.regex.Pattern;
+
+// bcrypt en un scheduler propio con un hilo por núcleo: los hilos del event loop nunca calculan
+// hashes. Mismo formato que el servicio servlet, que comparte la tabla usuarios
+@Service
+public class PasswordHashService {
+
+    private static final Pattern BCRYPT = Pattern.compile("^\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}$");
+
+    private final BCryptPasswordEncoder encoder;
+    private final int costo;
+    private final Scheduler scheduler;
+
+    public PasswordHashService(
+            @Value("${usuarios.password.costo:10}") int costo,
+            @Value("${usuarios.password.hilos:0}") int hilos) {
+        this.costo = costo;
+        this.encoder = new BCryptPasswordEncoder(costo);
+        this.scheduler = Schedulers.newParallel("password-hash",
+            hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors(), true);
+    }
+
+    public Mono<String> hash(String password) {
+        return Mono.fromCallable(() -> encoder.encode(password)).subscribeOn(scheduler);
+    }
+
+    public boolean esHash(String guardado) {
+        return guardado != null && BCRYPT.matcher(guardado).matches();
+    }
+
+    // Las filas heredadas en texto plano se comparan en tiempo constante sin pasar por el scheduler
+    public Mono<Boolean> verificar(String password, String guardado) {
+        if (password == null || guardado == null) {
+            return Mono.just(false);
+        }
+        if (!esHash(guardado)) {
+            return Mono.just(MessageDigest.isEqual(
+                password.getBytes(StandardCharsets.UTF_8), guardado.getBytes(StandardCharsets.UTF_8)));
+        }
+        return Mono.fromCallable(() -> encoder.matches(password, guardado)).subscribeOn(scheduler);
+    }
+
+    public boolean requiereRehash(String guardado) {
+        if (!esHash(guardado)) {
+            return true;
+        }
+        int indice = guardado.indexOf('$', 1) + 1;
+        return Integer.parseInt(guardado.substring(indice, indice + 2)) < costo;
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        scheduler.dispose();
+    }
+}
@@ -0,0 +1,117 @@
+package com.usuarios.reactivo.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.usuarios.reactivo.dto.RolDTO;
+import com.usuarios.reactivo.models.Rol;
+import com.usuarios.reactivo.repository.RolRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class RolService {
+
+    // Roles por consulta de permisos al recorrer el listado
+    private static final int LOTE_PERMISOS = 50;
+
+    @Autowired
+    private RolRepository rolRepository;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Transactional
+    public Mono<Rol> crearRol(RolDTO rolDTO) {
+        if (rolDTO.getPermisos() == null || rolDTO.getPermisos().isEmpty()) {
+            return Mono.error(new RuntimeException("El rol debe tener al menos un permiso"));
+        }
+        return rolRepository.findByNombre(rolDTO.getNombre())
+            .flatMap(existente -> Mono.<Rol>error(new RuntimeException("Ya existe un rol con ese nombre")))
+            .switchIfEmpty(Mono.defer(() -> {
+                Rol nuevoRol = new Rol(null, rolDTO.getNombre().toUpperCase(), null, null);
+                return rolRepository.save(nuevoRol)
+                    .flatMap(guardado -> guardarPermisos(guardado, rolDTO.getPermisos()));
+            }));
+    }
+
+    // Se emite cada rol con sus permisos; los permisos se consultan por bloques de roles
+    public Flux<Rol> obtenerTodosLosRoles() {
+        return rolRepository.findAllByOrderByIdAsc()
+            .buffer(LOTE_PERMISOS)
+            .concatMap(this::cargarPermisos);
+    }
+
+    public Mono<Rol> obtenerRolPorId(Long id) {
+        return rolRepository.findById(id)
+            .switchIfEmpty(Mono.error(new RuntimeException("Rol no encontrado")))
+            .flatMap(rol -> cargarPermisos(List.of(rol)).single());
+    }
+
+    @Transactional
+    public Mono<Void> eliminarRol(Long id) {
+        return obtenerRolPorId(id)
+            .flatMap(rol -> databaseClient.sql("delete from rol_permisos where rol_id = :rolId")
+                .bind("rolId", id)
+                .then()
+                .then(rolRepository.delete(rol)));
+    }
+
+    @Transactional
+    public Mono<Rol> actualizarRol(Long id, RolDTO rolDTO) {
+        return obtenerRolPorId(id)
+            .flatMap(rolExistente -> rolRepository.findByNombre(rolDTO.getNombre())
+                .filter(rolConNombre -> !rolConNombre.getId().equals(id))
+                .flatMap(otro -> Mono.<Rol>error(new RuntimeException("Ya existe otro rol con ese nombre")))
+                .switchIfEmpty(Mono.defer(() -> {
+                    rolExistente.setNombre(rolDTO.getNombre().toUpperCase());
+                    return rolRepository.save(rolExistente)
+                        .flatMap(guardado -> databaseClient.sql("delete from rol_permisos where rol_id = :rolId")
+                            .bind("rolId", id)
+                            .then()
+                            .then(guardarPermisos(guardado, rolDTO.getPermisos())));
+                })));
+    }
+
+    public Mono<Rol> buscarPorId(Long id) {
+        return rolRepository.findById(id);
+    }
+
+    private Mono<Rol> guardarPermisos(Rol rol, List<String> permisos) {
+        List<String> lista = permisos != null ? permisos : List.of();
+        return Flux.fromIterable(lista)
+            .concatMap(permiso -> databaseClient
+                .sql("insert into rol_permisos (rol_id, permiso) values (:rolId, :permiso)")
+                .bind("rolId", rol.getId())
+                .bind("permiso", permiso)
+                .then())
+            .then(Mono.fromSupplier(() -> {
+                rol.setPermisos(new ArrayList<>(lista));
+                return rol;
+            }));
+    }
+
+    private Flux<Rol> cargarPermisos(List<Rol> roles) {
+        List<Long> ids = new ArrayList<>(roles.size());
+        for (Rol rol : roles) {
+            ids.add(rol.getId());
+            rol.setPermisos(new ArrayList<>());
+        }
+        Map<Long, Rol> porId = new HashMap<>();
+        roles.forEach(rol -> porId.put(rol.getId(), rol));
+        return databaseClient.sql("select rol_id, permiso from rol_permisos where rol_id in (:ids)")
+            .bind("ids", ids)
+            .map(fila -> new Object[] {fila.get("rol_id", Long.class), fila.get("permiso", String.class)})
+            .all()
+            .doOnNext(fila -> porId.get((Long) fila[0]).getPermisos().add((String) fila[1]))
+            .thenMany(Flux.fromIterable(roles));
+    }
+}
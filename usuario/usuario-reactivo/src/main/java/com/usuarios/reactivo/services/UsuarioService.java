@@ -0,0 +1,68 @@
+package com.usuarios.reactivo.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.usuarios.reactivo.dto.UsuarioDTO;
+import com.usuarios.reactivo.dto.UsuarioResumenDTO;
+import com.usuarios.reactivo.models.Usuario;
+import com.usuarios.reactivo.repository.RolRepository;
+import com.usuarios.reactivo.repository.UsuarioRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+public class UsuarioService {
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private RolRepository rolRepository;
+
+    @Autowired
+    private PasswordHashService passwordHashService;
+
+    public Mono<Usuario> crearUsuario(UsuarioDTO usuarioDTO) {
+        return usuarioRepository.existsByUsername(usuarioDTO.getUsername())
+            .flatMap(usernameEnUso -> usernameEnUso
+                ? Mono.<Boolean>error(new RuntimeException("El username ya está en uso"))
+                : usuarioRepository.existsByNombreCompleto(usuarioDTO.getNombreCompleto()))
+            .flatMap(nombreEnUso -> nombreEnUso
+                ? Mono.<Long>error(new RuntimeException("El nombre completo ya está en uso"))
+                : rolRepository.findById(usuarioDTO.getRolId())
+                    .map(rol -> rol.getId())
+                    .switchIfEmpty(Mono.error(new RuntimeException("Rol no encontrado"))))
+            .flatMap(rolId -> passwordHashService.hash(usuarioDTO.getPassword())
+                .flatMap(hash -> usuarioRepository.save(new Usuario(null, usuarioDTO.getNombreCompleto(),
+                    usuarioDTO.getUsername(), hash, rolId, null))));
+    }
+
+    public Flux<UsuarioResumenDTO> findResumenes() {
+        return usuarioRepository.findResumenes();
+    }
+
+    public Mono<UsuarioResumenDTO> findResumenById(Long id) {
+        return usuarioRepository.findResumenById(id);
+    }
+
+    // Un PUT puede devolver el hash leído o traer una contraseña nueva en texto plano
+    public Mono<Usuario> save(Usuario usuario) {
+        if (usuario.getPassword() == null || passwordHashService.esHash(usuario.getPassword())) {
+            return usuarioRepository.save(usuario);
+        }
+        return passwordHashService.hash(usuario.getPassword()).flatMap(hash -> {
+            usuario.setPassword(hash);
+            return usuarioRepository.save(usuario);
+        });
+    }
+
+    public Mono<Usuario> findById(Long id) {
+        return usuarioRepository.findById(id);
+    }
+
+    public Mono<Void> deleteById(Long id) {
+        return usuarioRepository.deleteById(id);
+    }
+}
@@ -0,0 +1,27 @@
+-- Equivalente a las migraciones de Flyway del servicio servlet (db/migration)
+CREATE SEQUENCE IF NOT EXISTS roles_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS usuarios_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS roles (
+    id BIGINT PRIMARY KEY,
+    nombre VARCHAR(255) NOT NULL UNIQUE,
+    version BIGINT DEFAULT 0 NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS rol_permisos (
+    rol_id BIGINT NOT NULL REFERENCES roles (id),
+    permiso VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS usuarios (
+    id BIGINT PRIMARY KEY,
+    nombre_completo VARCHAR(255) NOT NULL UNIQUE,
+    username VARCHAR(255) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    rol_id BIGINT NOT NULL REFERENCES roles (id),
+    version BIGINT DEFAULT 0 NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS usuarios_rol_idx ON usuarios (rol_id, id);
+CREATE INDEX IF NOT EXISTS rol_permisos_rol_idx ON rol_permisos (rol_id);
+CREATE INDEX IF NOT EXISTS usuarios_login_idx ON usuarios (username, rol_id, id);
@@ -0,0 +1,133 @@
+package com.usuarios.reactivo;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.usuarios.reactivo.dto.RolDTO;
+import com.usuarios.reactivo.dto.UsuarioDTO;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles("embebido")
+class UsuarioReactivoApiTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    void crearUsuario_Y_Login_Exitoso() {
+        Number rolId = crearRol("LECTOR_REACTIVO");
+
+        webTestClient.post().uri("/api/usuarios/crear")
+            .bodyValue(usuario("ana.reactiva", "Ana Reactiva", rolId.longValue()))
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.exito").isEqualTo(true)
+            .jsonPath("$.data.username").isEqualTo("ana.reactiva");
+
+        webTestClient.post().uri("/api/auth/login")
+            .bodyValue(Map.of("username", "ana.reactiva", "password", "secreto"))
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.rol").isEqualTo("LECTOR_REACTIVO");
+    }
+
+    @Test
+    void login_PasswordIncorrecta_BadRequest() {
+        Number rolId = crearRol("AUDITOR_REACTIVO");
+        webTestClient.post().uri("/api/usuarios/crear")
+            .bodyValue(usuario("luis.reactivo", "Luis Reactivo", rolId.longValue()))
+            .exchange()
+            .expectStatus().isOk();
+
+        webTestClient.post().uri("/api/auth/login")
+            .bodyValue(Map.of("username", "luis.reactivo", "password", "incorrecta"))
+            .exchange()
+            .expectStatus().isBadRequest()
+            .expectBody()
+            .jsonPath("$.mensaje").isEqualTo("Credenciales inválidas");
+    }
+
+    @Test
+    void crearUsuario_UsernameDuplicado_Conflicto() {
+        Number rolId = crearRol("EDITOR_REACTIVO");
+        webTestClient.post().uri("/api/usuarios/crear")
+            .bodyValue(usuario("duplicado.reactivo", "Primero Reactivo", rolId.longValue()))
+            .exchange()
+            .expectStatus().isOk();
+
+        webTestClient.post().uri("/api/usuarios/crear")
+            .bodyValue(usuario("duplicado.reactivo", "Segundo Reactivo", rolId.longValue()))
+            .exchange()
+            .expectStatus().isEqualTo(409)
+            .expectBody()
+            .jsonPath("$.mensaje").isEqualTo("El username ya está en uso");
+    }
+
+    @Test
+    void getAllUsuarios_Ndjson_UnaLineaPorUsuario() {
+        Number rolId = crearRol("AUDITOR_REACTIVO");
+        webTestClient.post().uri("/api/usuarios/crear")
+            .bodyValue(usuario("ndjson.reactivo", "Ndjson Reactivo", rolId.longValue()))
+            .exchange()
+            .expectStatus().isOk();
+
+        List<Map> usuarios = webTestClient.get().uri("/api/usuarios")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .returnResult(Map.class)
+            .getResponseBody()
+            .collectList()
+            .block();
+
+        assertTrue(usuarios.stream()
+            .anyMatch(u -> "ndjson.reactivo".equals(u.get("username")) && "AUDITOR_REACTIVO".equals(u.get("rolNombre"))));
+    }
+
+    @Test
+    void obtenerRolPorId_NoExiste_NotFound() {
+        webTestClient.get().uri("/api/roles/{id}", 999999)
+            .exchange()
+            .expectStatus().isNotFound()
+            .expectBody()
+            .jsonPath("$.mensaje").isEqualTo("Rol no encontrado");
+    }
+
+    private Number crearRol(String nombre) {
+        RolDTO rolDTO = new RolDTO();
+        rolDTO.setNombre(nombre);
+        rolDTO.setPermisos(List.of("LEER"));
+
+        Map<?, ?> respuesta = webTestClient.post().uri("/api/roles/crear")
+            .bodyValue(rolDTO)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(Map.class)
+            .returnResult()
+            .getResponseBody();
+        return (Number) ((Map<?, ?>) respuesta.get("data")).get("id");
+    }
+
+    private UsuarioDTO usuario(String username, String nombreCompleto, Long rolId) {
+        UsuarioDTO dto = new UsuarioDTO();
+        dto.setUsername(username);
+        dto.setPassword("secreto");
+        dto.setNombreCompleto(nombreCompleto);
+        dto.setRolId(rolId);
+        return dto;
+    }
+}
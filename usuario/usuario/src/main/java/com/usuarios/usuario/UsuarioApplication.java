@@ -2,8 +2,12 @@ package com.usuarios.usuario;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import com.usuarios.usuario.config.HintsNativos;
 
 @SpringBootApplication
+@ImportRuntimeHints(HintsNativos.class)
 public class UsuarioApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,32 @@
+package com.usuarios.usuario.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+// Envuelve el DataSource del pool con AdmisionDataSource; Hibernate, Flyway y las métricas de
+// Hikari lo siguen viendo como el mismo pool (DelegatingDataSource delega unwrap)
+@Configuration
+@ConditionalOnProperty(name = "usuarios.admision.habilitada", havingValue = "true")
+public class AdmisionConfig {
+
+    // static: los BeanPostProcessor se crean antes que el resto de la configuración
+    @Bean
+    public static BeanPostProcessor admisionDataSource(
+            @Value("${usuarios.admision.max-concurrentes:5}") int maxConcurrentes,
+            @Value("${usuarios.admision.espera-ms:5000}") long esperaMs) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof AdmisionDataSource)) {
+                    return new AdmisionDataSource(dataSource, maxConcurrentes, esperaMs);
+                }
+                return bean;
+            }
+        };
+    }
+}
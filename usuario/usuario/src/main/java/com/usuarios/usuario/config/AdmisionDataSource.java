@@ -0,0 +1,98 @@
+package com.usuarios.usuario.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Admisión acotada delante del pool: cada conexión abierta ocupa un permiso hasta que se cierra.
+// Solo esperan las solicitudes que realmente van a la base de datos (no /authorize, la búsqueda,
+// el filtro de Bloom, el catálogo de roles ni bcrypt) y la exportación asíncrona conserva su
+// permiso mientras mantiene el cursor abierto. La espera es en un semáforo (barata con hilos
+// virtuales) y más corta que el connection-timeout de Hikari
+public class AdmisionDataSource extends DelegatingDataSource {
+
+    private final Semaphore permisos;
+    private final long esperaMs;
+
+    public AdmisionDataSource(DataSource destino, int maxConcurrentes, long esperaMs) {
+        super(destino);
+        this.permisos = new Semaphore(maxConcurrentes, true);
+        this.esperaMs = esperaMs;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        admitir();
+        return liberarAlCerrar(() -> super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        admitir();
+        return liberarAlCerrar(() -> super.getConnection(username, password));
+    }
+
+    // La misma excepción que lanza Hikari al agotar el connection-timeout: SaturacionHandler
+    // responde 503 en ambos casos
+    private void admitir() throws SQLException {
+        boolean admitido;
+        try {
+            admitido = permisos.tryAcquire(esperaMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitido = false;
+        }
+        if (!admitido) {
+            throw new SQLTransientConnectionException("Servicio saturado, intente nuevamente");
+        }
+    }
+
+    private Connection liberarAlCerrar(Apertura apertura) throws SQLException {
+        Connection conexion;
+        try {
+            conexion = apertura.abrir();
+        } catch (SQLException | RuntimeException e) {
+            permisos.release();
+            throw e;
+        }
+        // close() puede llamarse más de una vez; el permiso se devuelve solo la primera
+        AtomicBoolean cerrada = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+            (proxy, metodo, argumentos) -> {
+                if ("close".equals(metodo.getName()) && cerrada.compareAndSet(false, true)) {
+                    try {
+                        conexion.close();
+                    } finally {
+                        permisos.release();
+                    }
+                    return null;
+                }
+                try {
+                    return metodo.invoke(conexion, argumentos);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+    }
+
+    public int permisosDisponibles() {
+        return permisos.availablePermits();
+    }
+
+    public int solicitudesEnEspera() {
+        return permisos.getQueueLength();
+    }
+
+    @FunctionalInterface
+    private interface Apertura {
+        Connection abrir() throws SQLException;
+    }
+}
@@ -0,0 +1,22 @@
+package com.usuarios.usuario.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.usuarios.usuario.controllers.CatalogoRolesInterceptor;
+
+@Configuration
+public class CatalogoRolesConfig implements WebMvcConfigurer {
+
+    private final CatalogoRolesInterceptor catalogoRolesInterceptor;
+
+    public CatalogoRolesConfig(CatalogoRolesInterceptor catalogoRolesInterceptor) {
+        this.catalogoRolesInterceptor = catalogoRolesInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(catalogoRolesInterceptor).addPathPatterns("/api/roles", "/api/roles/*");
+    }
+}
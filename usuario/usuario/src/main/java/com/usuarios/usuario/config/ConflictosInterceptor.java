@@ -0,0 +1,31 @@
+package com.usuarios.usuario.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+// Cuenta las respuestas 409 (RuntimeException capturada en los controladores) por endpoint
+@Component
+public class ConflictosInterceptor implements HandlerInterceptor {
+
+    private final MeterRegistry meterRegistry;
+
+    public ConflictosInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (response.getStatus() != HttpStatus.CONFLICT.value() || !(handler instanceof HandlerMethod metodo)) {
+            return;
+        }
+        meterRegistry.counter("usuarios.conflictos",
+                "controlador", metodo.getBeanType().getSimpleName(),
+                "metodo", metodo.getMethod().getName())
+            .increment();
+    }
+}
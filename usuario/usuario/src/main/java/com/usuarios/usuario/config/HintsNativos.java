@@ -0,0 +1,68 @@
+package com.usuarios.usuario.config;
+
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.data.repository.Repository;
+import org.springframework.transaction.interceptor.TransactionalProxy;
+
+import com.usuarios.usuario.dto.AutorizacionDTO;
+import com.usuarios.usuario.dto.PaginaDTO;
+import com.usuarios.usuario.dto.ReasignacionDTO;
+import com.usuarios.usuario.dto.ResponseDTO;
+import com.usuarios.usuario.dto.ResultadoAutorizacionDTO;
+import com.usuarios.usuario.dto.ResultadoBusquedaDTO;
+import com.usuarios.usuario.dto.ResultadoMasivoDTO;
+import com.usuarios.usuario.dto.RolDTO;
+import com.usuarios.usuario.dto.UsuarioDTO;
+import com.usuarios.usuario.dto.UsuarioResumenDTO;
+import com.usuarios.usuario.models.Auditoria;
+import com.usuarios.usuario.models.Rol;
+import com.usuarios.usuario.models.Usuario;
+import com.usuarios.usuario.repository.AuditoriaRepository;
+import com.usuarios.usuario.repository.RolRepository;
+import com.usuarios.usuario.repository.UsuarioRepository;
+
+// Reflexión y proxies que el procesamiento AOT no deduce solo, para el ejecutable nativo (perfil
+// Maven "native"). Los controladores responden ResponseEntity<?> y ResponseDTO lleva Object, así que
+// Jackson ve las entidades y los DTO recién en tiempo de ejecución.
+public class HintsNativos implements RuntimeHintsRegistrar {
+
+    private static final Class<?>[] ENTIDADES = {Usuario.class, Rol.class, Auditoria.class};
+
+    private static final Class<?>[] DTOS = {
+        AutorizacionDTO.class, PaginaDTO.class, ReasignacionDTO.class, ResponseDTO.class,
+        ResultadoAutorizacionDTO.class, ResultadoBusquedaDTO.class, ResultadoMasivoDTO.class,
+        RolDTO.class, UsuarioDTO.class, UsuarioResumenDTO.class
+    };
+
+    private static final Class<?>[] REPOSITORIOS = {
+        UsuarioRepository.class, RolRepository.class, AuditoriaRepository.class
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        BindingReflectionHintsRegistrar jackson = new BindingReflectionHintsRegistrar();
+        jackson.registerReflectionHints(hints.reflection(), ENTIDADES);
+        jackson.registerReflectionHints(hints.reflection(), DTOS);
+
+        // Hibernate: constructor sin argumentos y campos de las clases generadas por Lombok
+        for (Class<?> entidad : ENTIDADES) {
+            hints.reflection().registerType(entidad, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_METHODS);
+        }
+        // Las consultas "select new ...UsuarioResumenDTO(...)" lo instancian por reflexión
+        hints.reflection().registerType(UsuarioResumenDTO.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+
+        // Mismo conjunto de interfaces que arma Spring Data para el proxy JDK de cada repositorio
+        for (Class<?> repositorio : REPOSITORIOS) {
+            hints.proxies().registerJdkProxy(
+                AopProxyUtils.completeJdkProxyInterfaces(repositorio, Repository.class, TransactionalProxy.class));
+        }
+
+        // Perfil "cache"
+        hints.resources().registerPattern("ehcache.xml");
+    }
+}
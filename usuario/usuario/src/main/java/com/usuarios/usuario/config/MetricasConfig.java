@@ -0,0 +1,20 @@
+package com.usuarios.usuario.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class MetricasConfig implements WebMvcConfigurer {
+
+    private final ConflictosInterceptor conflictosInterceptor;
+
+    public MetricasConfig(ConflictosInterceptor conflictosInterceptor) {
+        this.conflictosInterceptor = conflictosInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(conflictosInterceptor).addPathPatterns("/api/**");
+    }
+}
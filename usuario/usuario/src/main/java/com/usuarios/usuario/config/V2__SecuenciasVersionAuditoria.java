@@ -0,0 +1,114 @@
+package com.usuarios.usuario.config;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Lleva una base con el esquema de V1 (ids por identidad, sin versión) al que esperan las
+// entidades: columnas version, tabla auditoria y secuencias por bloques de 50. Va en Java porque
+// las secuencias arrancan después del id máximo de cada tabla y ni Oracle ni H2 aceptan una
+// consulta en START WITH. Cada paso comprueba el diccionario: una base que ya pasó por
+// ddl-auto=update con alguna de estas entidades puede tener parte del esquema.
+// Flyway la recibe como bean (FlywayAutoConfiguration registra los JavaMigration del contexto)
+@Component
+public class V2__SecuenciasVersionAuditoria extends BaseJavaMigration {
+
+    // Debe coincidir con allocationSize de @SequenceGenerator en Usuario, Rol y Auditoria; MigracionesTest lo usa para deducir el primer id
+    public static final int INCREMENTO = 50;
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection conexion = context.getConnection();
+        boolean oracle = conexion.getMetaData().getDatabaseProductName().toLowerCase().contains("oracle");
+        try (Statement sentencia = conexion.createStatement()) {
+            for (String tabla : new String[] {"roles", "usuarios"}) {
+                if (!existeColumna(conexion, tabla, "version")) {
+                    sentencia.execute("ALTER TABLE " + tabla + " ADD version NUMBER(19) DEFAULT 0 NOT NULL");
+                }
+                // Las filas llevan ahora el id que asigna Hibernate desde la secuencia
+                if (esIdentidad(conexion, tabla, oracle)) {
+                    sentencia.execute(oracle
+                        ? "ALTER TABLE " + tabla + " MODIFY id DROP IDENTITY"
+                        : "ALTER TABLE " + tabla + " ALTER COLUMN id DROP IDENTITY");
+                }
+            }
+            if (!existeTabla(conexion, "auditoria")) {
+                sentencia.execute("CREATE TABLE auditoria ("
+                    + " id NUMBER(19) NOT NULL,"
+                    + " entidad VARCHAR2(30) NOT NULL,"
+                    + " entidad_id NUMBER(19),"
+                    + " operacion VARCHAR2(20) NOT NULL,"
+                    + " detalle VARCHAR2(500),"
+                    + " fecha TIMESTAMP(6) WITH TIME ZONE NOT NULL,"
+                    + " CONSTRAINT auditoria_pk PRIMARY KEY (id))");
+            }
+            for (String tabla : new String[] {"roles", "usuarios", "auditoria"}) {
+                crearSecuencia(conexion, sentencia, tabla, oracle);
+            }
+        }
+    }
+
+    // El optimizador pooled de Hibernate toma cada valor de la secuencia como el final de un
+    // bloque y usa los INCREMENTO - 1 anteriores: empezar en max(id) + INCREMENTO hace que el
+    // primer id asignado sea max(id) + 1. Una secuencia previa (de ddl-auto=update, empezando
+    // en 1) se reemplaza porque chocaría con los ids de identidad
+    private static void crearSecuencia(Connection conexion, Statement sentencia, String tabla, boolean oracle)
+            throws SQLException {
+        String secuencia = tabla + "_seq";
+        if (existeSecuencia(conexion, secuencia, oracle)) {
+            sentencia.execute("DROP SEQUENCE " + secuencia);
+        }
+        long maximo;
+        try (ResultSet fila = sentencia.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + tabla)) {
+            fila.next();
+            maximo = fila.getLong(1);
+        }
+        sentencia.execute("CREATE SEQUENCE " + secuencia
+            + " START WITH " + (maximo + INCREMENTO) + " INCREMENT BY " + INCREMENTO);
+    }
+
+    private static boolean esIdentidad(Connection conexion, String tabla, boolean oracle) throws SQLException {
+        if (oracle) {
+            return contar(conexion, "SELECT COUNT(*) FROM user_tab_identity_cols WHERE column_name = 'ID' AND table_name = ?",
+                tabla.toUpperCase()) > 0;
+        }
+        try (ResultSet columna = conexion.getMetaData().getColumns(null, conexion.getSchema(), tabla.toUpperCase(), "ID")) {
+            return columna.next() && "YES".equals(columna.getString("IS_AUTOINCREMENT"));
+        }
+    }
+
+    private static boolean existeColumna(Connection conexion, String tabla, String columna) throws SQLException {
+        try (ResultSet fila = conexion.getMetaData().getColumns(null, conexion.getSchema(), tabla.toUpperCase(), columna.toUpperCase())) {
+            return fila.next();
+        }
+    }
+
+    private static boolean existeTabla(Connection conexion, String tabla) throws SQLException {
+        try (ResultSet fila = conexion.getMetaData().getTables(null, conexion.getSchema(), tabla.toUpperCase(), new String[] {"TABLE"})) {
+            return fila.next();
+        }
+    }
+
+    private static boolean existeSecuencia(Connection conexion, String secuencia, boolean oracle) throws SQLException {
+        return contar(conexion, oracle
+            ? "SELECT COUNT(*) FROM user_sequences WHERE sequence_name = ?"
+            : "SELECT COUNT(*) FROM information_schema.sequences WHERE sequence_schema = SCHEMA() AND sequence_name = ?",
+            secuencia.toUpperCase()) > 0;
+    }
+
+    private static int contar(Connection conexion, String sql, String parametro) throws SQLException {
+        try (PreparedStatement consulta = conexion.prepareStatement(sql)) {
+            consulta.setString(1, parametro);
+            try (ResultSet fila = consulta.executeQuery()) {
+                fila.next();
+                return fila.getInt(1);
+            }
+        }
+    }
+}
@@ -1,45 +1,207 @@
 package com.usuarios.usuario.controllers;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.usuarios.usuario.dto.AutorizacionDTO;
+import com.usuarios.usuario.dto.ResultadoAutorizacionDTO;
 import com.usuarios.usuario.models.Usuario;
 import com.usuarios.usuario.repository.UsuarioRepository;
+import com.usuarios.usuario.services.LimitadorLoginService;
+import com.usuarios.usuario.services.LoginCacheService;
+import com.usuarios.usuario.services.PasswordHashService;
+import com.usuarios.usuario.services.PermisoEngine;
+import com.usuarios.usuario.services.TokenService;
+import com.usuarios.usuario.tokens.Token;
+import com.usuarios.usuario.tokens.TokenInvalidoException;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 // AuthController.java
+@Slf4j
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
 public class AuthController {
 
     private final UsuarioRepository usuarioRepository;
+    private final LoginCacheService loginCacheService;
+    private final PermisoEngine permisoEngine;
+    private final LimitadorLoginService limitadorLoginService;
+    private final PasswordHashService passwordHashService;
+    private final TokenService tokenService;
+
+    private static final int MAX_CONSULTAS = 1000;
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody Map<String, String> credentials) {
+    public ResponseEntity<?> login(@RequestBody Map<String, String> credentials, HttpServletRequest request) {
         String username = credentials.get("username");
         String password = credentials.get("password");
 
-        Optional<Usuario> usuarioOpt = usuarioRepository.findByUsernameAndPassword(username, password);
+        // Ráfagas contra un username o desde una IP se cortan antes de la caché y de la base de datos
+        long esperaNanos = limitadorLoginService.intentar(username, request.getRemoteAddr());
+        if (esperaNanos > 0) {
+            long segundos = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(esperaNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(segundos))
+                .body(Map.of("mensaje", "Demasiados intentos de login, intente más tarde"));
+        }
+
+        // Intentos repetidos se resuelven en memoria sin ocupar una conexión del pool
+        String rolEnCache = loginCacheService.buscarRol(username, password);
+        if (rolEnCache != null) {
+            return ResponseEntity.ok(loginExitoso(username, rolEnCache));
+        }
+        if (loginCacheService.esDesconocido(username)) {
+            return credencialesInvalidas();
+        }
+
+        long generacion = loginCacheService.generacion();
+        Optional<Usuario> usuarioOpt = username != null
+            ? usuarioRepository.findLoginByUsername(username)
+            : Optional.empty();
+        if (usuarioOpt.isEmpty()) {
+            if (username != null) {
+                loginCacheService.registrarDesconocido(username, generacion);
+            }
+            return credencialesInvalidas();
+        }
+
+        Usuario usuario = usuarioOpt.get();
+        String guardado = usuario.getPassword();
+        boolean valida;
+        try {
+            // bcrypt corre en el pool de contraseñas; este hilo solo espera el resultado
+            valida = passwordHashService.verificar(password, guardado).join();
+        } catch (CompletionException e) {
+            if (!(e.getCause() instanceof RejectedExecutionException)) {
+                throw e;
+            }
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("mensaje", "Servicio de contraseñas saturado, intente más tarde"));
+        }
+        if (!valida) {
+            return credencialesInvalidas();
+        }
+
+        if (passwordHashService.requiereRehash(guardado)) {
+            rehash(usuario.getId(), guardado, password);
+        }
+        loginCacheService.registrarExito(username, password, usuario.getRol().getNombre(), generacion);
+        return ResponseEntity.ok(loginExitoso(usuario.getUsername(), usuario.getRol().getNombre()));
+    }
+
+    // En segundo plano: la respuesta no espera el nuevo hash. Si el pool está saturado se
+    // reintenta en el próximo login
+    private void rehash(Long id, String anterior, String password) {
+        passwordHashService.hashAsync(password)
+            .thenAccept(nuevo -> usuarioRepository.actualizarPassword(id, anterior, nuevo))
+            .exceptionally(e -> {
+                log.debug("No se pudo volver a cifrar la contraseña del usuario {}", id, e);
+                return null;
+            });
+    }
 
-        if (usuarioOpt.isPresent()) {
-            Usuario usuario = usuarioOpt.get();
+    // Verificaciones resueltas en memoria por el motor de permisos, sin consultar la base de datos
+    @PostMapping("/authorize")
+    public ResponseEntity<?> authorize(@RequestBody AutorizacionDTO autorizacion) {
+        if (!permisoEngine.estaCargado()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("mensaje", "Motor de permisos no disponible"));
+        }
+
+        List<AutorizacionDTO> consultas = autorizacion.getConsultas();
+        if (consultas == null) {
+            if (autorizacion.getUsername() == null || autorizacion.getPermiso() == null) {
+                return ResponseEntity.badRequest().body(Map.of("mensaje", "Debe indicar username y permiso"));
+            }
+            return ResponseEntity.ok(verificar(autorizacion));
+        }
+
+        if (consultas.size() > MAX_CONSULTAS) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("mensaje", "No se pueden verificar más de " + MAX_CONSULTAS + " permisos por solicitud"));
+        }
+        List<ResultadoAutorizacionDTO> resultados = new ArrayList<>(consultas.size());
+        for (AutorizacionDTO consulta : consultas) {
+            resultados.add(consulta != null
+                ? verificar(consulta)
+                : new ResultadoAutorizacionDTO(null, null, false));
+        }
+        return ResponseEntity.ok(resultados);
+    }
+
+    private ResultadoAutorizacionDTO verificar(AutorizacionDTO consulta) {
+        return new ResultadoAutorizacionDTO(consulta.getUsername(), consulta.getPermiso(),
+            permisoEngine.autorizado(consulta.getUsername(), consulta.getPermiso()));
+    }
+
+    // Validación local del token: la misma que hace TokenVerificador en los servicios que lo consumen.
+    // Acepta el token en el cuerpo o como "Authorization: Bearer"; con "permiso" indica además si lo concede
+    @PostMapping("/verify")
+    public ResponseEntity<?> verify(@RequestBody(required = false) Map<String, String> cuerpo,
+                                    @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String autorizacion) {
+        String token = cuerpo != null ? cuerpo.get("token") : null;
+        if (token == null && autorizacion != null && autorizacion.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            token = autorizacion.substring(7).trim();
+        }
+        Token verificado;
+        try {
+            verificado = tokenService.verificar(token);
+        } catch (TokenInvalidoException e) {
             Map<String, Object> response = new HashMap<>();
-            response.put("mensaje", "Login exitoso");
-            response.put("rol", usuario.getRol().getNombre());
-            response.put("username", usuario.getUsername());
+            response.put("valido", false);
+            response.put("mensaje", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
 
-            return ResponseEntity.ok(response);
+        Map<String, Object> response = new HashMap<>();
+        response.put("valido", true);
+        response.put("usuarioId", verificado.getUsuarioId());
+        response.put("username", verificado.getUsername());
+        response.put("rol", verificado.getRol());
+        response.put("permisos", verificado.getPermisos());
+        response.put("expira", verificado.getExpira().toString());
+        String permiso = cuerpo != null ? cuerpo.get("permiso") : null;
+        if (permiso != null) {
+            response.put("autorizado", verificado.tienePermiso(permiso));
         }
+        return ResponseEntity.ok(response);
+    }
+
+    private Map<String, Object> loginExitoso(String username, String rolNombre) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("mensaje", "Login exitoso");
+        response.put("rol", rolNombre);
+        response.put("username", username);
+        String token = tokenService.emitir(username);
+        if (token != null) {
+            response.put("token", token);
+            response.put("tipoToken", "Bearer");
+            response.put("expiraEn", tokenService.getTtlSegundos());
+        }
+        return response;
+    }
 
+    private ResponseEntity<?> credencialesInvalidas() {
         return ResponseEntity.badRequest().body(Map.of("mensaje", "Credenciales inválidas"));
     }
 }
\ No newline at end of file
@@ -0,0 +1,156 @@
+package com.usuarios.usuario.controllers;
+
+import com.usuarios.usuario.services.CatalogoRolesService;
+import com.usuarios.usuario.services.CatalogoRolesService.Cuerpo;
+import com.usuarios.usuario.services.CatalogoRolesService.Instantanea;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+
+// Atiende GET /api/roles y GET /api/roles/{id} desde CatalogoRolesService antes de llegar a
+// RolController: escribe los bytes ya codificados en el flujo de salida, sin convertidores ni
+// Jackson. Con parámetros, con un Accept que no admite JSON o que pide CBOR o Smile, o sin
+// instantánea, sigue al controlador.
+@Component
+public class CatalogoRolesInterceptor implements HandlerInterceptor {
+
+    private static final String RUTA = "/api/roles";
+    // Un id de más de 18 dígitos no cabe en un Long; lo resuelve el controlador
+    private static final int MAX_DIGITOS_ID = 18;
+    private static final MediaType[] BINARIOS = {
+        MediaType.APPLICATION_CBOR, new MediaType("application", "x-jackson-smile")
+    };
+
+    private final CatalogoRolesService catalogoRolesService;
+    private final Counter servidas;
+    private final Counter noModificadas;
+
+    public CatalogoRolesInterceptor(CatalogoRolesService catalogoRolesService, MeterRegistry meterRegistry) {
+        this.catalogoRolesService = catalogoRolesService;
+        this.servidas = Counter.builder("usuarios.catalogo.roles.respuestas")
+            .description("Respuestas de roles servidas desde la caché serializada")
+            .tag("estado", "200")
+            .register(meterRegistry);
+        this.noModificadas = Counter.builder("usuarios.catalogo.roles.respuestas")
+            .description("Respuestas de roles servidas desde la caché serializada")
+            .tag("estado", "304")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (!"GET".equals(request.getMethod()) || request.getQueryString() != null || !aceptaJson(request)) {
+            return true;
+        }
+        Instantanea instantanea = catalogoRolesService.vigente();
+        if (instantanea == null) {
+            return true;
+        }
+        Cuerpo cuerpo = seleccionar(instantanea, request.getRequestURI().substring(request.getContextPath().length()));
+        if (cuerpo == null) {
+            return true;
+        }
+
+        String etag = ETags.de(cuerpo.getHuella());
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING);
+        if (ETags.coincideDebil(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            noModificadas.increment();
+            return false;
+        }
+
+        byte[] bytes = cuerpo.getJson();
+        if (cuerpo.getGzip() != null && aceptaGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            bytes = cuerpo.getGzip();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(bytes.length);
+        response.getOutputStream().write(bytes);
+        servidas.increment();
+        return false;
+    }
+
+    private static Cuerpo seleccionar(Instantanea instantanea, String ruta) {
+        if (ruta.equals(RUTA) || ruta.equals(RUTA + "/")) {
+            return instantanea.getLista();
+        }
+        if (!ruta.startsWith(RUTA + "/")) {
+            return null;
+        }
+        String id = ruta.substring(RUTA.length() + 1);
+        if (id.isEmpty() || id.length() > MAX_DIGITOS_ID) {
+            return null;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            if (!Character.isDigit(id.charAt(i))) {
+                return null;
+            }
+        }
+        // Un id inexistente sigue al controlador, que responde 404
+        return instantanea.getRol(Long.valueOf(id));
+    }
+
+    // Solo se guardan cuerpos JSON; si el cliente admite CBOR o Smile, el controlador elige por calidad
+    private static boolean aceptaJson(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || accept.isBlank()) {
+            return true;
+        }
+        boolean json = false;
+        try {
+            for (MediaType tipo : MediaType.parseMediaTypes(accept)) {
+                if (tipo.getQualityValue() <= 0) {
+                    continue;
+                }
+                for (MediaType binario : BINARIOS) {
+                    if (tipo.equalsTypeAndSubtype(binario)) {
+                        return false;
+                    }
+                }
+                json |= tipo.isCompatibleWith(MediaType.APPLICATION_JSON);
+            }
+        } catch (IllegalArgumentException e) {
+            // Un Accept mal formado lo rechaza el controlador como siempre
+        }
+        return json;
+    }
+
+    // gzip aceptado salvo con q=0; "*" también lo admite
+    private static boolean aceptaGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String parte : acceptEncoding.split(",")) {
+            String[] elementos = parte.split(";");
+            String codificacion = elementos[0].trim();
+            if (!codificacion.equalsIgnoreCase("gzip") && !codificacion.equals("*")) {
+                continue;
+            }
+            boolean rechazada = false;
+            for (int i = 1; i < elementos.length; i++) {
+                String parametro = elementos[i].trim();
+                if (parametro.startsWith("q=")) {
+                    try {
+                        rechazada = Double.parseDouble(parametro.substring(2)) <= 0;
+                    } catch (NumberFormatException e) {
+                        rechazada = true;
+                    }
+                }
+            }
+            if (!rechazada) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
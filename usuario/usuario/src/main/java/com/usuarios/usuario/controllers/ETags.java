@@ -0,0 +1,58 @@
+package com.usuarios.usuario.controllers;
+
+// ETags derivados de las columnas @Version (detalles) o del contenido de la página (listados);
+// para el cliente son opacos
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String de(Object valor) {
+        return "\"" + valor + "\"";
+    }
+
+    // If-None-Match usa comparación débil: se ignora el prefijo W/
+    static boolean coincideDebil(String encabezado, String etag) {
+        return coincide(encabezado, etag, false);
+    }
+
+    // If-Match usa comparación fuerte: una etiqueta W/ nunca coincide
+    static boolean coincideFuerte(String encabezado, String etag) {
+        return coincide(encabezado, etag, true);
+    }
+
+    // Versión numérica de un If-Match con una única etiqueta; null si no es una etiqueta de versión
+    static Long versionDe(String encabezado) {
+        String valor = encabezado.trim();
+        if (valor.length() < 3 || valor.charAt(0) != '"' || valor.charAt(valor.length() - 1) != '"') {
+            return null;
+        }
+        try {
+            return Long.valueOf(valor.substring(1, valor.length() - 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean coincide(String encabezado, String etag, boolean fuerte) {
+        if (encabezado == null || etag == null) {
+            return false;
+        }
+        for (String candidata : encabezado.split(",")) {
+            String valor = candidata.trim();
+            if (valor.equals("*")) {
+                return true;
+            }
+            if (valor.startsWith("W/")) {
+                if (fuerte) {
+                    continue;
+                }
+                valor = valor.substring(2);
+            }
+            if (valor.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
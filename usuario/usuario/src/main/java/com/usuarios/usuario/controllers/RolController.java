@@ -1,13 +1,22 @@
 package com.usuarios.usuario.controllers;
+import com.usuarios.usuario.dto.PaginaDTO;
+import com.usuarios.usuario.dto.ReasignacionDTO;
 import com.usuarios.usuario.dto.RolDTO;
 import com.usuarios.usuario.dto.ResponseDTO;
+import com.usuarios.usuario.services.AuditoriaService;
+import com.usuarios.usuario.services.AuditoriaService.Operacion;
+import com.usuarios.usuario.services.CacheRolesService;
+import com.usuarios.usuario.services.ReasignacionRolService;
 import com.usuarios.usuario.services.RolService;
 import com.usuarios.usuario.models.Rol;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
-import java.util.List;
+
+import java.net.URI;
 
 @RestController
 @RequestMapping("/api/roles")
@@ -16,6 +25,15 @@ public class RolController {
     
     @Autowired
     private RolService rolService;
+
+    @Autowired
+    private CacheRolesService cacheRolesService;
+
+    @Autowired
+    private AuditoriaService auditoriaService;
+
+    @Autowired
+    private ReasignacionRolService reasignacionRolService;
     
     @PostMapping("/crear")
     public ResponseEntity<ResponseDTO> crearRol(@RequestBody RolDTO rolDTO) {
@@ -27,6 +45,7 @@ public class RolController {
             }
             
             Rol rolCreado = rolService.crearRol(rolDTO);
+            auditoriaService.registrar("Rol", rolCreado.getId(), Operacion.CREAR, rolCreado.getNombre());
             return ResponseEntity.ok(new ResponseDTO(
                 "Rol creado exitosamente",
                 rolCreado,
@@ -43,25 +62,63 @@ public class RolController {
     }
     
     @GetMapping
-    public ResponseEntity<ResponseDTO> obtenerTodosLosRoles() {
+    public ResponseEntity<ResponseDTO> obtenerTodosLosRoles(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "false") boolean total,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            List<Rol> roles = rolService.obtenerTodosLosRoles();
-            return ResponseEntity.ok(new ResponseDTO(
+            // Con If-None-Match se comparan primero solo ids y versiones; roles y permisos se leen si cambiaron
+            if (ifNoneMatch != null) {
+                String etag = ETags.de(rolService.obtenerHuellaPagina(after, limit, total));
+                if (ETags.coincideDebil(ifNoneMatch, etag)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+                }
+            }
+            PaginaDTO<Rol> roles = rolService.obtenerPaginaRoles(after, limit, total);
+            return ResponseEntity.ok().eTag(ETags.de(RolService.huella(roles))).body(new ResponseDTO(
                 "Roles obtenidos exitosamente",
                 roles,
                 true
             ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(new ResponseDTO(e.getMessage(), null, false));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(new ResponseDTO("Error al obtener los roles", null, false));
         }
     }
     
+    @GetMapping("/cache/estadisticas")
+    public ResponseEntity<ResponseDTO> obtenerEstadisticasCache() {
+        try {
+            return ResponseEntity.ok(new ResponseDTO(
+                "Estadísticas de caché obtenidas",
+                cacheRolesService.obtenerEstadisticas(),
+                true
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ResponseDTO("Error al obtener las estadísticas de caché", null, false));
+        }
+    }
+    
     @GetMapping("/{id}")
-    public ResponseEntity<ResponseDTO> obtenerRolPorId(@PathVariable Long id) {
+    public ResponseEntity<ResponseDTO> obtenerRolPorId(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
+            // La versión es el ETag: con If-None-Match se consulta sola y el rol se carga si cambió
+            if (ifNoneMatch != null) {
+                Long version = rolService.obtenerVersion(id);
+                if (version != null && ETags.coincideDebil(ifNoneMatch, ETags.de(version))) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ETags.de(version)).build();
+                }
+            }
+            // Rol y permisos en una sentencia
             Rol rol = rolService.obtenerRolPorId(id);
-            return ResponseEntity.ok(new ResponseDTO(
+            return ResponseEntity.ok().eTag(ETags.de(rol.getVersion())).body(new ResponseDTO(
                 "Rol encontrado",
                 rol,
                 true
@@ -76,14 +133,30 @@ public class RolController {
     }
     
     @PutMapping("/{id}")
-    public ResponseEntity<ResponseDTO> actualizarRol(@PathVariable Long id, @RequestBody RolDTO rolDTO) {
+    public ResponseEntity<ResponseDTO> actualizarRol(
+            @PathVariable Long id,
+            @RequestBody RolDTO rolDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long versionEsperada = null;
+        if (ifMatch != null && !ifMatch.trim().equals("*")) {
+            versionEsperada = ETags.versionDe(ifMatch);
+            if (versionEsperada == null) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                    .body(new ResponseDTO("If-Match no corresponde a ninguna versión del rol", null, false));
+            }
+        }
         try {
-            Rol rolActualizado = rolService.actualizarRol(id, rolDTO);
-            return ResponseEntity.ok(new ResponseDTO(
+            Rol rolActualizado = rolService.actualizarRol(id, rolDTO, versionEsperada);
+            auditoriaService.registrar("Rol", id, Operacion.ACTUALIZAR, rolActualizado.getNombre());
+            return ResponseEntity.ok().eTag(ETags.de(rolActualizado.getVersion())).body(new ResponseDTO(
                 "Rol actualizado exitosamente",
                 rolActualizado,
                 true
             ));
+        } catch (OptimisticLockingFailureException e) {
+            // Con If-Match el cliente pidió la precondición; sin él es un conflicto entre escrituras
+            return ResponseEntity.status(ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT)
+                .body(new ResponseDTO("El rol fue modificado por otra solicitud", null, false));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT)
                 .body(new ResponseDTO(e.getMessage(), null, false));
@@ -93,10 +166,38 @@ public class RolController {
         }
     }
     
+    // Mueve los usuarios del rol en segundo plano; el avance se consulta en /reassign/{trabajoId}
+    @PostMapping("/{id}/reassign")
+    public ResponseEntity<ResponseDTO> reasignarUsuarios(
+            @PathVariable Long id,
+            @RequestParam Long to,
+            @RequestParam(defaultValue = "false") boolean eliminar) {
+        try {
+            ReasignacionDTO trabajo = reasignacionRolService.iniciar(id, to, eliminar);
+            return ResponseEntity.accepted()
+                .location(URI.create("/api/roles/reassign/" + trabajo.getId()))
+                .body(new ResponseDTO("Reasignación iniciada", trabajo, true));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new ResponseDTO(e.getMessage(), null, false));
+        }
+    }
+
+    @GetMapping("/reassign/{trabajoId}")
+    public ResponseEntity<ResponseDTO> obtenerReasignacion(@PathVariable String trabajoId) {
+        ReasignacionDTO trabajo = reasignacionRolService.obtener(trabajoId);
+        if (trabajo == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(new ResponseDTO("Reasignación no encontrada", null, false));
+        }
+        return ResponseEntity.ok(new ResponseDTO("Estado de la reasignación", trabajo, true));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<ResponseDTO> eliminarRol(@PathVariable Long id) {
         try {
             rolService.eliminarRol(id);
+            auditoriaService.registrar("Rol", id, Operacion.ELIMINAR, null);
             return ResponseEntity.ok(new ResponseDTO(
                 "Rol eliminado exitosamente",
                 null,
@@ -0,0 +1,37 @@
+package com.usuarios.usuario.controllers;
+
+import com.usuarios.usuario.dto.ResponseDTO;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.sql.SQLTransientConnectionException;
+
+// Sin conexión disponible (admisión rechazada o connection-timeout de Hikari) se responde 503 con
+// Retry-After en lugar de un 500. Los endpoints que capturan RuntimeException siguen respondiendo 409
+@RestControllerAdvice
+public class SaturacionHandler {
+
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<ResponseDTO> sinConexion(RuntimeException e) {
+        if (!esSaturacion(e)) {
+            throw e;
+        }
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(new ResponseDTO("Servicio saturado, intente nuevamente", null, false));
+    }
+
+    static boolean esSaturacion(Throwable e) {
+        for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+            if (causa instanceof SQLTransientConnectionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -3,7 +3,11 @@ package com.usuarios.usuario.controllers;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,12 +15,22 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.usuarios.usuario.dto.PaginaDTO;
 import com.usuarios.usuario.dto.ResponseDTO;
+import com.usuarios.usuario.dto.ResultadoBusquedaDTO;
+import com.usuarios.usuario.dto.ResultadoMasivoDTO;
 import com.usuarios.usuario.dto.UsuarioDTO;
+import com.usuarios.usuario.dto.UsuarioResumenDTO;
 import com.usuarios.usuario.models.Usuario;
+import com.usuarios.usuario.services.AuditoriaService;
+import com.usuarios.usuario.services.AuditoriaService.Operacion;
+import com.usuarios.usuario.services.LoginCacheService;
 import com.usuarios.usuario.services.UsuarioService;
 
 import lombok.extern.slf4j.Slf4j;
@@ -27,6 +41,15 @@ public class UsuarioController {
     @Autowired
     private UsuarioService usuarioService;
 
+    @Autowired
+    private LoginCacheService loginCacheService;
+
+    @Autowired
+    private AuditoriaService auditoriaService;
+
+    @Value("${usuarios.bulk.max-filas:5000}")
+    private int maxFilasMasivo = 5000;
+
     @PostMapping("/crear")
     public ResponseEntity<ResponseDTO> crearUsuario(@RequestBody UsuarioDTO usuarioDTO) {
         try {
@@ -54,6 +77,9 @@ public class UsuarioController {
             }
             
             Usuario usuarioCreado = usuarioService.crearUsuario(usuarioDTO);
+            // El username pudo quedar en la caché de login como desconocido
+            loginCacheService.invalidar(usuarioCreado.getUsername());
+            auditoriaService.registrar("Usuario", usuarioCreado.getId(), Operacion.CREAR, usuarioCreado.getUsername());
             
             return ResponseEntity.ok(new ResponseDTO(
                 "Usuario creado exitosamente",
@@ -75,30 +101,166 @@ public class UsuarioController {
                 ));
         }
     }
+    @PostMapping("/bulk")
+    public ResponseEntity<ResponseDTO> crearUsuariosMasivo(@RequestBody List<UsuarioDTO> usuariosDTO) {
+        try {
+            if (usuariosDTO == null || usuariosDTO.isEmpty()) {
+                return ResponseEntity.badRequest()
+                    .body(new ResponseDTO("Debe enviar al menos un usuario", null, false));
+            }
+
+            if (usuariosDTO.size() > maxFilasMasivo) {
+                return ResponseEntity.badRequest()
+                    .body(new ResponseDTO("No se pueden crear más de " + maxFilasMasivo + " usuarios por solicitud", null, false));
+            }
+
+            List<ResultadoMasivoDTO> resultados = usuarioService.crearUsuariosMasivo(usuariosDTO);
+            long creados = 0;
+            for (ResultadoMasivoDTO resultado : resultados) {
+                if (resultado.isExito()) {
+                    loginCacheService.invalidar(resultado.getUsername());
+                    auditoriaService.registrar("Usuario", resultado.getId(), Operacion.CREAR, resultado.getUsername());
+                    creados++;
+                }
+            }
+
+            return ResponseEntity.ok(new ResponseDTO(
+                creados + " de " + resultados.size() + " usuarios creados",
+                resultados,
+                true
+            ));
+
+        } catch (RuntimeException e) {
+            log.error("Error en la creación masiva de usuarios", e);
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new ResponseDTO(e.getMessage(), null, false));
+        } catch (Exception e) {
+            log.error("Error inesperado en la creación masiva de usuarios", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ResponseDTO("Error al crear los usuarios: " + e.getMessage(), null, false));
+        }
+    }
+
     @GetMapping
-    public List<Usuario> getAllUsuarios() {
-        return usuarioService.findAll();
+    public ResponseEntity<PaginaDTO<UsuarioResumenDTO>> getAllUsuarios(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "false") boolean total,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        try {
+            // Con If-None-Match se comparan primero solo ids y versiones; la página se lee si cambió
+            if (ifNoneMatch != null) {
+                String etag = ETags.de(usuarioService.obtenerHuellaPagina(after, limit, total));
+                if (ETags.coincideDebil(ifNoneMatch, etag)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+                }
+            }
+            PaginaDTO<UsuarioResumenDTO> pagina = usuarioService.findPagina(after, limit, total);
+            return ResponseEntity.ok().eTag(ETags.de(UsuarioService.huella(pagina))).body(pagina);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/search")
+    public ResponseEntity<?> buscarUsuarios(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit) {
+        if (q.trim().isEmpty()) {
+            return ResponseEntity.badRequest()
+                .body(new ResponseDTO("El texto de búsqueda es requerido", null, false));
+        }
+        if (!usuarioService.busquedaDisponible()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ResponseDTO("Índice de búsqueda no disponible", null, false));
+        }
+        List<ResultadoBusquedaDTO> resultados = usuarioService.buscar(q, limit);
+        return ResponseEntity.ok(resultados);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportarUsuarios(
+            @RequestParam(defaultValue = "ndjson") String formato) {
+        MediaType tipo;
+        if ("ndjson".equalsIgnoreCase(formato)) {
+            tipo = MediaType.APPLICATION_NDJSON;
+        } else if ("csv".equalsIgnoreCase(formato)) {
+            tipo = MediaType.parseMediaType("text/csv;charset=UTF-8");
+        } else {
+            return ResponseEntity.badRequest().build();
+        }
+
+        // El cuerpo se escribe en un hilo asíncrono a medida que llegan las filas desde el cursor
+        StreamingResponseBody cuerpo = salida -> {
+            long filas = usuarioService.exportar(salida, formato);
+            log.debug("Exportación de usuarios finalizada: {} filas", filas);
+        };
+
+        return ResponseEntity.ok()
+            .contentType(tipo)
+            .header(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=usuarios." + formato.toLowerCase())
+            .body(cuerpo);
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<Usuario> getUsuarioById(@PathVariable Long id) {
-        Usuario usuario = usuarioService.findById(id);
-        return usuario != null ? ResponseEntity.ok(usuario) : ResponseEntity.notFound().build();
+    public ResponseEntity<UsuarioResumenDTO> getUsuarioById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // La proyección trae las versiones del usuario y del rol: una sola sentencia también para el 304
+        UsuarioResumenDTO usuario = usuarioService.findResumenById(id);
+        if (usuario == null) {
+            return ResponseEntity.notFound().build();
+        }
+        String etag = ETags.de(UsuarioService.huella(usuario));
+        if (ETags.coincideDebil(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(usuario);
     }
     
     @PostMapping
-    public Usuario createUsuario(@RequestBody Usuario usuario) {
-        return usuarioService.save(usuario);
+    public ResponseEntity<Usuario> createUsuario(@RequestBody Usuario usuario) {
+        Usuario usuarioGuardado;
+        try {
+            usuarioGuardado = usuarioService.save(usuario);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        loginCacheService.invalidar(usuarioGuardado.getUsername());
+        auditoriaService.registrar("Usuario", usuarioGuardado.getId(), Operacion.CREAR, usuarioGuardado.getUsername());
+        return ResponseEntity.ok(usuarioGuardado);
     }
     
     @PutMapping("/{id}")
-    public ResponseEntity<Usuario> updateUsuario(@PathVariable Long id, @RequestBody Usuario usuario) {
+    public ResponseEntity<Usuario> updateUsuario(
+            @PathVariable Long id,
+            @RequestBody Usuario usuario,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         Usuario existingUsuario = usuarioService.findById(id);
         if (existingUsuario == null) {
             return ResponseEntity.notFound().build();
         }
+        if (ifMatch != null && !ETags.coincideFuerte(ifMatch, ETags.de(usuarioService.obtenerHuella(id)))) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
         usuario.setId(id);
-        return ResponseEntity.ok(usuarioService.save(usuario));
+        // Sin versión en el cuerpo (o con If-Match ya validado) se compara contra la versión leída
+        if (ifMatch != null || usuario.getVersion() == null) {
+            usuario.setVersion(existingUsuario.getVersion());
+        }
+        Usuario usuarioActualizado;
+        try {
+            usuarioActualizado = usuarioService.save(usuario);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        loginCacheService.invalidar(existingUsuario.getUsername());
+        loginCacheService.invalidar(usuario.getUsername());
+        auditoriaService.registrar("Usuario", id, Operacion.ACTUALIZAR, usuarioActualizado.getUsername());
+        return ResponseEntity.ok().eTag(ETags.de(usuarioService.obtenerHuella(id))).body(usuarioActualizado);
     }
     
     @DeleteMapping("/{id}")
@@ -108,6 +270,8 @@ public class UsuarioController {
             return ResponseEntity.notFound().build();
         }
         usuarioService.deleteById(id);
+        loginCacheService.invalidar(existingUsuario.getUsername());
+        auditoriaService.registrar("Usuario", id, Operacion.ELIMINAR, existingUsuario.getUsername());
         return ResponseEntity.ok().build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.usuarios.usuario.dto;
+
+import java.util.List;
+
+import lombok.Data;
+
+// Una verificación (username, permiso) o un lote de ellas en "consultas"
+@Data
+public class AutorizacionDTO {
+    private String username;
+    private String permiso;
+    private List<AutorizacionDTO> consultas;
+}
@@ -0,0 +1,79 @@
+package com.usuarios.usuario.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Página de resultados paginada por cursor (keyset sobre el id)
+@Data
+@AllArgsConstructor
+public class PaginaDTO<T> {
+    public static final int LIMITE_POR_DEFECTO = 50;
+    public static final int LIMITE_MAXIMO = 500;
+
+    private List<T> items;
+    private String siguienteCursor;
+    private Long total;
+
+    public static int normalizarLimite(Integer limit) {
+        if (limit == null) {
+            return LIMITE_POR_DEFECTO;
+        }
+        return Math.max(1, Math.min(limit, LIMITE_MAXIMO));
+    }
+
+    // El cursor es opaco para el cliente: el último id entregado codificado en base64
+    public static String codificarCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(("id:" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static long decodificarCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!valor.startsWith("id:")) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            return Long.parseLong(valor.substring(3));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+    }
+
+    // Las consultas piden limite + 1 filas para saber si existe una página siguiente
+    public static <T> PaginaDTO<T> desdeFilas(List<T> filas, int limite, Function<T, Long> id, Long total) {
+        if (filas.size() <= limite) {
+            return new PaginaDTO<>(filas, null, total);
+        }
+        List<T> items = filas.subList(0, limite);
+        return new PaginaDTO<>(items, codificarCursor(id.apply(items.get(limite - 1))), total);
+    }
+
+    // Huella del contenido ya cargado para el ETag del listado: cambia si cambia algún item, el
+    // cursor o el total, sin una consulta aparte sobre toda la tabla. No se serializa (recibe un argumento)
+    public String huella(Function<T, ?> clave) {
+        MessageDigest sha;
+        try {
+            sha = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (T item : items) {
+            sha.update(String.valueOf(clave.apply(item)).getBytes(StandardCharsets.UTF_8));
+            sha.update((byte) 0);
+        }
+        sha.update((siguienteCursor + "|" + total).getBytes(StandardCharsets.UTF_8));
+        byte[] resumen = sha.digest();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(resumen, 16));
+    }
+}
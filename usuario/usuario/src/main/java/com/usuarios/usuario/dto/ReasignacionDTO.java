@@ -0,0 +1,23 @@
+package com.usuarios.usuario.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+// Estado de una reasignación de rol en segundo plano
+@Data
+@AllArgsConstructor
+public class ReasignacionDTO {
+    private String id;
+    private Long origenId;
+    private Long destinoId;
+    private boolean eliminarOrigen;
+    private String estado;
+    private long total;
+    private long procesados;
+    private int bloques;
+    private String mensaje;
+    private Instant inicio;
+    private Instant fin;
+}
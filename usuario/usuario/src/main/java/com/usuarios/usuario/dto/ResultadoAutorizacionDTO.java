@@ -0,0 +1,12 @@
+package com.usuarios.usuario.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ResultadoAutorizacionDTO {
+    private String username;
+    private String permiso;
+    private boolean permitido;
+}
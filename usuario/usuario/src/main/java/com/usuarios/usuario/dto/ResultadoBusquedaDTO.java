@@ -0,0 +1,13 @@
+package com.usuarios.usuario.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Coincidencia de la búsqueda en memoria; el orden de la lista refleja la relevancia
+@Data
+@AllArgsConstructor
+public class ResultadoBusquedaDTO {
+    private Long id;
+    private String username;
+    private String nombreCompleto;
+}
@@ -0,0 +1,15 @@
+package com.usuarios.usuario.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Resultado por fila de una creación masiva de usuarios
+@Data
+@AllArgsConstructor
+public class ResultadoMasivoDTO {
+    private int indice;
+    private String username;
+    private boolean exito;
+    private String mensaje;
+    private Long id;
+}
@@ -0,0 +1,26 @@
+package com.usuarios.usuario.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Proyección de lectura de usuarios: solo las columnas que usan el listado y el detalle
+@Data
+@AllArgsConstructor
+public class UsuarioResumenDTO {
+    private Long id;
+    private String username;
+    private String nombreCompleto;
+    private Long rolId;
+    private String rolNombre;
+    // Solo el detalle las consulta, para el ETag; no forman parte de la respuesta
+    @JsonIgnore
+    private Long version;
+    @JsonIgnore
+    private Long rolVersion;
+
+    public UsuarioResumenDTO(Long id, String username, String nombreCompleto, Long rolId, String rolNombre) {
+        this(id, username, nombreCompleto, rolId, rolNombre, null, null);
+    }
+}
@@ -0,0 +1,38 @@
+package com.usuarios.usuario.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+// Registro de una mutación sobre usuarios o roles; se escribe en lotes desde AuditoriaService
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "auditoria")
+public class Auditoria {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "auditoria_seq")
+    @SequenceGenerator(name = "auditoria_seq", sequenceName = "auditoria_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, length = 30)
+    private String entidad;
+
+    @Column(name = "entidad_id")
+    private Long entidadId;
+
+    @Column(nullable = false, length = 20)
+    private String operacion;
+
+    @Column(length = 500)
+    private String detalle;
+
+    @Column(nullable = false)
+    private Instant fecha;
+}
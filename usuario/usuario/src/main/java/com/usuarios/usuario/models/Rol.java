@@ -7,6 +7,11 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 import lombok.EqualsAndHashCode;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.util.List;
 
 @Getter
@@ -17,15 +22,29 @@ import java.util.List;
 @EqualsAndHashCode(of = "id")
 @Entity
 @Table(name = "roles")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NamedEntityGraph(name = "Rol.permisos", attributeNodes = @NamedAttributeNode("permisos"))
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Rol {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "roles_seq")
+    @SequenceGenerator(name = "roles_seq", sequenceName = "roles_seq", allocationSize = 50)
     private Long id;
     
     @Column(unique = true, nullable = false)
     private String nombre;
     
-    @ElementCollection(fetch = FetchType.EAGER)
+    // Cambiar los permisos también incrementa la versión del rol
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    // Los listados inicializan los permisos de varios roles en una sola consulta
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    @BatchSize(size = 50)
+    @ElementCollection(fetch = FetchType.LAZY)
     @CollectionTable(name = "rol_permisos", joinColumns = @JoinColumn(name = "rol_id"))
     @Column(name = "permiso")
     private List<String> permisos;
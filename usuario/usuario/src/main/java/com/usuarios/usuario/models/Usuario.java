@@ -1,5 +1,7 @@
 package com.usuarios.usuario.models;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import lombok.Getter;
@@ -13,9 +15,20 @@ import lombok.EqualsAndHashCode;
 @EqualsAndHashCode(of = "id")
 @Entity
 @Table(name = "usuarios")
+// Planes de carga por caso de uso: login y listados solo necesitan el rol, el detalle también sus permisos
+@NamedEntityGraph(name = "Usuario.rol", attributeNodes = @NamedAttributeNode("rol"))
+@NamedEntityGraph(
+    name = "Usuario.detalle",
+    attributeNodes = @NamedAttributeNode(value = "rol", subgraph = "rol"),
+    subgraphs = @NamedSubgraph(name = "rol", attributeNodes = @NamedAttributeNode("permisos"))
+)
 public class Usuario {
+    // Secuencia con asignación en bloques (pooled) para permitir inserts en lote por JDBC
+    // (en bases con datos anteriores, V2__SecuenciasVersionAuditoria la crea después del id máximo;
+    // Rol y Auditoria igual)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "usuarios_seq")
+    @SequenceGenerator(name = "usuarios_seq", sequenceName = "usuarios_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "nombre_completo", unique = true, nullable = false)
@@ -23,10 +36,18 @@ public class Usuario {
     @Column(unique = true, nullable = false)
     private String username;
     
+    // Solo de entrada: las respuestas que devuelven la entidad no exponen el hash
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @Column(nullable = false)
     private String password;
     
-    @ManyToOne(fetch = FetchType.EAGER)
+    // Control de concurrencia optimista y base de los ETags; las filas existentes arrancan en 0
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "rol_id", nullable = false)
     private Rol rol;
 }
\ No newline at end of file
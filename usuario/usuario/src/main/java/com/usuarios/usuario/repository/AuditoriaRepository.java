@@ -0,0 +1,8 @@
+package com.usuarios.usuario.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.usuarios.usuario.models.Auditoria;
+
+public interface AuditoriaRepository extends JpaRepository<Auditoria, Long> {
+}
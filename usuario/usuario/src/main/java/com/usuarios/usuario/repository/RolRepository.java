@@ -1,11 +1,37 @@
 package com.usuarios.usuario.repository;
 
+import java.util.List;
+import java.util.Optional;
+
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import com.usuarios.usuario.models.Rol;
 
+import jakarta.persistence.QueryHint;
+
 
 public interface RolRepository extends JpaRepository<Rol, Long> {
+    // Cacheable en la caché de consultas cuando el perfil "cache" está activo
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Rol findByNombre(String nombre);
+    // Paginación keyset: siguiente bloque de roles a partir del último id entregado
+    List<Rol> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+    // Validación de ETags sin cargar roles ni permisos: [id, versión] de la misma página
+    @Query("select r.id, r.version from Rol r where r.id > :desde order by r.id")
+    List<Object[]> findVersionesPagina(@Param("desde") Long desde, Pageable pageable);
+    @Query("select r.version from Rol r where r.id = :id")
+    Long findVersionById(@Param("id") Long id);
+    @Override
+    @EntityGraph("Rol.permisos")
+    Optional<Rol> findById(Long id);
+    @Override
+    @EntityGraph("Rol.permisos")
+    List<Rol> findAll();
     
 }
@@ -1,16 +1,91 @@
 package com.usuarios.usuario.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.QueryHint;
+
+import com.usuarios.usuario.dto.UsuarioResumenDTO;
+import com.usuarios.usuario.models.Rol;
 import com.usuarios.usuario.models.Usuario;
 
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     Usuario findByUsername(String username);
-    // Query simple para verificar si existe el usuario con username y password
-    boolean existsByUsernameAndPassword(String username, String password);
-    Optional<Usuario> findByUsernameAndPassword(String username, String password);
+    boolean existsByUsername(String username);
+    // El login solo necesita el hash guardado y el nombre del rol; la contraseña se compara en Java
+    @EntityGraph("Usuario.rol")
+    Optional<Usuario> findLoginByUsername(String username);
+    // Rehash tras un login exitoso: solo si nadie cambió la contraseña entre medio. No toca la
+    // versión: el hash no forma parte de ninguna representación con ETag
+    @Transactional
+    @Modifying
+    @Query("update Usuario u set u.password = :nuevo where u.id = :id and u.password = :anterior")
+    int actualizarPassword(@Param("id") Long id, @Param("anterior") String anterior, @Param("nuevo") String nuevo);
     boolean existsByNombreCompleto(String nombreCompleto);
+    // Paginación keyset: siguiente bloque de usuarios a partir del último id entregado,
+    // con las versiones de cada fila para el ETag de la página
+    @Query("select new com.usuarios.usuario.dto.UsuarioResumenDTO(u.id, u.username, u.nombreCompleto, r.id, r.nombre, "
+        + "u.version, r.version) from Usuario u join u.rol r where u.id > :desde order by u.id")
+    List<UsuarioResumenDTO> findResumenes(@Param("desde") Long desde, Pageable pageable);
+    // Con las versiones del usuario y del rol: el ETag del detalle sale de la misma sentencia
+    @Query("select new com.usuarios.usuario.dto.UsuarioResumenDTO(u.id, u.username, u.nombreCompleto, r.id, r.nombre, "
+        + "u.version, r.version) from Usuario u join u.rol r where u.id = :id")
+    Optional<UsuarioResumenDTO> findResumenById(@Param("id") Long id);
+    // Entidad completa para actualizaciones: usuario, rol y permisos en una sola consulta
+    @Override
+    @EntityGraph("Usuario.detalle")
+    Optional<Usuario> findById(Long id);
+    // Cursor del lado del servidor para exportaciones; debe consumirse dentro de una transacción
+    @QueryHints({
+        @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select u from Usuario u join fetch u.rol order by u.id")
+    Stream<Usuario> streamAllOrderById();
+    // Validación de unicidad por conjunto para la creación masiva: [username, nombreCompleto]
+    @Query("select u.username, u.nombreCompleto from Usuario u "
+        + "where u.username in :usernames or u.nombreCompleto in :nombres")
+    List<Object[]> findExistentes(@Param("usernames") Collection<String> usernames,
+                                  @Param("nombres") Collection<String> nombres);
+    // Carga inicial de los filtros de unicidad: [username, nombreCompleto]
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select u.username, u.nombreCompleto from Usuario u")
+    Stream<Object[]> streamUsernamesYNombres();
+    // Validación de ETags sin cargar la entidad: [versión del usuario, versión de su rol]
+    @Query("select u.version, r.version from Usuario u join u.rol r where u.id = :id")
+    List<Object[]> findVersionesById(@Param("id") Long id);
+    // Validación de ETags del listado: [id, versión del usuario, versión del rol] de la misma página
+    @Query("select u.id, u.version, r.version from Usuario u join u.rol r where u.id > :desde order by u.id")
+    List<Object[]> findVersionesPagina(@Param("desde") Long desde, Pageable pageable);
+    // Reasignación por bloques: los usuarios ya movidos dejan de cumplir el filtro
+    @Query("select u.id from Usuario u where u.rol = :rol order by u.id")
+    List<Long> findIdsPorRol(@Param("rol") Rol rol, Pageable pageable);
+    @Query("select count(u) from Usuario u where u.rol = :rol")
+    long countPorRol(@Param("rol") Rol rol);
+    // Un UPDATE por bloque de ids; incrementa la versión para invalidar los ETags
+    @Modifying
+    @Query("update Usuario u set u.rol = :destino, u.version = u.version + 1 "
+        + "where u.rol = :origen and u.id in :ids")
+    int reasignarRol(@Param("origen") Rol origen, @Param("destino") Rol destino, @Param("ids") Collection<Long> ids);
+    // Carga inicial del índice de búsqueda: [id, username, nombreCompleto]. En orden de id para que
+    // las listas de ids del índice crezcan siempre por el final (recorrido de la clave primaria)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select u.id, u.username, u.nombreCompleto from Usuario u order by u.id")
+    Stream<Object[]> streamIdsUsernamesYNombres();
+    // Carga inicial del motor de permisos: [id, username, rolId] sin materializar entidades
+    @Query("select u.id, u.username, u.rol.id from Usuario u")
+    List<Object[]> findIdsUsernamesYRoles();
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,76 @@
+package com.usuarios.usuario.services;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Cola circular acotada sin bloqueos para varios productores y consumidores (esquema de Vyukov):
+// cada celda lleva un número de secuencia que indica si está libre para escribir o lista para leer.
+final class AnilloAcotado<T> {
+
+    private final AtomicReferenceArray<T> elementos;
+    private final AtomicLongArray secuencias;
+    private final int mascara;
+    private final AtomicLong escritura = new AtomicLong();
+    private final AtomicLong lectura = new AtomicLong();
+
+    AnilloAcotado(int capacidadMinima) {
+        int capacidad = Integer.highestOneBit(Math.max(2, capacidadMinima) - 1) << 1;
+        this.elementos = new AtomicReferenceArray<>(capacidad);
+        this.secuencias = new AtomicLongArray(capacidad);
+        this.mascara = capacidad - 1;
+        for (int i = 0; i < capacidad; i++) {
+            secuencias.set(i, i);
+        }
+    }
+
+    // false si el anillo está lleno
+    boolean ofrecer(T elemento) {
+        long posicion = escritura.get();
+        while (true) {
+            int celda = (int) posicion & mascara;
+            long diferencia = secuencias.get(celda) - posicion;
+            if (diferencia == 0) {
+                if (escritura.compareAndSet(posicion, posicion + 1)) {
+                    elementos.set(celda, elemento);
+                    secuencias.set(celda, posicion + 1);
+                    return true;
+                }
+                posicion = escritura.get();
+            } else if (diferencia < 0) {
+                return false;
+            } else {
+                posicion = escritura.get();
+            }
+        }
+    }
+
+    // null si el anillo está vacío
+    T tomar() {
+        long posicion = lectura.get();
+        while (true) {
+            int celda = (int) posicion & mascara;
+            long diferencia = secuencias.get(celda) - (posicion + 1);
+            if (diferencia == 0) {
+                if (lectura.compareAndSet(posicion, posicion + 1)) {
+                    T elemento = elementos.getAndSet(celda, null);
+                    secuencias.set(celda, posicion + mascara + 1);
+                    return elemento;
+                }
+                posicion = lectura.get();
+            } else if (diferencia < 0) {
+                return null;
+            } else {
+                posicion = lectura.get();
+            }
+        }
+    }
+
+    int tamanio() {
+        return (int) Math.max(0, escritura.get() - lectura.get());
+    }
+
+    int capacidad() {
+        return mascara + 1;
+    }
+}
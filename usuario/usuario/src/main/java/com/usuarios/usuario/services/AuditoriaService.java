@@ -0,0 +1,244 @@
+package com.usuarios.usuario.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.usuarios.usuario.models.Auditoria;
+import com.usuarios.usuario.repository.AuditoriaRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Auditoría asíncrona: los controladores publican eventos en un anillo acotado sin bloqueos
+// y un único hilo escritor los inserta en lotes JDBC, por tamaño o por tiempo.
+// Con el anillo lleno se aplica la política configurada (BLOQUEAR, DESCARTAR o DERRAMAR a archivo).
+@Slf4j
+@Service
+public class AuditoriaService implements SmartLifecycle {
+
+    public enum Operacion { CREAR, ACTUALIZAR, ELIMINAR }
+
+    public enum Politica { BLOQUEAR, DESCARTAR, DERRAMAR }
+
+    // Se detiene después del servidor web, para no perder eventos de solicitudes en curso
+    private static final int FASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+    private static final long ESPERA_LLENO_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final AuditoriaRepository auditoriaRepository;
+    private final ObjectMapper objectMapper;
+    private final AnilloAcotado<Auditoria> anillo;
+    private final int tamanioLote;
+    private final long intervaloNanos;
+    private final Politica politica;
+    private final long esperaMaximaNanos;
+    private final Path archivoDerrame;
+
+    private final Counter publicados;
+    private final Counter escritos;
+    private final Counter descartados;
+    private final Counter derramados;
+
+    private final Object cerrojoDerrame = new Object();
+    private volatile boolean activo;
+    // El escritor la marca antes de dormir; quien publique en ese momento lo despierta
+    private volatile boolean esperando;
+    private volatile Thread escritor;
+
+    public AuditoriaService(
+            AuditoriaRepository auditoriaRepository,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${usuarios.auditoria.capacidad:8192}") int capacidad,
+            @Value("${usuarios.auditoria.tamanio-lote:50}") int tamanioLote,
+            @Value("${usuarios.auditoria.intervalo-ms:500}") long intervaloMs,
+            @Value("${usuarios.auditoria.politica:BLOQUEAR}") Politica politica,
+            @Value("${usuarios.auditoria.espera-maxima-ms:1000}") long esperaMaximaMs,
+            @Value("${usuarios.auditoria.archivo-derrame:auditoria-derrame.ndjson}") String archivoDerrame) {
+        this.auditoriaRepository = auditoriaRepository;
+        this.objectMapper = objectMapper;
+        this.anillo = new AnilloAcotado<>(capacidad);
+        this.tamanioLote = Math.max(1, tamanioLote);
+        this.intervaloNanos = TimeUnit.MILLISECONDS.toNanos(intervaloMs);
+        this.politica = politica;
+        this.esperaMaximaNanos = TimeUnit.MILLISECONDS.toNanos(esperaMaximaMs);
+        this.archivoDerrame = Paths.get(archivoDerrame);
+
+        this.publicados = meterRegistry.counter("usuarios.auditoria.eventos", "resultado", "publicado");
+        this.escritos = meterRegistry.counter("usuarios.auditoria.eventos", "resultado", "escrito");
+        this.descartados = meterRegistry.counter("usuarios.auditoria.eventos", "resultado", "descartado");
+        this.derramados = meterRegistry.counter("usuarios.auditoria.eventos", "resultado", "derramado");
+        Gauge.builder("usuarios.auditoria.pendientes", anillo, AnilloAcotado::tamanio).register(meterRegistry);
+    }
+
+    public void registrar(String entidad, Long entidadId, Operacion operacion, String detalle) {
+        Auditoria evento = new Auditoria(null, entidad, entidadId, operacion.name(), detalle, Instant.now());
+        if (anillo.ofrecer(evento)) {
+            publicados.increment();
+            if (esperando) {
+                LockSupport.unpark(escritor);
+            }
+            return;
+        }
+
+        switch (politica) {
+            case BLOQUEAR -> bloquearHastaPublicar(evento);
+            case DERRAMAR -> derramar(List.of(evento));
+            default -> descartados.increment();
+        }
+    }
+
+    // Escribe de forma síncrona todo lo pendiente; lo usa la parada y sirve para pruebas
+    public int vaciar() {
+        List<Auditoria> lote = new ArrayList<>(tamanioLote);
+        int total = 0;
+        Auditoria evento;
+        while ((evento = anillo.tomar()) != null) {
+            lote.add(evento);
+            if (lote.size() >= tamanioLote) {
+                total += escribir(lote);
+            }
+        }
+        return total + escribir(lote);
+    }
+
+    public int pendientes() {
+        return anillo.tamanio();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (activo) {
+            return;
+        }
+        activo = true;
+        escritor = new Thread(this::ejecutar, "auditoria-escritor");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!activo) {
+            return;
+        }
+        activo = false;
+        LockSupport.unpark(escritor);
+        try {
+            escritor.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int restantes = vaciar();
+        log.info("Auditoría detenida; {} eventos escritos al cerrar", restantes);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return activo;
+    }
+
+    @Override
+    public int getPhase() {
+        return FASE;
+    }
+
+    private void ejecutar() {
+        List<Auditoria> lote = new ArrayList<>(tamanioLote);
+        long ultimaEscritura = System.nanoTime();
+        while (activo) {
+            Auditoria evento = anillo.tomar();
+            if (evento != null) {
+                lote.add(evento);
+                if (lote.size() >= tamanioLote) {
+                    escribir(lote);
+                    ultimaEscritura = System.nanoTime();
+                }
+                continue;
+            }
+            long restante = intervaloNanos - (System.nanoTime() - ultimaEscritura);
+            if (!lote.isEmpty() && restante <= 0) {
+                escribir(lote);
+                ultimaEscritura = System.nanoTime();
+                continue;
+            }
+            // Con el anillo vacío duerme hasta el plazo del lote pendiente, o sin plazo si no hay lote.
+            // La marca se publica antes de volver a mirar el anillo: si un evento entra entre medio,
+            // registrar ve la marca y el unpark deja el permiso para que park vuelva enseguida
+            esperando = true;
+            if (activo && anillo.tamanio() == 0) {
+                if (lote.isEmpty()) {
+                    LockSupport.park(this);
+                } else {
+                    LockSupport.parkNanos(this, restante);
+                }
+            }
+            esperando = false;
+        }
+        escribir(lote);
+    }
+
+    private int escribir(List<Auditoria> lote) {
+        if (lote.isEmpty()) {
+            return 0;
+        }
+        int cantidad = lote.size();
+        try {
+            // Con hibernate.jdbc.batch_size y la secuencia de a 50 cada lote es un batch JDBC
+            auditoriaRepository.saveAll(new ArrayList<>(lote));
+            escritos.increment(cantidad);
+            return cantidad;
+        } catch (RuntimeException e) {
+            log.error("No se pudo escribir un lote de {} eventos de auditoría; se derraman a archivo", cantidad, e);
+            derramar(lote);
+            return 0;
+        } finally {
+            lote.clear();
+        }
+    }
+
+    private void bloquearHastaPublicar(Auditoria evento) {
+        long limite = System.nanoTime() + esperaMaximaNanos;
+        while (System.nanoTime() - limite < 0) {
+            LockSupport.parkNanos(ESPERA_LLENO_NANOS);
+            if (anillo.ofrecer(evento)) {
+                publicados.increment();
+                return;
+            }
+        }
+        log.warn("Anillo de auditoría lleno durante {} ms; se descarta el evento",
+            TimeUnit.NANOSECONDS.toMillis(esperaMaximaNanos));
+        descartados.increment();
+    }
+
+    private void derramar(List<Auditoria> eventos) {
+        synchronized (cerrojoDerrame) {
+            try (BufferedWriter salida = Files.newBufferedWriter(archivoDerrame, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (Auditoria evento : eventos) {
+                    salida.write(objectMapper.writeValueAsString(evento));
+                    salida.newLine();
+                }
+                derramados.increment(eventos.size());
+            } catch (IOException e) {
+                log.error("No se pudieron derramar {} eventos de auditoría a {}", eventos.size(), archivoDerrame, e);
+                descartados.increment(eventos.size());
+            }
+        }
+    }
+}
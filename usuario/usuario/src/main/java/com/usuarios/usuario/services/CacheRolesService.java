@@ -0,0 +1,46 @@
+package com.usuarios.usuario.services;
+
+import com.usuarios.usuario.models.Rol;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheableDataStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Estadísticas de la caché de segundo nivel de roles (perfil "cache")
+@Service
+public class CacheRolesService {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    public Map<String, Object> obtenerEstadisticas() {
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("habilitadas", estadisticas.isStatisticsEnabled());
+        resultado.put("rol", resumen(estadisticas.getEntityStatistics(Rol.class.getName())));
+        resultado.put("permisos", resumen(estadisticas.getCollectionStatistics(Rol.class.getName() + ".permisos")));
+
+        Map<String, Object> consultas = new LinkedHashMap<>();
+        consultas.put("aciertos", estadisticas.getQueryCacheHitCount());
+        consultas.put("fallos", estadisticas.getQueryCacheMissCount());
+        consultas.put("escrituras", estadisticas.getQueryCachePutCount());
+        resultado.put("consultas", consultas);
+
+        resultado.put("sentenciasPreparadas", estadisticas.getPrepareStatementCount());
+        return resultado;
+    }
+
+    private Map<String, Object> resumen(CacheableDataStatistics datos) {
+        Map<String, Object> resumen = new LinkedHashMap<>();
+        resumen.put("aciertos", datos.getCacheHitCount());
+        resumen.put("fallos", datos.getCacheMissCount());
+        resumen.put("escrituras", datos.getCachePutCount());
+        return resumen;
+    }
+}
@@ -0,0 +1,245 @@
+package com.usuarios.usuario.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.usuarios.usuario.dto.PaginaDTO;
+import com.usuarios.usuario.dto.ResponseDTO;
+import com.usuarios.usuario.models.Rol;
+import com.usuarios.usuario.repository.RolRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+// Respuestas ya serializadas de GET /api/roles (primera página, sin parámetros) y de
+// GET /api/roles/{id}. Cada cambio de RolService descarta la instantánea tras el commit y un hilo
+// propio la reconstruye y la publica de una sola vez; las lecturas no tocan la base de datos ni
+// Jackson. Mientras no hay instantánea las lecturas pasan al controlador: ni la transacción que
+// cambió el rol ni ninguna solicitud esperan la reconstrucción.
+// El TTL cubre cambios hechos fuera de RolService (otra instancia, SQL directo).
+@Slf4j
+@Service
+public class CatalogoRolesService {
+
+    private final RolRepository rolRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transaccion;
+    private final boolean habilitado;
+    private final boolean gzip;
+    private final long ttlNanos;
+
+    private final ReentrantLock reconstruccion = new ReentrantLock();
+    private volatile Instantanea instantanea;
+
+    // Un solo hilo y a lo sumo una reconstrucción en cola: varias invalidaciones seguidas se agrupan
+    private final ExecutorService ejecutor = Executors.newSingleThreadExecutor(tarea -> {
+        Thread hilo = new Thread(tarea, "catalogo-roles");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+    private final AtomicBoolean programada = new AtomicBoolean();
+    // Cambia con cada invalidación; una reconstrucción que empezó antes no publica su resultado
+    private final AtomicLong generacion = new AtomicLong();
+
+    public CatalogoRolesService(
+            RolRepository rolRepository,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${usuarios.catalogo-roles.habilitado:true}") boolean habilitado,
+            @Value("${usuarios.catalogo-roles.gzip:true}") boolean gzip,
+            @Value("${usuarios.catalogo-roles.ttl-segundos:30}") long ttlSegundos) {
+        this.rolRepository = rolRepository;
+        this.objectMapper = objectMapper;
+        // Corre en el hilo propio (o al arrancar), sin transacción ni conexión de la solicitud
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.transaccion.setReadOnly(true);
+        this.habilitado = habilitado;
+        this.gzip = gzip;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Math.max(1, ttlSegundos));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        if (habilitado) {
+            reconstruir();
+        }
+    }
+
+    // Llamado por RolService en cada alta, cambio o baja; si la transacción se revierte no hay nada que hacer
+    public void invalidar() {
+        if (!habilitado) {
+            return;
+        }
+        Transacciones.alConfirmar(() -> {
+            // Hasta que se publique la nueva, las lecturas pasan al controlador en lugar de ver la anterior
+            generacion.incrementAndGet();
+            instantanea = null;
+            programar();
+        });
+    }
+
+    // null cuando la caché está deshabilitada o se está reconstruyendo: el controlador responde.
+    // Sin instantánea (fallo previo) o con el TTL vencido se programa la reconstrucción y esta
+    // lectura también pasa al controlador
+    public Instantanea vigente() {
+        if (!habilitado) {
+            return null;
+        }
+        Instantanea actual = instantanea;
+        if (actual == null || System.nanoTime() - actual.creada > ttlNanos) {
+            programar();
+            return null;
+        }
+        return actual;
+    }
+
+    // Síncrona: la usan la carga inicial y las pruebas
+    public void reconstruir() {
+        reconstruccion.lock();
+        try {
+            long desde = generacion.get();
+            Instantanea nueva;
+            try {
+                nueva = transaccion.execute(estado -> construir());
+            } catch (RuntimeException e) {
+                nueva = null;
+                log.warn("No se pudo reconstruir el catálogo de roles serializado", e);
+            }
+            // Si hubo una invalidación mientras tanto, la reconstrucción que programó publicará
+            if (generacion.get() == desde) {
+                instantanea = nueva;
+            }
+        } finally {
+            reconstruccion.unlock();
+        }
+    }
+
+    private void programar() {
+        if (!programada.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            ejecutor.execute(() -> {
+                // Antes de leer: una invalidación que llegue durante la lectura programa otra
+                programada.set(false);
+                reconstruir();
+            });
+        } catch (RejectedExecutionException e) {
+            // El contexto se está cerrando
+            programada.set(false);
+        }
+    }
+
+    @PreDestroy
+    void detener() {
+        ejecutor.shutdownNow();
+    }
+
+    // Mismo cuerpo y misma huella que RolController produce para cada ruta
+    private Instantanea construir() {
+        List<Rol> roles = new ArrayList<>(rolRepository.findAll());
+        roles.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+
+        int limite = PaginaDTO.LIMITE_POR_DEFECTO;
+        PaginaDTO<Rol> pagina = PaginaDTO.desdeFilas(
+            roles.subList(0, Math.min(roles.size(), limite + 1)), limite, Rol::getId, null);
+        Cuerpo lista = cuerpo(new ResponseDTO("Roles obtenidos exitosamente", pagina, true), RolService.huella(pagina));
+
+        Map<Long, Cuerpo> porId = new HashMap<>(roles.size() * 2);
+        for (Rol rol : roles) {
+            porId.put(rol.getId(), cuerpo(new ResponseDTO("Rol encontrado", rol, true), String.valueOf(rol.getVersion())));
+        }
+        log.debug("Catálogo de roles serializado: {} roles, {} bytes en el listado", roles.size(), lista.getJson().length);
+        return new Instantanea(lista, Collections.unmodifiableMap(porId), System.nanoTime());
+    }
+
+    private Cuerpo cuerpo(ResponseDTO respuesta, String huella) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(respuesta);
+            return new Cuerpo(json, gzip ? comprimir(json) : null, huella);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el catálogo de roles", e);
+        }
+    }
+
+    private static byte[] comprimir(byte[] datos) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(Math.max(64, datos.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(datos);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.toByteArray();
+    }
+
+    // Inmutable: se reemplaza completa, nunca se modifica
+    public static final class Instantanea {
+        private final Cuerpo lista;
+        private final Map<Long, Cuerpo> roles;
+        private final long creada;
+
+        Instantanea(Cuerpo lista, Map<Long, Cuerpo> roles, long creada) {
+            this.lista = lista;
+            this.roles = roles;
+            this.creada = creada;
+        }
+
+        public Cuerpo getLista() {
+            return lista;
+        }
+
+        public Cuerpo getRol(Long id) {
+            return roles.get(id);
+        }
+
+        public int cantidadRoles() {
+            return roles.size();
+        }
+    }
+
+    // JSON, su versión gzip (null si está desactivada) y la huella que el controlador usa como ETag
+    public static final class Cuerpo {
+        private final byte[] json;
+        private final byte[] gzip;
+        private final String huella;
+
+        Cuerpo(byte[] json, byte[] gzip, String huella) {
+            this.json = json;
+            this.gzip = gzip;
+            this.huella = huella;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public byte[] getGzip() {
+            return gzip;
+        }
+
+        public String getHuella() {
+            return huella;
+        }
+    }
+}
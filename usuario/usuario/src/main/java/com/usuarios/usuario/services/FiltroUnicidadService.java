@@ -0,0 +1,227 @@
+package com.usuarios.usuario.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.usuarios.usuario.repository.UsuarioRepository;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// Filtros de Bloom con contadores para username y nombre completo. Si un filtro dice
+// "definitivamente ausente" se omite la consulta de unicidad y la restricción UNIQUE de la
+// tabla decide ante una carrera; si dice "posiblemente presente" se consulta la base de datos.
+// Hasta que termina la carga inicial todos los valores se tratan como posiblemente presentes.
+@Service
+public class FiltroUnicidadService {
+
+    private final UsuarioRepository usuarioRepository;
+    private final Filtro usernames;
+    private final Filtro nombres;
+    private volatile boolean cargado;
+
+    public FiltroUnicidadService(
+            UsuarioRepository usuarioRepository,
+            @Value("${usuarios.bloom.capacidad:200000}") int capacidad,
+            @Value("${usuarios.bloom.probabilidad-falso-positivo:0.01}") double probabilidadFalsoPositivo,
+            MeterRegistry meterRegistry) {
+        this.usuarioRepository = usuarioRepository;
+        this.usernames = new Filtro("username", capacidad, probabilidadFalsoPositivo, meterRegistry);
+        this.nombres = new Filtro("nombreCompleto", capacidad, probabilidadFalsoPositivo, meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void cargar() {
+        try (Stream<Object[]> filas = usuarioRepository.streamUsernamesYNombres()) {
+            filas.forEach(fila -> {
+                usernames.bloom.agregar((String) fila[0]);
+                nombres.bloom.agregar((String) fila[1]);
+            });
+        }
+        cargado = true;
+    }
+
+    public boolean estaCargado() {
+        return cargado;
+    }
+
+    public boolean usernameDefinitivamenteAusente(String username) {
+        return definitivamenteAusente(usernames, username);
+    }
+
+    public boolean nombreDefinitivamenteAusente(String nombreCompleto) {
+        return definitivamenteAusente(nombres, nombreCompleto);
+    }
+
+    // Resultado de la consulta hecha tras un "posiblemente presente"; si no existía fue un falso positivo
+    public void registrarVerificacionUsername(boolean existia) {
+        usernames.registrarConsulta(existia);
+    }
+
+    public void registrarVerificacionNombre(boolean existia) {
+        nombres.registrarConsulta(existia);
+    }
+
+    public void agregar(String username, String nombreCompleto) {
+        Transacciones.alConfirmar(() -> {
+            usernames.bloom.agregar(username);
+            nombres.bloom.agregar(nombreCompleto);
+        });
+    }
+
+    // Cambio de un usuario existente: solo se mueven los valores que cambiaron. Volver a sumar un
+    // valor que ya estaba empuja sus contadores hacia la saturación, y un contador saturado no baja
+    public void reemplazar(String usernameAnterior, String nombreAnterior, String username, String nombreCompleto) {
+        boolean cambiaUsername = !Objects.equals(usernameAnterior, username);
+        boolean cambiaNombre = !Objects.equals(nombreAnterior, nombreCompleto);
+        if (!cambiaUsername && !cambiaNombre) {
+            return;
+        }
+        Transacciones.alConfirmar(() -> {
+            if (cambiaUsername) {
+                usernames.bloom.quitar(usernameAnterior);
+                usernames.bloom.agregar(username);
+            }
+            if (cambiaNombre) {
+                nombres.bloom.quitar(nombreAnterior);
+                nombres.bloom.agregar(nombreCompleto);
+            }
+        });
+    }
+
+    public void quitar(String username, String nombreCompleto) {
+        Transacciones.alConfirmar(() -> {
+            usernames.bloom.quitar(username);
+            nombres.bloom.quitar(nombreCompleto);
+        });
+    }
+
+    private boolean definitivamenteAusente(Filtro filtro, String valor) {
+        if (!cargado || valor == null || filtro.bloom.posiblementePresente(valor)) {
+            return false;
+        }
+        filtro.ausentes.increment();
+        filtro.negativos.incrementAndGet();
+        return true;
+    }
+
+    private static final class Filtro {
+        private final FiltroBloomContador bloom;
+        private final Counter ausentes;
+        private final Counter consultados;
+        private final Counter falsosPositivos;
+        private final AtomicLong negativos = new AtomicLong();
+        private final AtomicLong falsos = new AtomicLong();
+
+        private Filtro(String nombre, int capacidad, double probabilidad, MeterRegistry meterRegistry) {
+            this.bloom = new FiltroBloomContador(capacidad, probabilidad);
+            this.ausentes = meterRegistry.counter("usuarios.bloom.verificaciones", "filtro", nombre, "resultado", "ausente");
+            this.consultados = meterRegistry.counter("usuarios.bloom.verificaciones", "filtro", nombre, "resultado", "consultado");
+            this.falsosPositivos = meterRegistry.counter("usuarios.bloom.falsos.positivos", "filtro", nombre);
+            // Tasa observada: falsos positivos sobre el total de valores que realmente no existían
+            Gauge.builder("usuarios.bloom.tasa.falsos.positivos", this, Filtro::tasaFalsosPositivos)
+                .tag("filtro", nombre)
+                .register(meterRegistry);
+        }
+
+        private void registrarConsulta(boolean existia) {
+            consultados.increment();
+            if (!existia) {
+                falsosPositivos.increment();
+                falsos.incrementAndGet();
+                negativos.incrementAndGet();
+            }
+        }
+
+        private double tasaFalsosPositivos() {
+            long total = negativos.get();
+            return total == 0 ? 0.0 : (double) falsos.get() / total;
+        }
+    }
+
+    // Contadores de 4 bits almacenados en bytes; un contador saturado ya no se decrementa
+    private static final class FiltroBloomContador {
+        private static final VarHandle CONTADORES = MethodHandles.arrayElementVarHandle(byte[].class);
+        private static final byte SATURADO = 15;
+
+        private final byte[] contadores;
+        private final int funciones;
+
+        private FiltroBloomContador(int capacidad, double probabilidad) {
+            long bits = (long) Math.ceil(-capacidad * Math.log(probabilidad) / (Math.log(2) * Math.log(2)));
+            this.contadores = new byte[(int) Math.max(64, Math.min(bits, Integer.MAX_VALUE - 8))];
+            this.funciones = Math.max(1, (int) Math.round((double) contadores.length / capacidad * Math.log(2)));
+        }
+
+        private boolean posiblementePresente(String valor) {
+            long hash = hash(valor);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            for (int i = 0; i < funciones; i++) {
+                if ((byte) CONTADORES.getAcquire(contadores, indice(h1, h2, i)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void agregar(String valor) {
+            if (valor == null) {
+                return;
+            }
+            long hash = hash(valor);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            for (int i = 0; i < funciones; i++) {
+                int indice = indice(h1, h2, i);
+                byte actual;
+                do {
+                    actual = (byte) CONTADORES.getVolatile(contadores, indice);
+                } while (actual < SATURADO && !CONTADORES.compareAndSet(contadores, indice, actual, (byte) (actual + 1)));
+            }
+        }
+
+        private void quitar(String valor) {
+            if (valor == null) {
+                return;
+            }
+            long hash = hash(valor);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            for (int i = 0; i < funciones; i++) {
+                int indice = indice(h1, h2, i);
+                byte actual;
+                do {
+                    actual = (byte) CONTADORES.getVolatile(contadores, indice);
+                } while (actual > 0 && actual < SATURADO
+                    && !CONTADORES.compareAndSet(contadores, indice, actual, (byte) (actual - 1)));
+            }
+        }
+
+        private int indice(int h1, int h2, int i) {
+            return Math.floorMod(h1 + i * h2, contadores.length);
+        }
+
+        // FNV-1a de 64 bits seguido de la mezcla final de SplitMix64
+        private static long hash(String valor) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < valor.length(); i++) {
+                h ^= valor.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+            h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+            return h ^ (h >>> 31);
+        }
+    }
+}
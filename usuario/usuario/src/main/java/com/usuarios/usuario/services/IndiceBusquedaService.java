@@ -0,0 +1,362 @@
+package com.usuarios.usuario.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.usuarios.usuario.dto.ResultadoBusquedaDTO;
+import com.usuarios.usuario.repository.UsuarioRepository;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Índice en memoria para la búsqueda por username y nombre completo. Un diccionario ordenado de
+// términos (el username y cada palabra del nombre) resuelve los prefijos como un rango de claves,
+// y las listas de trigramas resuelven las subcadenas; ambos se mantienen al confirmarse cada alta,
+// cambio o baja. Cada término y cada trigrama guarda sus ids en un long[] ordenado (Ids): un
+// objeto por término en lugar de un nodo con mapa y conjunto por carácter, y sin Long en cajas.
+// Los textos se comparan en minúsculas y sin tildes.
+@Service
+public class IndiceBusquedaService {
+
+    public static final int LIMITE_POR_DEFECTO = 10;
+    public static final int LIMITE_MAXIMO = 50;
+
+    // Tope de candidatos evaluados por consulta, para que un prefijo de una letra no recorra todo el índice
+    private static final int MAX_CANDIDATOS = 1000;
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    private final ReentrantReadWriteLock cerrojo = new ReentrantReadWriteLock();
+    private final Map<Long, Entrada> entradas = new HashMap<>();
+    private final TreeMap<String, Ids> terminos = new TreeMap<>();
+    private final Map<String, Ids> trigramas = new HashMap<>();
+    private volatile boolean cargado;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void cargar() {
+        try (Stream<Object[]> filas = usuarioRepository.streamIdsUsernamesYNombres()) {
+            filas.forEach(fila -> reindexar((Long) fila[0], (String) fila[1], (String) fila[2]));
+        }
+        cargado = true;
+    }
+
+    public boolean estaCargado() {
+        return cargado;
+    }
+
+    public void indexar(Long id, String username, String nombreCompleto) {
+        Transacciones.alConfirmar(() -> reindexar(id, username, nombreCompleto));
+    }
+
+    public void quitar(Long id) {
+        Transacciones.alConfirmar(() -> {
+            cerrojo.writeLock().lock();
+            try {
+                Entrada entrada = entradas.remove(id);
+                if (entrada != null) {
+                    desindexar(entrada);
+                }
+            } finally {
+                cerrojo.writeLock().unlock();
+            }
+        });
+    }
+
+    public int tamanio() {
+        cerrojo.readLock().lock();
+        try {
+            return entradas.size();
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    // Orden: username exacto, prefijo del username, prefijo del nombre o de una de sus palabras,
+    // subcadena; dentro de cada grupo primero los textos más cortos
+    public List<ResultadoBusquedaDTO> buscar(String consulta, int limite) {
+        String q = normalizar(consulta);
+        if (q.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+
+        List<Candidato> candidatos = new ArrayList<>();
+        cerrojo.readLock().lock();
+        try {
+            Set<Long> porPrefijo = porPrefijo(q, MAX_CANDIDATOS);
+            for (Long id : porPrefijo) {
+                Entrada entrada = entradas.get(id);
+                candidatos.add(new Candidato(entrada, rangoPrefijo(entrada, q)));
+            }
+            if (q.length() >= 3 && candidatos.size() < MAX_CANDIDATOS) {
+                for (Long id : porSubcadena(q, MAX_CANDIDATOS - candidatos.size(), porPrefijo)) {
+                    candidatos.add(new Candidato(entradas.get(id), 3));
+                }
+            }
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+
+        candidatos.sort(Comparator.comparingInt((Candidato c) -> c.rango)
+            .thenComparingInt(c -> c.entrada.username.length())
+            .thenComparingLong(c -> c.entrada.id));
+
+        List<ResultadoBusquedaDTO> resultados = new ArrayList<>(Math.min(limite, candidatos.size()));
+        for (int i = 0; i < candidatos.size() && i < limite; i++) {
+            Entrada entrada = candidatos.get(i).entrada;
+            resultados.add(new ResultadoBusquedaDTO(entrada.id, entrada.username, entrada.nombreCompleto));
+        }
+        return resultados;
+    }
+
+    // Un cambio solo toca los términos y trigramas que difieren: los que se mantienen conservan su posición
+    private void reindexar(Long id, String username, String nombreCompleto) {
+        if (id == null || username == null) {
+            return;
+        }
+        Entrada nueva = new Entrada(id, username, nombreCompleto != null ? nombreCompleto : "");
+        Set<String> nuevosTerminos = nueva.terminos();
+        Set<String> nuevosTrigramas = nueva.trigramas();
+        cerrojo.writeLock().lock();
+        try {
+            Entrada anterior = entradas.put(id, nueva);
+            Set<String> terminosAnteriores = anterior != null ? anterior.terminos() : Set.of();
+            Set<String> trigramasAnteriores = anterior != null ? anterior.trigramas() : Set.of();
+            for (String termino : terminosAnteriores) {
+                if (!nuevosTerminos.contains(termino)) {
+                    quitarId(terminos, termino, id);
+                }
+            }
+            for (String trigrama : trigramasAnteriores) {
+                if (!nuevosTrigramas.contains(trigrama)) {
+                    quitarId(trigramas, trigrama, id);
+                }
+            }
+            for (String termino : nuevosTerminos) {
+                if (!terminosAnteriores.contains(termino)) {
+                    terminos.computeIfAbsent(termino, t -> new Ids()).agregar(id);
+                }
+            }
+            for (String trigrama : nuevosTrigramas) {
+                if (!trigramasAnteriores.contains(trigrama)) {
+                    trigramas.computeIfAbsent(trigrama, t -> new Ids()).agregar(id);
+                }
+            }
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    private void desindexar(Entrada entrada) {
+        for (String termino : entrada.terminos()) {
+            quitarId(terminos, termino, entrada.id);
+        }
+        for (String trigrama : entrada.trigramas()) {
+            quitarId(trigramas, trigrama, entrada.id);
+        }
+    }
+
+    private static void quitarId(Map<String, Ids> listas, String clave, long id) {
+        Ids ids = listas.get(clave);
+        if (ids != null && ids.quitar(id) && ids.vacia()) {
+            listas.remove(clave);
+        }
+    }
+
+    // Los términos que empiezan por el prefijo forman un rango contiguo del diccionario. Sin un
+    // término para el nombre completo, una consulta con espacios parte de su primera palabra (que
+    // debe ser una palabra entera del nombre) y se comprueba contra el nombre
+    private Set<Long> porPrefijo(String prefijo, int tope) {
+        Set<Long> ids = new LinkedHashSet<>();
+        int espacio = prefijo.indexOf(' ');
+        if (espacio < 0) {
+            for (Ids lista : terminos.subMap(prefijo, true, prefijo + Character.MAX_VALUE, false).values()) {
+                for (int i = 0; i < lista.tamanio(); i++) {
+                    ids.add(lista.get(i));
+                    if (ids.size() >= tope) {
+                        return ids;
+                    }
+                }
+            }
+            return ids;
+        }
+        Ids lista = terminos.get(prefijo.substring(0, espacio));
+        for (int i = 0; lista != null && i < lista.tamanio() && ids.size() < tope; i++) {
+            long id = lista.get(i);
+            if (entradas.get(id).nombreNormalizado.startsWith(prefijo)) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    // Intersección de las listas de trigramas recorriendo la más corta y buscando en las demás; el
+    // contains final descarta las entradas que tienen todos los trigramas pero no la subcadena. Se
+    // detiene al reunir el tope en vez de calcular la intersección completa
+    private List<Long> porSubcadena(String q, int tope, Set<Long> excluir) {
+        List<Ids> listas = new ArrayList<>();
+        for (String trigrama : trigramasDe(q)) {
+            Ids ids = trigramas.get(trigrama);
+            if (ids == null) {
+                return List.of();
+            }
+            listas.add(ids);
+        }
+        listas.sort(Comparator.comparingInt(Ids::tamanio));
+
+        Ids menor = listas.get(0);
+        List<Long> resultado = new ArrayList<>();
+        for (int j = 0; j < menor.tamanio() && resultado.size() < tope; j++) {
+            long id = menor.get(j);
+            boolean enTodas = true;
+            for (int i = 1; i < listas.size() && enTodas; i++) {
+                enTodas = listas.get(i).contiene(id);
+            }
+            if (enTodas && !excluir.contains(id)) {
+                Entrada entrada = entradas.get(id);
+                if (entrada.usernameNormalizado.contains(q) || entrada.nombreNormalizado.contains(q)) {
+                    resultado.add(id);
+                }
+            }
+        }
+        return resultado;
+    }
+
+    private static int rangoPrefijo(Entrada entrada, String q) {
+        if (entrada.usernameNormalizado.equals(q)) {
+            return 0;
+        }
+        return entrada.usernameNormalizado.startsWith(q) ? 1 : 2;
+    }
+
+    private static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinTildes = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return ESPACIOS.matcher(sinTildes.toLowerCase(Locale.ROOT).trim()).replaceAll(" ");
+    }
+
+    private static Set<String> trigramasDe(String texto) {
+        Set<String> resultado = new HashSet<>();
+        for (int i = 0; i + 3 <= texto.length(); i++) {
+            resultado.add(texto.substring(i, i + 3));
+        }
+        return resultado;
+    }
+
+    private static final class Entrada {
+        private final Long id;
+        private final String username;
+        private final String nombreCompleto;
+        private final String usernameNormalizado;
+        private final String nombreNormalizado;
+
+        private Entrada(Long id, String username, String nombreCompleto) {
+            this.id = id;
+            this.username = username;
+            this.nombreCompleto = nombreCompleto;
+            this.usernameNormalizado = normalizar(username);
+            this.nombreNormalizado = normalizar(nombreCompleto);
+        }
+
+        private Set<String> terminos() {
+            Set<String> terminos = new HashSet<>();
+            terminos.add(usernameNormalizado);
+            if (!nombreNormalizado.isEmpty()) {
+                for (String palabra : nombreNormalizado.split(" ")) {
+                    terminos.add(palabra);
+                }
+            }
+            return terminos;
+        }
+
+        private Set<String> trigramas() {
+            Set<String> resultado = trigramasDe(usernameNormalizado);
+            resultado.addAll(trigramasDe(nombreNormalizado));
+            return resultado;
+        }
+    }
+
+    // Lista ordenada de ids sobre un long[]: los ids nuevos salen de una secuencia y se agregan
+    // casi siempre al final; la búsqueda binaria resuelve inserciones, bajas y pertenencia
+    private static final class Ids {
+        private long[] valores = new long[1];
+        private int tamanio;
+
+        private int tamanio() {
+            return tamanio;
+        }
+
+        private long get(int indice) {
+            return valores[indice];
+        }
+
+        private boolean vacia() {
+            return tamanio == 0;
+        }
+
+        private boolean contiene(long id) {
+            return Arrays.binarySearch(valores, 0, tamanio, id) >= 0;
+        }
+
+        private void agregar(long id) {
+            int posicion = tamanio > 0 && id > valores[tamanio - 1] ? -(tamanio + 1)
+                : Arrays.binarySearch(valores, 0, tamanio, id);
+            if (posicion >= 0) {
+                return;
+            }
+            posicion = -(posicion + 1);
+            if (tamanio == valores.length) {
+                valores = Arrays.copyOf(valores, tamanio + Math.max(1, tamanio >> 1));
+            }
+            System.arraycopy(valores, posicion, valores, posicion + 1, tamanio - posicion);
+            valores[posicion] = id;
+            tamanio++;
+        }
+
+        private boolean quitar(long id) {
+            int posicion = Arrays.binarySearch(valores, 0, tamanio, id);
+            if (posicion < 0) {
+                return false;
+            }
+            System.arraycopy(valores, posicion + 1, valores, posicion, tamanio - posicion - 1);
+            tamanio--;
+            // Una lista que perdió la mayoría de sus ids devuelve el espacio
+            if (tamanio > 0 && tamanio < valores.length / 4) {
+                valores = Arrays.copyOf(valores, tamanio * 2);
+            }
+            return true;
+        }
+    }
+
+    private static final class Candidato {
+        private final Entrada entrada;
+        private final int rango;
+
+        private Candidato(Entrada entrada, int rango) {
+            this.entrada = entrada;
+            this.rango = rango;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.usuarios.usuario.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Limitador de intentos de login por username y por IP, resuelto en memoria antes de tocar la
+// base de datos. Cada clave es un token bucket expresado como GCRA: un único AtomicLong con el
+// instante teórico de la próxima llegada, actualizado por CAS sin bloqueos. Las claves se
+// reparten en franjas con capacidad acotada; un bucket que ya se rellenó por completo no aporta
+// información y se descarta al barrer la franja.
+@Service
+public class LimitadorLoginService {
+
+    private static final int FRANJAS = 64;
+
+    private final boolean habilitado;
+    private final Limite porUsername;
+    // null si el límite por IP está desactivado (por-minuto = 0)
+    private final Limite porIp;
+    private final int capacidadPorFranja;
+    private final Counter limitadosUsername;
+    private final Counter limitadosIp;
+
+    public LimitadorLoginService(
+            @Value("${usuarios.login-limite.habilitado:true}") boolean habilitado,
+            @Value("${usuarios.login-limite.username.rafaga:5}") int rafagaUsername,
+            @Value("${usuarios.login-limite.username.por-minuto:10}") int porMinutoUsername,
+            @Value("${usuarios.login-limite.ip.rafaga:20}") int rafagaIp,
+            @Value("${usuarios.login-limite.ip.por-minuto:0}") int porMinutoIp,
+            @Value("${usuarios.login-limite.max-claves:100000}") int maxClaves,
+            MeterRegistry meterRegistry) {
+        this.habilitado = habilitado;
+        this.capacidadPorFranja = Math.max(1, maxClaves / FRANJAS);
+        this.porUsername = new Limite(rafagaUsername, porMinutoUsername, capacidadPorFranja);
+        this.porIp = porMinutoIp > 0 ? new Limite(rafagaIp, porMinutoIp, capacidadPorFranja) : null;
+        this.limitadosUsername = meterRegistry.counter("usuarios.login.limitados", "clave", "username");
+        this.limitadosIp = meterRegistry.counter("usuarios.login.limitados", "clave", "ip");
+    }
+
+    // Nanosegundos que el cliente debe esperar; 0 si el intento está permitido
+    public long intentar(String username, String ip) {
+        if (!habilitado) {
+            return 0;
+        }
+        long ahora = System.nanoTime();
+        long esperaIp = ip != null && porIp != null ? porIp.consumir(ip, ahora) : 0;
+        if (esperaIp > 0) {
+            limitadosIp.increment();
+            return esperaIp;
+        }
+        long esperaUsername = username != null ? porUsername.consumir(username, ahora) : 0;
+        if (esperaUsername > 0) {
+            limitadosUsername.increment();
+        }
+        return esperaUsername;
+    }
+
+    public int claves() {
+        return porUsername.tamanio() + (porIp != null ? porIp.tamanio() : 0);
+    }
+
+    private static final class Limite {
+        private final long intervaloNanos;
+        private final long toleranciaNanos;
+        private final int capacidadPorFranja;
+        @SuppressWarnings("unchecked")
+        private final ConcurrentHashMap<String, AtomicLong>[] franjas = new ConcurrentHashMap[FRANJAS];
+
+        private Limite(int rafaga, int porMinuto, int capacidadPorFranja) {
+            this.intervaloNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, porMinuto);
+            this.toleranciaNanos = intervaloNanos * (Math.max(1, rafaga) - 1);
+            this.capacidadPorFranja = capacidadPorFranja;
+            for (int i = 0; i < FRANJAS; i++) {
+                franjas[i] = new ConcurrentHashMap<>();
+            }
+        }
+
+        private long consumir(String clave, long ahora) {
+            ConcurrentHashMap<String, AtomicLong> franja = franjas[(clave.hashCode() & 0x7fffffff) % FRANJAS];
+            AtomicLong llegada = franja.get(clave);
+            if (llegada == null) {
+                if (franja.size() >= capacidadPorFranja) {
+                    franja.values().removeIf(t -> t.get() - ahora <= 0);
+                    if (franja.size() >= capacidadPorFranja) {
+                        // Franja llena de claves activas: no se rastrea esta clave; el límite por IP sigue aplicando
+                        return 0;
+                    }
+                }
+                llegada = franja.computeIfAbsent(clave, c -> new AtomicLong(ahora));
+            }
+
+            while (true) {
+                long actual = llegada.get();
+                long base = actual - ahora > 0 ? actual : ahora;
+                long espera = base - toleranciaNanos - ahora;
+                if (espera > 0) {
+                    return espera;
+                }
+                if (llegada.compareAndSet(actual, base + intervaloNanos)) {
+                    return 0;
+                }
+            }
+        }
+
+        private int tamanio() {
+            int total = 0;
+            for (ConcurrentHashMap<String, AtomicLong> franja : franjas) {
+                total += franja.size();
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.usuarios.usuario.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Caché en memoria de resultados de login, acotada y con expiración.
+// Guarda una huella salteada de la contraseña (nunca la contraseña) y el nombre del rol,
+// y recuerda por poco tiempo los usernames que no existen.
+@Service
+public class LoginCacheService {
+
+    private final ConcurrentHashMap<String, Entrada> entradas = new ConcurrentHashMap<>();
+    private final AtomicLong generacion = new AtomicLong();
+    private final AtomicLong ultimaPurga = new AtomicLong();
+    private final byte[] sal = new byte[16];
+    private final long ttlNanos;
+    private final long ttlNegativoNanos;
+    private final int maxEntradas;
+
+    public LoginCacheService(
+            @Value("${usuarios.login-cache.ttl-segundos:60}") long ttlSegundos,
+            @Value("${usuarios.login-cache.ttl-negativo-segundos:10}") long ttlNegativoSegundos,
+            @Value("${usuarios.login-cache.max-entradas:10000}") int maxEntradas) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSegundos);
+        this.ttlNegativoNanos = TimeUnit.SECONDS.toNanos(ttlNegativoSegundos);
+        this.maxEntradas = maxEntradas;
+        this.ultimaPurga.set(System.nanoTime() - TimeUnit.SECONDS.toNanos(2));
+        new SecureRandom().nextBytes(sal);
+    }
+
+    // Nombre del rol si las credenciales coinciden con una entrada vigente; null en otro caso
+    public String buscarRol(String username, String password) {
+        if (username == null || password == null) {
+            return null;
+        }
+        Entrada entrada = vigente(username);
+        if (entrada == null || entrada.huella == null) {
+            return null;
+        }
+        return MessageDigest.isEqual(entrada.huella, huella(password)) ? entrada.rolNombre : null;
+    }
+
+    public boolean esDesconocido(String username) {
+        if (username == null) {
+            return false;
+        }
+        Entrada entrada = vigente(username);
+        return entrada != null && entrada.huella == null;
+    }
+
+    // Se toma antes de consultar la base de datos; si hubo invalidaciones entre medio
+    // el resultado leído puede estar desactualizado y no se guarda.
+    public long generacion() {
+        return generacion.get();
+    }
+
+    public void registrarExito(String username, String password, String rolNombre, long generacionLeida) {
+        if (username == null || password == null) {
+            return;
+        }
+        guardar(username, new Entrada(huella(password), rolNombre, System.nanoTime() + ttlNanos), generacionLeida);
+    }
+
+    public void registrarDesconocido(String username, long generacionLeida) {
+        if (username == null) {
+            return;
+        }
+        guardar(username, new Entrada(null, null, System.nanoTime() + ttlNegativoNanos), generacionLeida);
+    }
+
+    public void invalidar(String username) {
+        generacion.incrementAndGet();
+        if (username != null) {
+            entradas.remove(username);
+        }
+    }
+
+    public void invalidarPorRol(String rolNombre) {
+        generacion.incrementAndGet();
+        if (rolNombre != null) {
+            entradas.values().removeIf(entrada -> rolNombre.equals(entrada.rolNombre));
+        }
+    }
+
+    public int tamanio() {
+        return entradas.size();
+    }
+
+    private Entrada vigente(String username) {
+        Entrada entrada = entradas.get(username);
+        if (entrada == null) {
+            return null;
+        }
+        if (entrada.expira - System.nanoTime() <= 0) {
+            entradas.remove(username, entrada);
+            return null;
+        }
+        return entrada;
+    }
+
+    private void guardar(String username, Entrada entrada, long generacionLeida) {
+        if (entradas.size() >= maxEntradas && !purgarExpiradas()) {
+            return;
+        }
+        entradas.put(username, entrada);
+        // Una invalidación concurrente pudo ocurrir mientras se leía la base de datos
+        if (generacion.get() != generacionLeida) {
+            entradas.remove(username, entrada);
+        }
+    }
+
+    // Como mucho una purga por segundo; devuelve true si quedó espacio libre
+    private boolean purgarExpiradas() {
+        long ahora = System.nanoTime();
+        long anterior = ultimaPurga.get();
+        if (ahora - anterior > TimeUnit.SECONDS.toNanos(1) && ultimaPurga.compareAndSet(anterior, ahora)) {
+            entradas.values().removeIf(entrada -> entrada.expira - ahora <= 0);
+        }
+        return entradas.size() < maxEntradas;
+    }
+
+    private byte[] huella(String password) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(sal);
+            return digest.digest(password.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private static final class Entrada {
+        private final byte[] huella;
+        private final String rolNombre;
+        private final long expira;
+
+        private Entrada(byte[] huella, String rolNombre, long expira) {
+            this.huella = huella;
+            this.rolNombre = rolNombre;
+            this.expira = expira;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.usuarios.usuario.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+// Hash y verificación de contraseñas con bcrypt en un pool propio del tamaño de los núcleos.
+// Los hilos de las solicitudes solo esperan el resultado: como mucho tantos hashes en paralelo
+// como núcleos, y con la cola llena se rechaza en lugar de degradar a todos los logins.
+// El costo se calibra al arrancar para que un hash tarde cerca de la latencia objetivo.
+@Slf4j
+@Service
+public class PasswordHashService {
+
+    // $2a$, $2b$ o $2y$, costo de dos dígitos y 53 caracteres de sal más hash
+    private static final Pattern BCRYPT = Pattern.compile("^\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}$");
+    private static final int COSTO_MINIMO_BCRYPT = 4;
+    private static final int COSTO_MAXIMO_BCRYPT = 31;
+    private static final String MUESTRA_CALIBRACION = "calibracion-password";
+
+    private final ThreadPoolExecutor ejecutor;
+    private final int hilos;
+    private final boolean calibrar;
+    private final long latenciaObjetivoNanos;
+    private final int costoMaximo;
+    private final Timer tiempoHash;
+    private final Timer tiempoVerificacion;
+
+    private volatile int costo;
+    private volatile BCryptPasswordEncoder encoder;
+
+    public PasswordHashService(
+            @Value("${usuarios.password.hilos:0}") int hilos,
+            @Value("${usuarios.password.cola:256}") int cola,
+            @Value("${usuarios.password.costo:10}") int costo,
+            @Value("${usuarios.password.calibrar:true}") boolean calibrar,
+            @Value("${usuarios.password.latencia-objetivo-ms:100}") long latenciaObjetivoMs,
+            @Value("${usuarios.password.costo-maximo:14}") int costoMaximo,
+            MeterRegistry meterRegistry) {
+        this.hilos = hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors();
+        this.calibrar = calibrar;
+        this.latenciaObjetivoNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, latenciaObjetivoMs));
+        this.costoMaximo = Math.max(COSTO_MINIMO_BCRYPT, Math.min(costoMaximo, COSTO_MAXIMO_BCRYPT));
+        this.costo = Math.max(COSTO_MINIMO_BCRYPT, Math.min(costo, this.costoMaximo));
+        this.encoder = new BCryptPasswordEncoder(this.costo);
+
+        AtomicInteger numero = new AtomicInteger();
+        this.ejecutor = new ThreadPoolExecutor(this.hilos, this.hilos, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, cola)), tarea -> {
+                Thread hilo = new Thread(tarea, "password-hash-" + numero.incrementAndGet());
+                hilo.setDaemon(true);
+                return hilo;
+            });
+
+        this.tiempoHash = Timer.builder("usuarios.password.tiempo")
+            .description("Tiempo de bcrypt en el pool de contraseñas")
+            .tag("operacion", "hash")
+            .register(meterRegistry);
+        this.tiempoVerificacion = Timer.builder("usuarios.password.tiempo")
+            .description("Tiempo de bcrypt en el pool de contraseñas")
+            .tag("operacion", "verificar")
+            .register(meterRegistry);
+        Gauge.builder("usuarios.password.cola", ejecutor, e -> e.getQueue().size())
+            .description("Operaciones de bcrypt esperando un hilo")
+            .register(meterRegistry);
+        Gauge.builder("usuarios.password.costo", this, s -> s.costo)
+            .description("Factor de trabajo de bcrypt en uso")
+            .register(meterRegistry);
+    }
+
+    // El costo configurado es el mínimo; se sube mientras el siguiente nivel siga dentro del objetivo
+    @PostConstruct
+    public void calibrar() {
+        if (!calibrar) {
+            log.info("Costo de bcrypt fijo en {}", costo);
+            return;
+        }
+        int elegido = costo;
+        long nanos = medir(elegido);
+        while (elegido < costoMaximo && nanos * 2 <= latenciaObjetivoNanos) {
+            elegido++;
+            nanos = medir(elegido);
+        }
+        costo = elegido;
+        encoder = new BCryptPasswordEncoder(elegido);
+        log.info("Costo de bcrypt calibrado en {} ({} ms por hash, objetivo {} ms, {} hilos)",
+            elegido, TimeUnit.NANOSECONDS.toMillis(nanos), TimeUnit.NANOSECONDS.toMillis(latenciaObjetivoNanos), hilos);
+    }
+
+    // El mejor de dos intentos: el primero también calienta el JIT
+    private static long medir(int costo) {
+        BCryptPasswordEncoder prueba = new BCryptPasswordEncoder(costo);
+        long mejor = Long.MAX_VALUE;
+        for (int i = 0; i < 2; i++) {
+            long inicio = System.nanoTime();
+            prueba.encode(MUESTRA_CALIBRACION);
+            mejor = Math.min(mejor, System.nanoTime() - inicio);
+        }
+        return mejor;
+    }
+
+    public int getCosto() {
+        return costo;
+    }
+
+    public boolean esHash(String guardado) {
+        return guardado != null && BCRYPT.matcher(guardado).matches();
+    }
+
+    // Filas heredadas en texto plano o con un costo menor al actual se vuelven a cifrar en el próximo login
+    public boolean requiereRehash(String guardado) {
+        if (!esHash(guardado)) {
+            return true;
+        }
+        int indice = guardado.indexOf('$', 1) + 1;
+        return Integer.parseInt(guardado.substring(indice, indice + 2)) < costo;
+    }
+
+    public CompletableFuture<String> hashAsync(String password) {
+        BCryptPasswordEncoder actual = encoder;
+        return enPool(() -> actual.encode(password), tiempoHash);
+    }
+
+    // Compara contra una fila bcrypt en el pool; las filas heredadas en texto plano se comparan
+    // en tiempo constante sin pasar por el pool
+    public CompletableFuture<Boolean> verificar(String password, String guardado) {
+        if (password == null || guardado == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        if (!esHash(guardado)) {
+            return CompletableFuture.completedFuture(MessageDigest.isEqual(
+                password.getBytes(StandardCharsets.UTF_8), guardado.getBytes(StandardCharsets.UTF_8)));
+        }
+        BCryptPasswordEncoder actual = encoder;
+        return enPool(() -> actual.matches(password, guardado), tiempoVerificacion);
+    }
+
+    public String hash(String password) {
+        return esperar(hashAsync(password));
+    }
+
+    // Para altas masivas: se envían como mucho tantos hashes como hilos, así una solicitud
+    // grande no llena la cola que comparten los logins
+    public List<String> hashTodos(List<String> passwords) {
+        List<String> resultado = new ArrayList<>(passwords.size());
+        for (int desde = 0; desde < passwords.size(); desde += hilos) {
+            List<CompletableFuture<String>> bloque = new ArrayList<>(hilos);
+            for (String password : passwords.subList(desde, Math.min(desde + hilos, passwords.size()))) {
+                bloque.add(hashAsync(password));
+            }
+            for (CompletableFuture<String> hash : bloque) {
+                resultado.add(esperar(hash));
+            }
+        }
+        return resultado;
+    }
+
+    // Desenvuelve el resultado; el rechazo por saturación llega como el resto de errores de negocio
+    public static <T> T esperar(CompletableFuture<T> futuro) {
+        try {
+            return futuro.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                throw new RuntimeException("Servicio de contraseñas saturado, intente más tarde");
+            }
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    private <T> CompletableFuture<T> enPool(Supplier<T> operacion, Timer tiempo) {
+        try {
+            return CompletableFuture.supplyAsync(() -> tiempo.record(operacion), ejecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        ejecutor.shutdown();
+    }
+}
@@ -0,0 +1,219 @@
+package com.usuarios.usuario.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.usuarios.usuario.models.Rol;
+import com.usuarios.usuario.repository.RolRepository;
+import com.usuarios.usuario.repository.UsuarioRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Motor de permisos en memoria: cada permiso distinto recibe un id entero denso y cada rol
+// se compila a un bitset inmutable, así una verificación (usuario, permiso) son dos búsquedas
+// en mapas y una operación de bits. Los cambios se aplican al confirmarse la transacción.
+@Service
+public class PermisoEngine {
+
+    @Autowired
+    private RolRepository rolRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    private final ConcurrentHashMap<String, Integer> idsPermiso = new ConcurrentHashMap<>();
+    private final AtomicInteger siguienteIdPermiso = new AtomicInteger();
+    private final ConcurrentHashMap<Long, PermisosCompilados> permisosPorRol = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> rolPorUsername = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, String> usernamePorId = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> idPorUsername = new ConcurrentHashMap<>();
+    private volatile boolean cargado;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void cargar() {
+        for (Rol rol : rolRepository.findAll()) {
+            permisosPorRol.put(rol.getId(), compilar(rol.getNombre(), rol.getPermisos()));
+        }
+        for (Object[] fila : usuarioRepository.findIdsUsernamesYRoles()) {
+            registrarUsuario((Long) fila[0], (String) fila[1], (Long) fila[2]);
+        }
+        cargado = true;
+    }
+
+    public boolean estaCargado() {
+        return cargado;
+    }
+
+    public boolean autorizado(String username, String permiso) {
+        if (username == null || permiso == null) {
+            return false;
+        }
+        Long rolId = rolPorUsername.get(username);
+        Integer idPermiso = idsPermiso.get(permiso);
+        if (rolId == null || idPermiso == null) {
+            return false;
+        }
+        PermisosCompilados permisos = permisosPorRol.get(rolId);
+        return permisos != null && permisos.contiene(idPermiso);
+    }
+
+    public void compilarRol(Rol rol) {
+        Long rolId = rol.getId();
+        String nombre = rol.getNombre();
+        // Se copia ahora: después del commit la colección puede estar desconectada de la sesión
+        List<String> permisos = rol.getPermisos() != null ? new ArrayList<>(rol.getPermisos()) : List.of();
+        Transacciones.alConfirmar(() -> permisosPorRol.put(rolId, compilar(nombre, permisos)));
+    }
+
+    public void eliminarRol(Long rolId) {
+        Transacciones.alConfirmar(() -> permisosPorRol.remove(rolId));
+    }
+
+    public void asignarUsuario(Long usuarioId, String username, Long rolId) {
+        Transacciones.alConfirmar(() -> registrarUsuario(usuarioId, username, rolId));
+    }
+
+    public void reasignarUsuarios(List<Long> usuarioIds, Long rolId) {
+        List<Long> ids = new ArrayList<>(usuarioIds);
+        Transacciones.alConfirmar(() -> {
+            for (Long usuarioId : ids) {
+                String username = usernamePorId.get(usuarioId);
+                if (username != null) {
+                    registrarUsuario(usuarioId, username, rolId);
+                }
+            }
+        });
+    }
+
+    public void eliminarUsuario(Long usuarioId) {
+        Transacciones.alConfirmar(() -> quitarUsuario(usuarioId));
+    }
+
+    // Id, rol y nombres de permisos del usuario tal como los conoce el motor; null si no lo conoce.
+    // Es lo que se firma en los tokens de acceso
+    public PerfilUsuario perfil(String username) {
+        if (username == null) {
+            return null;
+        }
+        Long usuarioId = idPorUsername.get(username);
+        Long rolId = rolPorUsername.get(username);
+        PermisosCompilados permisos = rolId != null ? permisosPorRol.get(rolId) : null;
+        if (usuarioId == null || permisos == null) {
+            return null;
+        }
+        return new PerfilUsuario(usuarioId, username, permisos.rol, permisos.nombres);
+    }
+
+    public int cantidadPermisos() {
+        return idsPermiso.size();
+    }
+
+    // Las escrituras son poco frecuentes; se serializan para mantener ambos mapas coherentes
+    private synchronized void registrarUsuario(Long usuarioId, String username, Long rolId) {
+        if (usuarioId == null || username == null || rolId == null) {
+            return;
+        }
+        String anterior = usernamePorId.put(usuarioId, username);
+        if (anterior != null && !anterior.equals(username)) {
+            rolPorUsername.remove(anterior);
+            idPorUsername.remove(anterior);
+        }
+        rolPorUsername.put(username, rolId);
+        idPorUsername.put(username, usuarioId);
+    }
+
+    private synchronized void quitarUsuario(Long usuarioId) {
+        if (usuarioId == null) {
+            return;
+        }
+        String username = usernamePorId.remove(usuarioId);
+        if (username != null) {
+            rolPorUsername.remove(username);
+            idPorUsername.remove(username);
+        }
+    }
+
+    private PermisosCompilados compilar(String rol, Collection<String> permisos) {
+        List<Integer> ids = new ArrayList<>();
+        TreeSet<String> nombres = new TreeSet<>();
+        if (permisos != null) {
+            for (String permiso : permisos) {
+                if (permiso != null) {
+                    ids.add(idsPermiso.computeIfAbsent(permiso, p -> siguienteIdPermiso.getAndIncrement()));
+                    nombres.add(permiso);
+                }
+            }
+        }
+        return PermisosCompilados.de(rol, List.copyOf(nombres), ids);
+    }
+
+    // Inmutable; los nombres ordenados acompañan al bitset para exportar el rol fuera del proceso,
+    // donde los ids enteros no significan nada
+    public static final class PerfilUsuario {
+        private final Long usuarioId;
+        private final String username;
+        private final String rol;
+        private final List<String> permisos;
+
+        PerfilUsuario(Long usuarioId, String username, String rol, List<String> permisos) {
+            this.usuarioId = usuarioId;
+            this.username = username;
+            this.rol = rol;
+            this.permisos = permisos;
+        }
+
+        public Long getUsuarioId() {
+            return usuarioId;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getRol() {
+            return rol;
+        }
+
+        public List<String> getPermisos() {
+            return permisos;
+        }
+    }
+
+    private static final class PermisosCompilados {
+        private final long[] palabras;
+        private final String rol;
+        private final List<String> nombres;
+
+        private PermisosCompilados(long[] palabras, String rol, List<String> nombres) {
+            this.palabras = palabras;
+            this.rol = rol;
+            this.nombres = nombres;
+        }
+
+        private static PermisosCompilados de(String rol, List<String> nombres, List<Integer> ids) {
+            int maximo = -1;
+            for (int id : ids) {
+                maximo = Math.max(maximo, id);
+            }
+            long[] palabras = new long[(maximo >> 6) + 1];
+            for (int id : ids) {
+                palabras[id >> 6] |= 1L << id;
+            }
+            return new PermisosCompilados(palabras, rol, nombres);
+        }
+
+        private boolean contiene(int id) {
+            int palabra = id >> 6;
+            return palabra < palabras.length && (palabras[palabra] & (1L << id)) != 0;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.usuarios.usuario.services;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.usuarios.usuario.dto.ReasignacionDTO;
+import com.usuarios.usuario.models.Rol;
+import com.usuarios.usuario.repository.RolRepository;
+import com.usuarios.usuario.repository.UsuarioRepository;
+import com.usuarios.usuario.services.AuditoriaService.Operacion;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Reasignación de todos los usuarios de un rol a otro en segundo plano. Cada bloque es una
+// transacción corta con un único UPDATE por conjunto de ids, así no se retienen bloqueos sobre
+// toda la tabla ni se cargan entidades. Opcionalmente elimina el rol origen al terminar.
+@Slf4j
+@Service
+public class ReasignacionRolService {
+
+    public enum Estado { PENDIENTE, EN_CURSO, COMPLETADA, FALLIDA }
+
+    // Oracle no admite más de 1000 expresiones en una lista IN
+    private static final int MAX_TAMANIO_BLOQUE = 1000;
+    private static final Duration RETENCION = Duration.ofHours(1);
+
+    private final UsuarioRepository usuarioRepository;
+    private final RolRepository rolRepository;
+    private final RolService rolService;
+    private final PermisoEngine permisoEngine;
+    private final LoginCacheService loginCacheService;
+    private final AuditoriaService auditoriaService;
+    private final TransactionTemplate transaccion;
+    private final int tamanioBloque;
+
+    private final ExecutorService ejecutor = Executors.newSingleThreadExecutor(tarea -> {
+        Thread hilo = new Thread(tarea, "reasignacion-roles");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+    private final Map<String, Trabajo> trabajos = new ConcurrentHashMap<>();
+    private final Set<Long> origenesEnCurso = ConcurrentHashMap.newKeySet();
+
+    public ReasignacionRolService(
+            UsuarioRepository usuarioRepository,
+            RolRepository rolRepository,
+            RolService rolService,
+            PermisoEngine permisoEngine,
+            LoginCacheService loginCacheService,
+            AuditoriaService auditoriaService,
+            PlatformTransactionManager transactionManager,
+            @Value("${usuarios.reasignacion.tamanio-bloque:1000}") int tamanioBloque) {
+        this.usuarioRepository = usuarioRepository;
+        this.rolRepository = rolRepository;
+        this.rolService = rolService;
+        this.permisoEngine = permisoEngine;
+        this.loginCacheService = loginCacheService;
+        this.auditoriaService = auditoriaService;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.tamanioBloque = Math.max(1, Math.min(tamanioBloque, MAX_TAMANIO_BLOQUE));
+    }
+
+    public ReasignacionDTO iniciar(Long origenId, Long destinoId, boolean eliminarOrigen) {
+        if (origenId.equals(destinoId)) {
+            throw new RuntimeException("El rol destino debe ser distinto del origen");
+        }
+        Rol origen = rolRepository.findById(origenId)
+            .orElseThrow(() -> new RuntimeException("Rol origen no encontrado"));
+        if (!rolRepository.existsById(destinoId)) {
+            throw new RuntimeException("Rol destino no encontrado");
+        }
+        if (!origenesEnCurso.add(origenId)) {
+            throw new RuntimeException("Ya hay una reasignación en curso para ese rol");
+        }
+
+        Instant ahora = Instant.now();
+        trabajos.values().removeIf(t -> t.fin != null && t.fin.isBefore(ahora.minus(RETENCION)));
+
+        Trabajo trabajo = new Trabajo(UUID.randomUUID().toString(), origenId, origen.getNombre(), destinoId,
+            eliminarOrigen, ahora);
+        trabajo.total = usuarioRepository.countPorRol(origen);
+        trabajos.put(trabajo.id, trabajo);
+        try {
+            ejecutor.execute(() -> ejecutar(trabajo));
+        } catch (RuntimeException e) {
+            origenesEnCurso.remove(origenId);
+            trabajos.remove(trabajo.id);
+            throw e;
+        }
+        return trabajo.aDTO();
+    }
+
+    public ReasignacionDTO obtener(String id) {
+        Trabajo trabajo = trabajos.get(id);
+        return trabajo != null ? trabajo.aDTO() : null;
+    }
+
+    @PreDestroy
+    void detener() throws InterruptedException {
+        ejecutor.shutdownNow();
+        ejecutor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    private void ejecutar(Trabajo trabajo) {
+        trabajo.estado = Estado.EN_CURSO;
+        try {
+            int actualizados;
+            do {
+                actualizados = procesarBloque(trabajo);
+                if (actualizados > 0) {
+                    // Las entradas de login guardan el nombre del rol anterior
+                    loginCacheService.invalidarPorRol(trabajo.origenNombre);
+                }
+            } while (actualizados >= 0 && !Thread.currentThread().isInterrupted());
+
+            auditoriaService.registrar("Rol", trabajo.origenId, Operacion.ACTUALIZAR,
+                "Reasignados " + trabajo.procesados + " usuarios al rol " + trabajo.destinoId);
+            if (trabajo.eliminarOrigen && !Thread.currentThread().isInterrupted()) {
+                rolService.eliminarRol(trabajo.origenId);
+                auditoriaService.registrar("Rol", trabajo.origenId, Operacion.ELIMINAR, null);
+            }
+            trabajo.estado = Thread.currentThread().isInterrupted() ? Estado.FALLIDA : Estado.COMPLETADA;
+            trabajo.mensaje = trabajo.estado == Estado.COMPLETADA
+                ? "Reasignación completada" : "Reasignación interrumpida";
+        } catch (RuntimeException e) {
+            log.error("Error en la reasignación del rol {}", trabajo.origenId, e);
+            trabajo.estado = Estado.FALLIDA;
+            trabajo.mensaje = e.getMessage();
+        } finally {
+            trabajo.fin = Instant.now();
+            origenesEnCurso.remove(trabajo.origenId);
+        }
+    }
+
+    // Devuelve las filas actualizadas, o -1 cuando ya no quedan usuarios con el rol origen
+    private int procesarBloque(Trabajo trabajo) {
+        Integer resultado = transaccion.execute(estado -> {
+            Rol origen = rolRepository.getReferenceById(trabajo.origenId);
+            Rol destino = rolRepository.getReferenceById(trabajo.destinoId);
+            List<Long> ids = usuarioRepository.findIdsPorRol(origen, PageRequest.of(0, tamanioBloque));
+            if (ids.isEmpty()) {
+                return -1;
+            }
+            int actualizados = usuarioRepository.reasignarRol(origen, destino, ids);
+            permisoEngine.reasignarUsuarios(ids, trabajo.destinoId);
+            return actualizados;
+        });
+        if (resultado > 0) {
+            trabajo.procesados += resultado;
+            trabajo.bloques++;
+        }
+        return resultado;
+    }
+
+    private static final class Trabajo {
+        private final String id;
+        private final Long origenId;
+        private final String origenNombre;
+        private final Long destinoId;
+        private final boolean eliminarOrigen;
+        private final Instant inicio;
+        private volatile Estado estado = Estado.PENDIENTE;
+        private volatile long total;
+        private volatile long procesados;
+        private volatile int bloques;
+        private volatile String mensaje;
+        private volatile Instant fin;
+
+        private Trabajo(String id, Long origenId, String origenNombre, Long destinoId, boolean eliminarOrigen,
+                        Instant inicio) {
+            this.id = id;
+            this.origenId = origenId;
+            this.origenNombre = origenNombre;
+            this.destinoId = destinoId;
+            this.eliminarOrigen = eliminarOrigen;
+            this.inicio = inicio;
+        }
+
+        private ReasignacionDTO aDTO() {
+            return new ReasignacionDTO(id, origenId, destinoId, eliminarOrigen, estado.name(), total, procesados,
+                bloques, mensaje, inicio, fin);
+        }
+    }
+}
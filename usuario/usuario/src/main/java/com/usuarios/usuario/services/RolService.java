@@ -2,8 +2,12 @@ package com.usuarios.usuario.services;
 
 import com.usuarios.usuario.models.Rol;
 import com.usuarios.usuario.repository.RolRepository;
+import com.usuarios.usuario.dto.PaginaDTO;
 import com.usuarios.usuario.dto.RolDTO;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
@@ -15,6 +19,15 @@ public class RolService {
     @Autowired
     private RolRepository rolRepository;
 
+    @Autowired
+    private LoginCacheService loginCacheService;
+
+    @Autowired
+    private PermisoEngine permisoEngine;
+
+    @Autowired
+    private CatalogoRolesService catalogoRolesService;
+
     public Rol crearRol(RolDTO rolDTO) {
         // Validar que el nombre del rol no exista
         if (rolRepository.findByNombre(rolDTO.getNombre()) != null) {
@@ -31,25 +44,83 @@ public class RolService {
         nuevoRol.setNombre(rolDTO.getNombre().toUpperCase());
         nuevoRol.setPermisos(rolDTO.getPermisos());
 
-        return rolRepository.save(nuevoRol);
+        Rol rolCreado = rolRepository.save(nuevoRol);
+        permisoEngine.compilarRol(rolCreado);
+        catalogoRolesService.invalidar();
+        return rolCreado;
     }
 
+    // Las lecturas son de solo lectura: Hibernate no guarda snapshots ni hace dirty checking
+    @Transactional(readOnly = true)
     public List<Rol> obtenerTodosLosRoles() {
         return rolRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public PaginaDTO<Rol> obtenerPaginaRoles(String after, Integer limit, boolean incluirTotal) {
+        int limite = PaginaDTO.normalizarLimite(limit);
+        long desde = PaginaDTO.decodificarCursor(after);
+
+        List<Rol> filas = rolRepository.findByIdGreaterThanOrderByIdAsc(desde, PageRequest.of(0, limite + 1));
+        // Con @BatchSize la primera inicialización trae los permisos de toda la página
+        for (Rol rol : filas) {
+            Hibernate.initialize(rol.getPermisos());
+        }
+        Long total = incluirTotal ? rolRepository.count() : null;
+
+        return PaginaDTO.desdeFilas(filas, limite, Rol::getId, total);
+    }
+
+    @Transactional(readOnly = true)
     public Rol obtenerRolPorId(Long id) {
         return rolRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Rol no encontrado"));
     }
 
+    // Huella del listado para el ETag; CatalogoRolesService la calcula igual sobre su primera página.
+    // Cambiar el nombre o los permisos incrementa la versión del rol
+    public static String huella(PaginaDTO<Rol> pagina) {
+        return pagina.huella(rol -> rol.getId() + ":" + rol.getVersion());
+    }
+
+    // Misma huella que la página completa, leyendo solo ids y versiones (y el total si se pide)
+    @Transactional(readOnly = true)
+    public String obtenerHuellaPagina(String after, Integer limit, boolean incluirTotal) {
+        int limite = PaginaDTO.normalizarLimite(limit);
+        long desde = PaginaDTO.decodificarCursor(after);
+
+        List<Object[]> filas = rolRepository.findVersionesPagina(desde, PageRequest.of(0, limite + 1));
+        Long total = incluirTotal ? rolRepository.count() : null;
+
+        return PaginaDTO.desdeFilas(filas, limite, fila -> (Long) fila[0], total)
+            .huella(fila -> fila[0] + ":" + fila[1]);
+    }
+
+    // Versión actual del rol sin cargarlo, o null si no existe
+    @Transactional(readOnly = true)
+    public Long obtenerVersion(Long id) {
+        return rolRepository.findVersionById(id);
+    }
+
     public void eliminarRol(Long id) {
         Rol rol = obtenerRolPorId(id);
         rolRepository.delete(rol);
+        String nombre = rol.getNombre();
+        Transacciones.alConfirmar(() -> loginCacheService.invalidarPorRol(nombre));
+        permisoEngine.eliminarRol(rol.getId());
+        catalogoRolesService.invalidar();
     }
 
     public Rol actualizarRol(Long id, RolDTO rolDTO) {
+        return actualizarRol(id, rolDTO, null);
+    }
+
+    // La versión esperada llega del If-Match; Hibernate la vuelve a comprobar en el UPDATE
+    public Rol actualizarRol(Long id, RolDTO rolDTO, Long versionEsperada) {
         Rol rolExistente = obtenerRolPorId(id);
+        if (versionEsperada != null && !versionEsperada.equals(rolExistente.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Rol.class, id);
+        }
 
         // Verificar si el nuevo nombre ya existe en otro rol
         Rol rolConNombre = rolRepository.findByNombre(rolDTO.getNombre());
@@ -57,9 +128,16 @@ public class RolService {
             throw new RuntimeException("Ya existe otro rol con ese nombre");
         }
 
+        String nombreAnterior = rolExistente.getNombre();
         rolExistente.setNombre(rolDTO.getNombre().toUpperCase());
         rolExistente.setPermisos(rolDTO.getPermisos());
 
-        return rolRepository.save(rolExistente);
+        Rol rolActualizado = rolRepository.save(rolExistente);
+        // Las entradas de login guardan el nombre del rol anterior. Tras el commit, como el resto: antes,
+        // un login concurrente podría volver a guardar los datos previos con la generación ya incrementada
+        Transacciones.alConfirmar(() -> loginCacheService.invalidarPorRol(nombreAnterior));
+        permisoEngine.compilarRol(rolActualizado);
+        catalogoRolesService.invalidar();
+        return rolActualizado;
     }
 }
@@ -0,0 +1,73 @@
+package com.usuarios.usuario.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.usuarios.usuario.services.PermisoEngine.PerfilUsuario;
+import com.usuarios.usuario.tokens.ArchivoClaves;
+import com.usuarios.usuario.tokens.ConjuntoClaves;
+import com.usuarios.usuario.tokens.Token;
+import com.usuarios.usuario.tokens.TokenEmisor;
+import com.usuarios.usuario.tokens.TokenVerificador;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+// Tokens de acceso firmados con HMAC para que otros servicios autoricen sin llamar a login.
+// Las claves salen de un archivo que se relee al cambiar: rotar es agregar la clave nueva,
+// marcarla activa y retirar la anterior cuando hayan expirado sus tokens. Sin archivo se usa
+// una clave aleatoria que solo sirve para esta instancia.
+@Slf4j
+@Service
+public class TokenService {
+
+    private final PermisoEngine permisoEngine;
+    private final TokenEmisor emisor;
+    private final TokenVerificador verificador;
+
+    public TokenService(
+            PermisoEngine permisoEngine,
+            ObjectMapper objectMapper,
+            @Value("${usuarios.tokens.archivo-claves:}") String archivoClaves,
+            @Value("${usuarios.tokens.emisor:usuario}") String emisor,
+            @Value("${usuarios.tokens.ttl-segundos:300}") long ttlSegundos,
+            @Value("${usuarios.tokens.tolerancia-segundos:30}") long toleranciaSegundos,
+            @Value("${usuarios.tokens.revision-claves-segundos:10}") long revisionSegundos) {
+        this.permisoEngine = permisoEngine;
+        Supplier<ConjuntoClaves> claves;
+        if (archivoClaves == null || archivoClaves.isBlank()) {
+            ConjuntoClaves efimera = ConjuntoClaves.efimera();
+            claves = () -> efimera;
+            log.warn("usuarios.tokens.archivo-claves no está configurado: los tokens se firman con una clave "
+                + "aleatoria que no comparten otras instancias ni sobrevive a un reinicio");
+        } else {
+            claves = new ArchivoClaves(Path.of(archivoClaves), Duration.ofSeconds(Math.max(1, revisionSegundos)));
+        }
+        Clock reloj = Clock.systemUTC();
+        this.emisor = new TokenEmisor(claves, objectMapper, emisor, Duration.ofSeconds(Math.max(1, ttlSegundos)), reloj);
+        this.verificador = new TokenVerificador(claves, objectMapper, emisor,
+            Duration.ofSeconds(Math.max(0, toleranciaSegundos)), reloj);
+    }
+
+    // null si el motor de permisos aún no conoce al usuario: el login responde sin token
+    public String emitir(String username) {
+        PerfilUsuario perfil = permisoEngine.perfil(username);
+        if (perfil == null) {
+            return null;
+        }
+        Token token = emisor.emitir(perfil.getUsuarioId(), perfil.getUsername(), perfil.getRol(), perfil.getPermisos());
+        return emisor.firmar(token);
+    }
+
+    public long getTtlSegundos() {
+        return emisor.getDuracion().getSeconds();
+    }
+
+    // Lanza TokenInvalidoException con el motivo
+    public Token verificar(String token) {
+        return verificador.verificar(token);
+    }
+}
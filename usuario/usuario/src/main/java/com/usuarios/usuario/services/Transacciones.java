@@ -0,0 +1,24 @@
+package com.usuarios.usuario.services;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Estructuras en memoria que reflejan la base de datos se actualizan solo si la transacción confirma
+final class Transacciones {
+
+    private Transacciones() {
+    }
+
+    static void alConfirmar(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+}
@@ -1,14 +1,42 @@
 package com.usuarios.usuario.services;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.usuarios.usuario.dto.PaginaDTO;
+import com.usuarios.usuario.dto.ResultadoBusquedaDTO;
+import com.usuarios.usuario.dto.ResultadoMasivoDTO;
 import com.usuarios.usuario.dto.UsuarioDTO;
+import com.usuarios.usuario.dto.UsuarioResumenDTO;
 import com.usuarios.usuario.models.Rol;
 import com.usuarios.usuario.models.Usuario;
 import com.usuarios.usuario.repository.RolRepository;
 import com.usuarios.usuario.repository.UsuarioRepository;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 public class UsuarioService {
@@ -18,49 +46,446 @@ public class UsuarioService {
     
     @Autowired
     private RolRepository rolRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PermisoEngine permisoEngine;
+
+    @Autowired
+    private FiltroUnicidadService filtroUnicidadService;
+
+    @Autowired
+    private IndiceBusquedaService indiceBusquedaService;
+
+    @Autowired
+    private PasswordHashService passwordHashService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Cada cuántas filas exportadas se vacía el contexto de persistencia
+    @Value("${usuarios.export.limpiar-cada:1000}")
+    private int limpiarCada = 1000;
+
+    // Debe coincidir con hibernate.jdbc.batch_size para que cada flush sea un lote JDBC
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int tamanioLote = 50;
+
+    // Oracle no admite más de 1000 expresiones en una lista IN
+    private static final int MAX_PARAMETROS_IN = 1000;
     
     public Usuario crearUsuario(UsuarioDTO usuarioDTO) {
-        // Validar que el username no exista
-        if (usuarioRepository.findByUsername(usuarioDTO.getUsername()) != null) {
-            throw new RuntimeException("El username ya está en uso");
+        // Validar que el username no exista; el filtro de Bloom evita la consulta para usernames nuevos
+        if (!filtroUnicidadService.usernameDefinitivamenteAusente(usuarioDTO.getUsername())) {
+            boolean usernameEnUso = usuarioRepository.findByUsername(usuarioDTO.getUsername()) != null;
+            filtroUnicidadService.registrarVerificacionUsername(usernameEnUso);
+            if (usernameEnUso) {
+                throw new RuntimeException("El username ya está en uso");
+            }
         }
         
         // Validar que el nombreCompleto no esté vacío
         if (usuarioDTO.getNombreCompleto() == null || usuarioDTO.getNombreCompleto().trim().isEmpty()) {
             throw new RuntimeException("El nombre completo es requerido");
         }
+
+        if (!filtroUnicidadService.nombreDefinitivamenteAusente(usuarioDTO.getNombreCompleto())) {
+            boolean nombreEnUso = usuarioRepository.existsByNombreCompleto(usuarioDTO.getNombreCompleto());
+            filtroUnicidadService.registrarVerificacionNombre(nombreEnUso);
+            if (nombreEnUso) {
+                throw new RuntimeException("El nombre completo ya está en uso");
+            }
+        }
         
         // Validar y obtener el rol
         Rol rol = rolRepository.findById(usuarioDTO.getRolId())
             .orElseThrow(() -> new RuntimeException("Rol no encontrado"));
             
-        // Crear nuevo usuario
+        // Crear nuevo usuario; la contraseña se guarda solo como hash bcrypt
+        String hash = passwordHashService.hash(usuarioDTO.getPassword());
         Usuario nuevoUsuario = new Usuario();
         
         try {
             nuevoUsuario.setUsername(usuarioDTO.getUsername());
             nuevoUsuario.setNombreCompleto(usuarioDTO.getNombreCompleto());
-            nuevoUsuario.setPassword(usuarioDTO.getPassword());
+            nuevoUsuario.setPassword(hash);
             nuevoUsuario.setRol(rol);
             
-            return usuarioRepository.save(nuevoUsuario);
+            Usuario usuarioGuardado = usuarioRepository.save(nuevoUsuario);
+            permisoEngine.asignarUsuario(usuarioGuardado.getId(), usuarioGuardado.getUsername(), rol.getId());
+            filtroUnicidadService.agregar(usuarioGuardado.getUsername(), usuarioGuardado.getNombreCompleto());
+            indiceBusquedaService.indexar(usuarioGuardado.getId(), usuarioGuardado.getUsername(),
+                usuarioGuardado.getNombreCompleto());
+            return usuarioGuardado;
+        } catch (DataIntegrityViolationException e) {
+            // Otro alta concurrente ganó la carrera después de la verificación
+            throw new RuntimeException("El username o el nombre completo ya está en uso");
         } catch (Exception e) {
             throw new RuntimeException("Error al guardar el usuario: " + e.getMessage());
         }
     }
+
+    // Sin transacción envolvente: las consultas previas toman y devuelven su conexión, bcrypt corre
+    // sin ninguna y solo la inserción en lotes ocupa una conexión durante su transacción
+    public List<ResultadoMasivoDTO> crearUsuariosMasivo(List<UsuarioDTO> usuariosDTO) {
+        ResultadoMasivoDTO[] resultados = new ResultadoMasivoDTO[usuariosDTO.size()];
+        List<Integer> candidatos = new ArrayList<>();
+        Set<String> usernamesLote = new HashSet<>();
+        Set<String> nombresLote = new HashSet<>();
+
+        // Validaciones por fila y duplicados dentro de la misma solicitud
+        for (int i = 0; i < usuariosDTO.size(); i++) {
+            UsuarioDTO dto = usuariosDTO.get(i);
+            String error = validarFilaMasiva(dto);
+            if (error == null && !usernamesLote.add(dto.getUsername())) {
+                error = "Username duplicado en la solicitud";
+            }
+            if (error == null && !nombresLote.add(dto.getNombreCompleto())) {
+                error = "Nombre completo duplicado en la solicitud";
+            }
+            if (error != null) {
+                resultados[i] = fallo(i, dto, error);
+            } else {
+                candidatos.add(i);
+            }
+        }
+
+        // Solo se consultan las filas que alguno de los filtros de Bloom no descarta
+        boolean[] usernamePosible = new boolean[usuariosDTO.size()];
+        boolean[] nombrePosible = new boolean[usuariosDTO.size()];
+        List<Integer> porVerificar = new ArrayList<>();
+        for (int i : candidatos) {
+            UsuarioDTO dto = usuariosDTO.get(i);
+            usernamePosible[i] = !filtroUnicidadService.usernameDefinitivamenteAusente(dto.getUsername());
+            nombrePosible[i] = !filtroUnicidadService.nombreDefinitivamenteAusente(dto.getNombreCompleto());
+            if (usernamePosible[i] || nombrePosible[i]) {
+                porVerificar.add(i);
+            }
+        }
+
+        // Una consulta por bloque para todos los usernames y nombres ya registrados
+        Set<String> usernamesExistentes = new HashSet<>();
+        Set<String> nombresExistentes = new HashSet<>();
+        for (int desde = 0; desde < porVerificar.size(); desde += MAX_PARAMETROS_IN) {
+            List<Integer> bloque = porVerificar.subList(desde, Math.min(desde + MAX_PARAMETROS_IN, porVerificar.size()));
+            List<String> usernames = new ArrayList<>(bloque.size());
+            List<String> nombres = new ArrayList<>(bloque.size());
+            for (int i : bloque) {
+                usernames.add(usuariosDTO.get(i).getUsername());
+                nombres.add(usuariosDTO.get(i).getNombreCompleto());
+            }
+            for (Object[] fila : usuarioRepository.findExistentes(usernames, nombres)) {
+                usernamesExistentes.add((String) fila[0]);
+                nombresExistentes.add((String) fila[1]);
+            }
+        }
+        for (int i : porVerificar) {
+            UsuarioDTO dto = usuariosDTO.get(i);
+            if (usernamePosible[i]) {
+                filtroUnicidadService.registrarVerificacionUsername(usernamesExistentes.contains(dto.getUsername()));
+            }
+            if (nombrePosible[i]) {
+                filtroUnicidadService.registrarVerificacionNombre(nombresExistentes.contains(dto.getNombreCompleto()));
+            }
+        }
+
+        // Todos los roles referenciados de una sola vez
+        Set<Long> rolIds = new HashSet<>();
+        for (int i : candidatos) {
+            rolIds.add(usuariosDTO.get(i).getRolId());
+        }
+        Set<Long> rolesExistentes = new HashSet<>();
+        for (Rol rol : rolRepository.findAllById(rolIds)) {
+            rolesExistentes.add(rol.getId());
+        }
+
+        List<Integer> indicesNuevos = new ArrayList<>();
+        List<String> passwords = new ArrayList<>();
+        for (int i : candidatos) {
+            UsuarioDTO dto = usuariosDTO.get(i);
+            if (usernamesExistentes.contains(dto.getUsername())) {
+                resultados[i] = fallo(i, dto, "El username ya está en uso");
+            } else if (nombresExistentes.contains(dto.getNombreCompleto())) {
+                resultados[i] = fallo(i, dto, "El nombre completo ya está en uso");
+            } else if (!rolesExistentes.contains(dto.getRolId())) {
+                resultados[i] = fallo(i, dto, "Rol no encontrado");
+            } else {
+                indicesNuevos.add(i);
+                passwords.add(dto.getPassword());
+            }
+        }
+        // Solo se cifran las filas que se van a insertar, antes de abrir la transacción: con miles de
+        // filas bcrypt tarda decenas de segundos y no debe retener una conexión del pool
+        List<String> hashes = passwordHashService.hashTodos(passwords);
+
+        List<Usuario> nuevos = transactionTemplate.execute(estado -> insertarLotes(usuariosDTO, indicesNuevos, hashes));
+
+        // Tras el commit: las estructuras en memoria solo ven filas confirmadas
+        for (int j = 0; j < nuevos.size(); j++) {
+            int i = indicesNuevos.get(j);
+            Usuario creado = nuevos.get(j);
+            resultados[i] = new ResultadoMasivoDTO(i, creado.getUsername(), true, "Usuario creado", creado.getId());
+            permisoEngine.asignarUsuario(creado.getId(), creado.getUsername(), usuariosDTO.get(i).getRolId());
+            filtroUnicidadService.agregar(creado.getUsername(), creado.getNombreCompleto());
+            indiceBusquedaService.indexar(creado.getId(), creado.getUsername(), creado.getNombreCompleto());
+        }
+        return Arrays.asList(resultados);
+    }
+
+    // Inserción en lotes: cada flush envía un batch JDBC y se vacía el contexto. Los roles ya se
+    // validaron; basta una referencia sin consulta
+    private List<Usuario> insertarLotes(List<UsuarioDTO> usuariosDTO, List<Integer> indicesNuevos, List<String> hashes) {
+        List<Usuario> nuevos = new ArrayList<>(indicesNuevos.size());
+        for (int j = 0; j < indicesNuevos.size(); j++) {
+            UsuarioDTO dto = usuariosDTO.get(indicesNuevos.get(j));
+            Usuario nuevoUsuario = new Usuario();
+            nuevoUsuario.setUsername(dto.getUsername());
+            nuevoUsuario.setNombreCompleto(dto.getNombreCompleto());
+            nuevoUsuario.setPassword(hashes.get(j));
+            nuevoUsuario.setRol(entityManager.getReference(Rol.class, dto.getRolId()));
+            nuevos.add(usuarioRepository.save(nuevoUsuario));
+
+            if ((j + 1) % tamanioLote == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        return nuevos;
+    }
+
+    private String validarFilaMasiva(UsuarioDTO dto) {
+        if (dto == null) {
+            return "Fila vacía";
+        }
+        if (dto.getUsername() == null || dto.getUsername().trim().isEmpty()) {
+            return "El username es requerido";
+        }
+        if (dto.getPassword() == null || dto.getPassword().trim().isEmpty()) {
+            return "La contraseña es requerida";
+        }
+        if (dto.getNombreCompleto() == null || dto.getNombreCompleto().trim().isEmpty()) {
+            return "El nombre completo es requerido";
+        }
+        if (dto.getRolId() == null) {
+            return "El rol es requerido";
+        }
+        return null;
+    }
+
+    private ResultadoMasivoDTO fallo(int indice, UsuarioDTO dto, String mensaje) {
+        return new ResultadoMasivoDTO(indice, dto != null ? dto.getUsername() : null, false, mensaje, null);
+    }
+
     public List<Usuario> findAll() {
         return usuarioRepository.findAll();
     }
+
+    // Proyección sin entidades administradas: sin password, sin permisos y sin dirty checking
+    public PaginaDTO<UsuarioResumenDTO> findPagina(String after, Integer limit, boolean incluirTotal) {
+        int limite = PaginaDTO.normalizarLimite(limit);
+        long desde = PaginaDTO.decodificarCursor(after);
+
+        List<UsuarioResumenDTO> filas = usuarioRepository.findResumenes(desde, PageRequest.of(0, limite + 1));
+        Long total = incluirTotal ? usuarioRepository.count() : null;
+
+        return PaginaDTO.desdeFilas(filas, limite, UsuarioResumenDTO::getId, total);
+    }
+
+    // Búsqueda resuelta en memoria por el índice, sin consultar la base de datos
+    public List<ResultadoBusquedaDTO> buscar(String consulta, Integer limit) {
+        int limite = limit == null ? IndiceBusquedaService.LIMITE_POR_DEFECTO
+            : Math.max(1, Math.min(limit, IndiceBusquedaService.LIMITE_MAXIMO));
+        return indiceBusquedaService.buscar(consulta, limite);
+    }
+
+    public boolean busquedaDisponible() {
+        return indiceBusquedaService.estaCargado();
+    }
+
+    // Versiones del usuario y de su rol (el detalle incluye el nombre del rol); null si no existe
+    public String obtenerHuella(Long id) {
+        List<Object[]> filas = usuarioRepository.findVersionesById(id);
+        if (filas.isEmpty()) {
+            return null;
+        }
+        return huella(filas.get(0)[0], filas.get(0)[1]);
+    }
+
+    // Misma huella a partir de la proyección del detalle, que ya trae ambas versiones
+    public static String huella(UsuarioResumenDTO resumen) {
+        return huella(resumen.getVersion(), resumen.getRolVersion());
+    }
+
+    private static String huella(Object version, Object rolVersion) {
+        return version + "-" + rolVersion;
+    }
+
+    // Renombrar un rol incrementa su versión: con la del usuario cubre todo lo que muestra cada fila
+    public static String huella(PaginaDTO<UsuarioResumenDTO> pagina) {
+        return pagina.huella(u -> claveFila(u.getId(), u.getVersion(), u.getRolVersion()));
+    }
+
+    // Misma huella que la página completa, leyendo solo ids y versiones (y el total si se pide)
+    public String obtenerHuellaPagina(String after, Integer limit, boolean incluirTotal) {
+        int limite = PaginaDTO.normalizarLimite(limit);
+        long desde = PaginaDTO.decodificarCursor(after);
+
+        List<Object[]> filas = usuarioRepository.findVersionesPagina(desde, PageRequest.of(0, limite + 1));
+        Long total = incluirTotal ? usuarioRepository.count() : null;
+
+        return PaginaDTO.desdeFilas(filas, limite, fila -> (Long) fila[0], total)
+            .huella(fila -> claveFila(fila[0], fila[1], fila[2]));
+    }
+
+    private static String claveFila(Object id, Object version, Object rolVersion) {
+        return id + ":" + version + ":" + rolVersion;
+    }
+
+    public UsuarioResumenDTO findResumenById(Long id) {
+        return usuarioRepository.findResumenById(id).orElse(null);
+    }
     
+    // Escribe todos los usuarios fila a fila; la memoria usada no depende del tamaño de la tabla
+    @Transactional(readOnly = true)
+    public long exportar(OutputStream salida, String formato) throws IOException {
+        boolean csv = "csv".equalsIgnoreCase(formato);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8), 64 * 1024);
+        JsonGenerator generator = null;
+        long filas = 0;
+
+        if (!csv) {
+            // NDJSON: un objeto por línea, sin el separador por defecto entre valores raíz
+            generator = objectMapper.getFactory().createGenerator(writer);
+            generator.setRootValueSeparator(null);
+        } else {
+            writer.write("id,username,nombreCompleto,rolId,rolNombre\n");
+        }
+
+        try (Stream<Usuario> usuarios = usuarioRepository.streamAllOrderById()) {
+            Iterator<Usuario> iterador = usuarios.iterator();
+            while (iterador.hasNext()) {
+                Usuario usuario = iterador.next();
+                if (csv) {
+                    escribirCsv(writer, usuario);
+                } else {
+                    escribirJson(generator, usuario);
+                }
+                filas++;
+
+                if (limpiarCada > 0 && filas % limpiarCada == 0) {
+                    if (generator != null) {
+                        generator.flush();
+                    }
+                    writer.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+
+        if (generator != null) {
+            generator.flush();
+        }
+        writer.flush();
+        return filas;
+    }
+
+    private void escribirJson(JsonGenerator generator, Usuario usuario) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", usuario.getId());
+        generator.writeStringField("username", usuario.getUsername());
+        generator.writeStringField("nombreCompleto", usuario.getNombreCompleto());
+        if (usuario.getRol() != null) {
+            generator.writeNumberField("rolId", usuario.getRol().getId());
+            generator.writeStringField("rolNombre", usuario.getRol().getNombre());
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private void escribirCsv(Writer writer, Usuario usuario) throws IOException {
+        writer.write(String.valueOf(usuario.getId()));
+        writer.write(',');
+        writer.write(campoCsv(usuario.getUsername()));
+        writer.write(',');
+        writer.write(campoCsv(usuario.getNombreCompleto()));
+        writer.write(',');
+        if (usuario.getRol() != null) {
+            writer.write(String.valueOf(usuario.getRol().getId()));
+            writer.write(',');
+            writer.write(campoCsv(usuario.getRol().getNombre()));
+        } else {
+            writer.write(',');
+        }
+        writer.write('\n');
+    }
+
+    private String campoCsv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+
+    @Transactional
     public Usuario save(Usuario usuario) {
-        return usuarioRepository.save(usuario);
+        // Valores anteriores para el filtro de unicidad; el merge reutiliza la fila ya cargada
+        Usuario anterior = usuario.getId() != null ? usuarioRepository.findById(usuario.getId()).orElse(null) : null;
+        // La contraseña llega siempre en texto plano: las respuestas ya no incluyen el hash, así que un
+        // valor con forma de bcrypt solo puede ser un hash plantado por el cliente. Sin contraseña, un
+        // PUT conserva la guardada
+        if (usuario.getPassword() == null) {
+            if (anterior != null) {
+                usuario.setPassword(anterior.getPassword());
+            }
+        } else if (passwordHashService.esHash(usuario.getPassword())) {
+            throw new IllegalArgumentException("La contraseña debe enviarse en texto plano");
+        } else {
+            usuario.setPassword(passwordHashService.hash(usuario.getPassword()));
+        }
+        String usernameAnterior = anterior != null ? anterior.getUsername() : null;
+        String nombreAnterior = anterior != null ? anterior.getNombreCompleto() : null;
+        Usuario usuarioGuardado = usuarioRepository.save(usuario);
+        // La respuesta serializa el rol fuera de la transacción (open-in-view desactivado)
+        if (usuarioGuardado.getRol() != null) {
+            Hibernate.initialize(usuarioGuardado.getRol());
+            Hibernate.initialize(usuarioGuardado.getRol().getPermisos());
+            permisoEngine.asignarUsuario(usuarioGuardado.getId(), usuarioGuardado.getUsername(),
+                usuarioGuardado.getRol().getId());
+        }
+        if (anterior == null) {
+            filtroUnicidadService.agregar(usuarioGuardado.getUsername(), usuarioGuardado.getNombreCompleto());
+        } else {
+            filtroUnicidadService.reemplazar(usernameAnterior, nombreAnterior,
+                usuarioGuardado.getUsername(), usuarioGuardado.getNombreCompleto());
+        }
+        indiceBusquedaService.indexar(usuarioGuardado.getId(), usuarioGuardado.getUsername(),
+            usuarioGuardado.getNombreCompleto());
+        return usuarioGuardado;
     }
     
     public Usuario findById(Long id) {
         return usuarioRepository.findById(id).orElse(null);
     }
     
+    // Las estructuras en memoria se actualizan tras el commit, también cuando no borra el controlador
+    @Transactional
     public void deleteById(Long id) {
-        usuarioRepository.deleteById(id);
+        Usuario usuario = usuarioRepository.findById(id).orElse(null);
+        if (usuario == null) {
+            return;
+        }
+        usuarioRepository.delete(usuario);
+        permisoEngine.eliminarUsuario(id);
+        filtroUnicidadService.quitar(usuario.getUsername(), usuario.getNombreCompleto());
+        indiceBusquedaService.quitar(id);
     }
 }
\ No newline at end of file
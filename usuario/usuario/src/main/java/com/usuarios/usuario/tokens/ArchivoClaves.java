@@ -0,0 +1,75 @@
+package com.usuarios.usuario.tokens;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.function.Supplier;
+
+// Claves leídas de un archivo (por ejemplo un secreto montado) y recargadas cuando cambia su
+// fecha de modificación. La fecha se consulta como mucho una vez por intervalo, así que rotar
+// una clave es reemplazar el archivo: sin reinicios. Si el archivo nuevo no se puede leer se
+// conservan las claves anteriores.
+@Slf4j
+public final class ArchivoClaves implements Supplier<ConjuntoClaves> {
+
+    private final Path archivo;
+    private final long intervaloNanos;
+
+    private volatile ConjuntoClaves actual;
+    private volatile FileTime modificado;
+    private volatile long proximaRevision;
+
+    public ArchivoClaves(Path archivo, Duration intervalo) {
+        this.archivo = archivo;
+        this.intervaloNanos = intervalo.toNanos();
+        try {
+            this.modificado = Files.getLastModifiedTime(archivo);
+            this.actual = leer(archivo);
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo leer el archivo de claves " + archivo, e);
+        }
+        this.proximaRevision = System.nanoTime() + intervaloNanos;
+    }
+
+    @Override
+    public ConjuntoClaves get() {
+        long ahora = System.nanoTime();
+        if (ahora - proximaRevision >= 0) {
+            revisar(ahora);
+        }
+        return actual;
+    }
+
+    private synchronized void revisar(long ahora) {
+        if (ahora - proximaRevision < 0) {
+            return;
+        }
+        proximaRevision = ahora + intervaloNanos;
+        try {
+            FileTime fecha = Files.getLastModifiedTime(archivo);
+            if (!fecha.equals(modificado)) {
+                actual = leer(archivo);
+                modificado = fecha;
+                log.info("Claves de tokens recargadas desde {}: {} claves, activa {}",
+                    archivo, actual.cantidad(), actual.getActiva());
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("No se pudieron recargar las claves de tokens desde {}; se mantienen las anteriores", archivo, e);
+        }
+    }
+
+    private static ConjuntoClaves leer(Path archivo) throws IOException {
+        Properties propiedades = new Properties();
+        try (Reader lector = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            propiedades.load(lector);
+        }
+        return ConjuntoClaves.desdePropiedades(propiedades);
+    }
+}
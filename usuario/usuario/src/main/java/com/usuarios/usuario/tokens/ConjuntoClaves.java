@@ -0,0 +1,79 @@
+package com.usuarios.usuario.tokens;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Properties;
+
+import javax.crypto.spec.SecretKeySpec;
+
+// Claves HMAC por kid y el kid con el que se firman los tokens nuevos. Inmutable: una rotación
+// publica un conjunto nuevo. Las claves retiradas se mantienen mientras haya tokens vigentes firmados con ellas.
+public final class ConjuntoClaves {
+
+    static final String ALGORITMO_MAC = "HmacSHA256";
+    // HS256 exige al menos 256 bits de clave
+    private static final int BYTES_MINIMOS = 32;
+    private static final String PROPIEDAD_ACTIVA = "activa";
+
+    private final String activa;
+    private final Map<String, SecretKeySpec> claves;
+
+    private ConjuntoClaves(String activa, Map<String, SecretKeySpec> claves) {
+        this.activa = activa;
+        this.claves = claves;
+    }
+
+    public static ConjuntoClaves de(String activa, Map<String, byte[]> secretos) {
+        Map<String, SecretKeySpec> claves = new HashMap<>();
+        for (Map.Entry<String, byte[]> secreto : secretos.entrySet()) {
+            if (secreto.getValue().length < BYTES_MINIMOS) {
+                throw new IllegalArgumentException("La clave '" + secreto.getKey() + "' tiene menos de 32 bytes");
+            }
+            claves.put(secreto.getKey(), new SecretKeySpec(secreto.getValue(), ALGORITMO_MAC));
+        }
+        if (activa != null && !claves.containsKey(activa)) {
+            throw new IllegalArgumentException("No hay clave para el kid activo '" + activa + "'");
+        }
+        return new ConjuntoClaves(activa, Collections.unmodifiableMap(claves));
+    }
+
+    // Formato del archivo: "activa=<kid>" y una línea "<kid>=<secreto en base64>" por clave.
+    // Sin "activa" el conjunto solo verifica (servicios que consumen tokens)
+    public static ConjuntoClaves desdePropiedades(Properties propiedades) {
+        String activa = propiedades.getProperty(PROPIEDAD_ACTIVA);
+        Map<String, byte[]> secretos = new HashMap<>();
+        for (String kid : propiedades.stringPropertyNames()) {
+            if (!kid.equals(PROPIEDAD_ACTIVA)) {
+                secretos.put(kid, Base64.getDecoder().decode(propiedades.getProperty(kid).trim()));
+            }
+        }
+        return de(activa != null ? activa.trim() : null, secretos);
+    }
+
+    // Clave aleatoria de una sola instancia; los tokens no sobreviven a un reinicio
+    public static ConjuntoClaves efimera() {
+        byte[] secreto = new byte[BYTES_MINIMOS];
+        SecureRandom aleatorio = new SecureRandom();
+        aleatorio.nextBytes(secreto);
+        byte[] sufijo = new byte[4];
+        aleatorio.nextBytes(sufijo);
+        String kid = "efimera-" + HexFormat.of().formatHex(sufijo);
+        return de(kid, Map.of(kid, secreto));
+    }
+
+    public String getActiva() {
+        return activa;
+    }
+
+    SecretKeySpec clave(String kid) {
+        return kid != null ? claves.get(kid) : null;
+    }
+
+    public int cantidad() {
+        return claves.size();
+    }
+}
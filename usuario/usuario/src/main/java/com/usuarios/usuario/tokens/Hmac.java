@@ -0,0 +1,32 @@
+package com.usuarios.usuario.tokens;
+
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+// Un Mac por hilo: obtenerlo del proveedor en cada token cuesta más que la propia firma
+final class Hmac {
+
+    private static final ThreadLocal<Mac> MAC = ThreadLocal.withInitial(() -> {
+        try {
+            return Mac.getInstance(ConjuntoClaves.ALGORITMO_MAC);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("HmacSHA256 no disponible", e);
+        }
+    });
+
+    private Hmac() {
+    }
+
+    static byte[] calcular(SecretKeySpec clave, String contenido) {
+        Mac mac = MAC.get();
+        try {
+            mac.init(clave);
+        } catch (InvalidKeyException e) {
+            throw new IllegalStateException("Clave HMAC inválida", e);
+        }
+        return mac.doFinal(TokenEmisor.ascii(contenido));
+    }
+}
@@ -0,0 +1,64 @@
+package com.usuarios.usuario.tokens;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+// Datos firmados en un token de acceso. Los permisos viajan por nombre: quien verifica no
+// necesita el motor de permisos ni la base de datos para autorizar
+public final class Token {
+
+    private final Long usuarioId;
+    private final String username;
+    private final String rol;
+    private final Set<String> permisos;
+    private final Instant emitido;
+    private final Instant expira;
+    private final String kid;
+
+    public Token(Long usuarioId, String username, String rol, Iterable<String> permisos,
+                 Instant emitido, Instant expira, String kid) {
+        this.usuarioId = usuarioId;
+        this.username = username;
+        this.rol = rol;
+        Set<String> copia = new LinkedHashSet<>();
+        permisos.forEach(copia::add);
+        this.permisos = Collections.unmodifiableSet(copia);
+        this.emitido = emitido;
+        this.expira = expira;
+        this.kid = kid;
+    }
+
+    public boolean tienePermiso(String permiso) {
+        return permiso != null && permisos.contains(permiso);
+    }
+
+    public Long getUsuarioId() {
+        return usuarioId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getRol() {
+        return rol;
+    }
+
+    public Set<String> getPermisos() {
+        return permisos;
+    }
+
+    public Instant getEmitido() {
+        return emitido;
+    }
+
+    public Instant getExpira() {
+        return expira;
+    }
+
+    public String getKid() {
+        return kid;
+    }
+}
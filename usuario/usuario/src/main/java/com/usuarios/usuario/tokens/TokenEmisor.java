@@ -0,0 +1,92 @@
+package com.usuarios.usuario.tokens;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.function.Supplier;
+
+import javax.crypto.spec.SecretKeySpec;
+
+// Firma tokens compactos en formato JWT (HS256) con la clave activa del conjunto. Los claims
+// son cortos a propósito: el token viaja en cada llamada entre servicios
+public final class TokenEmisor {
+
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+
+    private final Supplier<ConjuntoClaves> claves;
+    private final ObjectMapper objectMapper;
+    private final String emisor;
+    private final Duration duracion;
+    private final Clock reloj;
+
+    public TokenEmisor(Supplier<ConjuntoClaves> claves, ObjectMapper objectMapper, String emisor,
+                       Duration duracion, Clock reloj) {
+        this.claves = claves;
+        this.objectMapper = objectMapper;
+        this.emisor = emisor;
+        this.duracion = duracion;
+        this.reloj = reloj;
+    }
+
+    public Duration getDuracion() {
+        return duracion;
+    }
+
+    public Token emitir(Long usuarioId, String username, String rol, Iterable<String> permisos) {
+        ConjuntoClaves conjunto = claves.get();
+        String kid = conjunto.getActiva();
+        if (kid == null) {
+            throw new IllegalStateException("El conjunto de claves no tiene una clave activa para firmar");
+        }
+        // Segundos enteros: es lo que se serializa y lo que verá quien valide
+        Instant emitido = Instant.ofEpochSecond(reloj.instant().getEpochSecond());
+        return new Token(usuarioId, username, rol, permisos, emitido, emitido.plus(duracion), kid);
+    }
+
+    public String firmar(Token token) {
+        SecretKeySpec clave = claves.get().clave(token.getKid());
+        if (clave == null) {
+            throw new IllegalStateException("No hay clave para el kid '" + token.getKid() + "'");
+        }
+        ObjectNode cabecera = objectMapper.createObjectNode()
+            .put("alg", "HS256")
+            .put("typ", "JWT")
+            .put("kid", token.getKid());
+
+        ObjectNode claims = objectMapper.createObjectNode();
+        if (emisor != null) {
+            claims.put("iss", emisor);
+        }
+        claims.put("sub", String.valueOf(token.getUsuarioId()));
+        claims.put("usr", token.getUsername());
+        claims.put("rol", token.getRol());
+        ArrayNode permisos = claims.putArray("per");
+        token.getPermisos().forEach(permisos::add);
+        claims.put("iat", token.getEmitido().getEpochSecond());
+        claims.put("exp", token.getExpira().getEpochSecond());
+
+        String contenido = codificar(cabecera) + "." + codificar(claims);
+        byte[] firma = Hmac.calcular(clave, contenido);
+        return contenido + "." + BASE64URL.encodeToString(firma);
+    }
+
+    private String codificar(ObjectNode nodo) {
+        try {
+            return BASE64URL.encodeToString(objectMapper.writeValueAsBytes(nodo));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el token", e);
+        }
+    }
+
+    // La cadena ya viene en ASCII (base64url); los bytes son los mismos en cualquier codificación
+    static byte[] ascii(String texto) {
+        return texto.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,8 @@
+package com.usuarios.usuario.tokens;
+
+public class TokenInvalidoException extends RuntimeException {
+
+    public TokenInvalidoException(String mensaje) {
+        super(mensaje);
+    }
+}
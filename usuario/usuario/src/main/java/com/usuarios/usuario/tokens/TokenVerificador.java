@@ -0,0 +1,128 @@
+package com.usuarios.usuario.tokens;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Supplier;
+
+import javax.crypto.spec.SecretKeySpec;
+
+// Valida tokens de TokenEmisor solo en memoria: firma, algoritmo, emisor y vigencia, sin red ni
+// base de datos. No depende de Spring, así que los servicios que consumen tokens pueden usarlo
+// directamente con el mismo archivo de claves:
+//
+//     TokenVerificador verificador = TokenVerificador.desdeArchivo(Path.of("/secretos/tokens.properties"), "usuario");
+//     Token token = verificador.verificar(cabecera.substring("Bearer ".length()));
+//     if (!token.tienePermiso("WRITE")) { ... }
+//
+// Es seguro entre hilos; una sola instancia sirve a toda la aplicación.
+public final class TokenVerificador {
+
+    private static final Base64.Decoder BASE64URL = Base64.getUrlDecoder();
+    private static final Duration TOLERANCIA_POR_DEFECTO = Duration.ofSeconds(30);
+    private static final Duration REVISION_CLAVES_POR_DEFECTO = Duration.ofSeconds(10);
+    // Un token de este servicio ocupa unos cientos de bytes; algo mucho mayor no se decodifica
+    private static final int LONGITUD_MAXIMA = 8192;
+
+    private final Supplier<ConjuntoClaves> claves;
+    private final ObjectMapper objectMapper;
+    private final String emisor;
+    private final Duration tolerancia;
+    private final Clock reloj;
+
+    public TokenVerificador(Supplier<ConjuntoClaves> claves, ObjectMapper objectMapper, String emisor,
+                            Duration tolerancia, Clock reloj) {
+        this.claves = claves;
+        this.objectMapper = objectMapper;
+        this.emisor = emisor;
+        this.tolerancia = tolerancia;
+        this.reloj = reloj;
+    }
+
+    public static TokenVerificador desdeArchivo(Path archivoClaves, String emisor) {
+        return new TokenVerificador(new ArchivoClaves(archivoClaves, REVISION_CLAVES_POR_DEFECTO),
+            new ObjectMapper(), emisor, TOLERANCIA_POR_DEFECTO, Clock.systemUTC());
+    }
+
+    public Token verificar(String token) {
+        if (token == null || token.isEmpty() || token.length() > LONGITUD_MAXIMA) {
+            throw new TokenInvalidoException("Token ausente o demasiado largo");
+        }
+        int primerPunto = token.indexOf('.');
+        int segundoPunto = primerPunto < 0 ? -1 : token.indexOf('.', primerPunto + 1);
+        if (segundoPunto < 0 || token.indexOf('.', segundoPunto + 1) >= 0) {
+            throw new TokenInvalidoException("Token mal formado");
+        }
+
+        JsonNode cabecera = leer(token.substring(0, primerPunto));
+        // Solo HS256: ni "none" ni algoritmos elegidos por quien presenta el token
+        if (!"HS256".equals(cabecera.path("alg").asText(null))) {
+            throw new TokenInvalidoException("Algoritmo de firma no admitido");
+        }
+        SecretKeySpec clave = claves.get().clave(cabecera.path("kid").asText(null));
+        if (clave == null) {
+            throw new TokenInvalidoException("Clave de firma desconocida o retirada");
+        }
+        byte[] esperada = Hmac.calcular(clave, token.substring(0, segundoPunto));
+        if (!MessageDigest.isEqual(esperada, decodificar(token.substring(segundoPunto + 1)))) {
+            throw new TokenInvalidoException("Firma inválida");
+        }
+
+        // A partir de aquí el contenido es de confianza
+        JsonNode claims = leer(token.substring(primerPunto + 1, segundoPunto));
+        if (emisor != null && !emisor.equals(claims.path("iss").asText(null))) {
+            throw new TokenInvalidoException("Emisor no reconocido");
+        }
+        Instant ahora = reloj.instant();
+        Instant emitido = Instant.ofEpochSecond(claims.path("iat").asLong());
+        Instant expira = Instant.ofEpochSecond(claims.path("exp").asLong());
+        if (!ahora.isBefore(expira.plus(tolerancia))) {
+            throw new TokenInvalidoException("Token expirado");
+        }
+        if (emitido.isAfter(ahora.plus(tolerancia))) {
+            throw new TokenInvalidoException("Token emitido en el futuro");
+        }
+
+        List<String> permisos = new ArrayList<>();
+        for (JsonNode permiso : claims.path("per")) {
+            permisos.add(permiso.asText());
+        }
+        Long usuarioId;
+        try {
+            usuarioId = Long.valueOf(claims.path("sub").asText());
+        } catch (NumberFormatException e) {
+            throw new TokenInvalidoException("Token sin usuario");
+        }
+        return new Token(usuarioId, claims.path("usr").asText(null), claims.path("rol").asText(null),
+            permisos, emitido, expira, cabecera.path("kid").asText());
+    }
+
+    private JsonNode leer(String parte) {
+        try {
+            JsonNode nodo = objectMapper.readTree(decodificar(parte));
+            if (nodo == null || !nodo.isObject()) {
+                throw new TokenInvalidoException("Token mal formado");
+            }
+            return nodo;
+        } catch (IOException e) {
+            throw new TokenInvalidoException("Token mal formado");
+        }
+    }
+
+    private static byte[] decodificar(String parte) {
+        try {
+            return BASE64URL.decode(parte);
+        } catch (IllegalArgumentException e) {
+            throw new TokenInvalidoException("Token mal formado");
+        }
+    }
+}
@@ -0,0 +1,29 @@
+-- Esquema que Hibernate creaba con ddl-auto=update antes de las migraciones: ids por identidad
+-- y sin columnas de versión. En bases existentes no se ejecuta: spring.flyway.baseline-on-migrate
+-- las marca en esta versión y se continúa desde V2 (V2__SecuenciasVersionAuditoria, en Java).
+-- Tipos válidos en Oracle y en H2 con MODE=Oracle (perfiles test, bench y embebido)
+
+CREATE TABLE roles (
+    id NUMBER(19) GENERATED BY DEFAULT AS IDENTITY,
+    nombre VARCHAR2(255) NOT NULL,
+    CONSTRAINT roles_pk PRIMARY KEY (id),
+    CONSTRAINT roles_nombre_uk UNIQUE (nombre)
+);
+
+CREATE TABLE rol_permisos (
+    rol_id NUMBER(19) NOT NULL,
+    permiso VARCHAR2(255),
+    CONSTRAINT rol_permisos_rol_fk FOREIGN KEY (rol_id) REFERENCES roles (id)
+);
+
+CREATE TABLE usuarios (
+    id NUMBER(19) GENERATED BY DEFAULT AS IDENTITY,
+    nombre_completo VARCHAR2(255) NOT NULL,
+    username VARCHAR2(255) NOT NULL,
+    password VARCHAR2(255) NOT NULL,
+    rol_id NUMBER(19) NOT NULL,
+    CONSTRAINT usuarios_pk PRIMARY KEY (id),
+    CONSTRAINT usuarios_nombre_completo_uk UNIQUE (nombre_completo),
+    CONSTRAINT usuarios_username_uk UNIQUE (username),
+    CONSTRAINT usuarios_rol_fk FOREIGN KEY (rol_id) REFERENCES roles (id)
+);
@@ -0,0 +1,13 @@
+-- Índices que ddl-auto=update nunca creó. Oracle no indexa las claves foráneas por sí solo
+
+-- Usuarios de un rol en orden de id (reasignación por bloques, conteo por rol) y borrado de roles
+-- sin recorrer la tabla completa para comprobar la clave foránea
+CREATE INDEX usuarios_rol_idx ON usuarios (rol_id, id);
+
+-- Carga de permisos por rol (entity graph Rol.permisos y @BatchSize sobre rol_id)
+CREATE INDEX rol_permisos_rol_idx ON rol_permisos (rol_id);
+
+-- Login (findLoginByUsername con el entity graph Usuario.rol): el join con roles se resuelve
+-- desde el índice antes de leer la fila. La carga del motor de permisos (id, username, rol_id
+-- de todos los usuarios) recorre solo este índice, más chico que la tabla
+CREATE INDEX usuarios_login_idx ON usuarios (username, rol_id, id);
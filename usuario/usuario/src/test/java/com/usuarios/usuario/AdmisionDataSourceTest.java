@@ -0,0 +1,100 @@
+package com.usuarios.usuario;
+
+import com.usuarios.usuario.config.AdmisionDataSource;
+import com.usuarios.usuario.controllers.SaturacionHandler;
+import com.usuarios.usuario.dto.ResponseDTO;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AdmisionDataSourceTest {
+
+    private JdbcDataSource destino;
+
+    @BeforeEach
+    void setUp() {
+        destino = new JdbcDataSource();
+        destino.setURL("jdbc:h2:mem:admision;DB_CLOSE_DELAY=-1");
+        destino.setUser("sa");
+    }
+
+    @Test
+    void getConnection_ConexionAbierta_OcupaPermisoHastaCerrarla() throws SQLException {
+        AdmisionDataSource dataSource = new AdmisionDataSource(destino, 2, 10);
+
+        try (Connection conexion = dataSource.getConnection(); Statement sentencia = conexion.createStatement()) {
+            assertTrue(sentencia.execute("SELECT 1"));
+            assertEquals(1, dataSource.permisosDisponibles());
+        }
+
+        assertEquals(2, dataSource.permisosDisponibles());
+    }
+
+    @Test
+    void getConnection_SinPermisos_RechazaComoTimeoutDelPool() throws SQLException {
+        AdmisionDataSource dataSource = new AdmisionDataSource(destino, 1, 10);
+
+        // La exportación en curso conserva su permiso mientras la conexión siga abierta
+        try (Connection ocupada = dataSource.getConnection()) {
+            assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+            assertEquals(0, dataSource.permisosDisponibles());
+        }
+
+        assertEquals(1, dataSource.permisosDisponibles());
+    }
+
+    @Test
+    void close_LlamadoDosVeces_DevuelveUnSoloPermiso() throws SQLException {
+        AdmisionDataSource dataSource = new AdmisionDataSource(destino, 1, 10);
+
+        Connection conexion = dataSource.getConnection();
+        conexion.close();
+        conexion.close();
+
+        assertEquals(1, dataSource.permisosDisponibles());
+        assertTrue(conexion.isClosed());
+    }
+
+    @Test
+    void getConnection_DestinoFalla_DevuelvePermiso() throws SQLException {
+        DataSource caido = mock(DataSource.class);
+        when(caido.getConnection()).thenThrow(new SQLException("sin red"));
+        AdmisionDataSource dataSource = new AdmisionDataSource(caido, 1, 10);
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+
+        assertEquals(1, dataSource.permisosDisponibles());
+    }
+
+    @Test
+    void sinConexion_PorSaturacion_RespondeServicioNoDisponible() {
+        SaturacionHandler handler = new SaturacionHandler();
+
+        ResponseEntity<ResponseDTO> respuesta = handler.sinConexion(
+            new CannotCreateTransactionException("sin conexión", new SQLTransientConnectionException("saturado")));
+
+        assertEquals(503, respuesta.getStatusCode().value());
+        assertEquals("1", respuesta.getHeaders().getFirst("Retry-After"));
+        assertFalse(respuesta.getBody().isExito());
+    }
+
+    @Test
+    void sinConexion_OtraCausa_NoLaConvierteEn503() {
+        SaturacionHandler handler = new SaturacionHandler();
+        CannotCreateTransactionException error =
+            new CannotCreateTransactionException("sin conexión", new SQLException("credenciales inválidas"));
+
+        assertSame(error, assertThrows(CannotCreateTransactionException.class, () -> handler.sinConexion(error)));
+    }
+}
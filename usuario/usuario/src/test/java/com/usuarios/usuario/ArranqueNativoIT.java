@@ -0,0 +1,141 @@
+package com.usuarios.usuario;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Compara el arranque del ejecutable nativo con el del jar en la JVM, ambos con H2 embebida:
+// tiempo hasta que /actuator/health responde 200 y RSS del proceso en ese momento.
+// Corre con failsafe en el perfil Maven "native" (mvn -Pnative verify), que genera los dos artefactos
+@EnabledIfSystemProperty(named = "usuarios.arranque.nativo", matches = ".+")
+@EnabledOnOs(OS.LINUX)
+class ArranqueNativoIT {
+
+    private static final int REPETICIONES = 3;
+    private static final Duration LIMITE_ARRANQUE = Duration.ofSeconds(120);
+    private static final List<String> ARGUMENTOS = List.of(
+        "--spring.profiles.active=embebido",
+        "--spring.main.banner-mode=off",
+        "--logging.level.root=WARN");
+
+    private final HttpClient cliente = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void nativo_ArrancaAntesYConMenosMemoriaQueLaJvm() throws Exception {
+        Path ejecutable = Path.of(System.getProperty("usuarios.arranque.nativo"));
+        Path jar = Path.of(System.getProperty("usuarios.arranque.jar"));
+        assertTrue(Files.isExecutable(ejecutable), "No existe el ejecutable nativo " + ejecutable);
+        assertTrue(Files.isRegularFile(jar), "No existe el jar " + jar);
+        String java = ProcessHandle.current().info().command().orElse("java");
+
+        Medicion jvm = mediana("jvm", List.of(java, "-jar", jar.toString()));
+        Medicion nativo = mediana("nativo", List.of(ejecutable.toString()));
+
+        System.out.printf("Arranque JVM: %d ms, RSS %d MB%n", jvm.arranqueMs, jvm.rssKb / 1024);
+        System.out.printf("Arranque nativo: %d ms, RSS %d MB%n", nativo.arranqueMs, nativo.rssKb / 1024);
+        assertTrue(nativo.arranqueMs < jvm.arranqueMs,
+            "El ejecutable nativo no arranca antes que la JVM: " + nativo.arranqueMs + " ms contra " + jvm.arranqueMs + " ms");
+        assertTrue(nativo.rssKb < jvm.rssKb,
+            "El ejecutable nativo no usa menos memoria que la JVM: " + nativo.rssKb + " kB contra " + jvm.rssKb + " kB");
+    }
+
+    // Mediana de varias ejecuciones: la primera suele pagar la caché de disco
+    private Medicion mediana(String nombre, List<String> comando) throws Exception {
+        List<Medicion> mediciones = new ArrayList<>();
+        for (int i = 0; i < REPETICIONES; i++) {
+            mediciones.add(medir(comando, directorio.resolve(nombre + "-" + i + ".log")));
+        }
+        mediciones.sort(Comparator.comparingLong(m -> m.arranqueMs));
+        return mediciones.get(REPETICIONES / 2);
+    }
+
+    private Medicion medir(List<String> comando, Path log) throws Exception {
+        int puerto = puertoLibre();
+        List<String> completo = new ArrayList<>(comando);
+        completo.addAll(ARGUMENTOS);
+        completo.add("--server.port=" + puerto);
+
+        long inicio = System.nanoTime();
+        Process proceso = new ProcessBuilder(completo)
+            .redirectErrorStream(true)
+            .redirectOutput(log.toFile())
+            .start();
+        try {
+            esperarSalud(proceso, puerto, inicio, log);
+            long arranqueMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+            return new Medicion(arranqueMs, rssKb(proceso.pid()));
+        } finally {
+            proceso.destroy();
+            if (!proceso.waitFor(30, TimeUnit.SECONDS)) {
+                proceso.destroyForcibly();
+            }
+        }
+    }
+
+    private void esperarSalud(Process proceso, int puerto, long inicio, Path log) throws Exception {
+        HttpRequest salud = HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + "/actuator/health"))
+            .timeout(Duration.ofSeconds(1))
+            .build();
+        while (System.nanoTime() - inicio < LIMITE_ARRANQUE.toNanos()) {
+            if (!proceso.isAlive()) {
+                fail("El proceso terminó antes de arrancar:\n" + Files.readString(log));
+            }
+            try {
+                if (cliente.send(salud, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (ConnectException e) {
+                // Todavía no escucha
+            }
+            Thread.sleep(10);
+        }
+        fail("No arrancó en " + LIMITE_ARRANQUE.toSeconds() + " s:\n" + Files.readString(log));
+    }
+
+    private static long rssKb(long pid) throws IOException {
+        for (String linea : Files.readAllLines(Path.of("/proc", String.valueOf(pid), "status"))) {
+            if (linea.startsWith("VmRSS:")) {
+                return Long.parseLong(linea.substring("VmRSS:".length()).replace("kB", "").trim());
+            }
+        }
+        throw new IllegalStateException("Sin VmRSS para el proceso " + pid);
+    }
+
+    private static int puertoLibre() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static final class Medicion {
+        private final long arranqueMs;
+        private final long rssKb;
+
+        private Medicion(long arranqueMs, long rssKb) {
+            this.arranqueMs = arranqueMs;
+            this.rssKb = rssKb;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.usuarios.usuario;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.usuarios.usuario.models.Auditoria;
+import com.usuarios.usuario.repository.AuditoriaRepository;
+import com.usuarios.usuario.services.AuditoriaService;
+import com.usuarios.usuario.services.AuditoriaService.Operacion;
+import com.usuarios.usuario.services.AuditoriaService.Politica;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditoriaServiceTest {
+
+    @TempDir
+    Path directorio;
+
+    private AuditoriaRepository auditoriaRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private Path archivoDerrame;
+
+    @BeforeEach
+    void setUp() {
+        auditoriaRepository = mock(AuditoriaRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        archivoDerrame = directorio.resolve("derrame.ndjson");
+    }
+
+    @Test
+    void vaciar_EscribeEnLotesDelTamanioConfigurado() {
+        AuditoriaService auditoriaService = crear(16, 2, Politica.DESCARTAR);
+        for (long i = 1; i <= 5; i++) {
+            auditoriaService.registrar("Usuario", i, Operacion.CREAR, "usuario" + i);
+        }
+
+        int escritos = auditoriaService.vaciar();
+
+        assertEquals(5, escritos);
+        assertEquals(0, auditoriaService.pendientes());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Auditoria>> lotes = ArgumentCaptor.forClass(List.class);
+        verify(auditoriaRepository, times(3)).saveAll(lotes.capture());
+        assertEquals(2, lotes.getAllValues().get(0).size());
+        assertEquals(1, lotes.getAllValues().get(2).size());
+        Auditoria primero = lotes.getAllValues().get(0).get(0);
+        assertEquals("Usuario", primero.getEntidad());
+        assertEquals("CREAR", primero.getOperacion());
+        assertNotNull(primero.getFecha());
+    }
+
+    @Test
+    void registrar_ConAnilloLlenoYPoliticaDescartar_PierdeElEvento() {
+        AuditoriaService auditoriaService = crear(2, 50, Politica.DESCARTAR);
+        auditoriaService.registrar("Rol", 1L, Operacion.CREAR, "A");
+        auditoriaService.registrar("Rol", 2L, Operacion.CREAR, "B");
+        auditoriaService.registrar("Rol", 3L, Operacion.CREAR, "C");
+
+        assertEquals(2, auditoriaService.pendientes());
+        assertEquals(1.0, meterRegistry.get("usuarios.auditoria.eventos").tag("resultado", "descartado").counter().count());
+        assertFalse(Files.exists(archivoDerrame));
+    }
+
+    @Test
+    void registrar_ConAnilloLlenoYPoliticaDerramar_EscribeEnArchivo() throws Exception {
+        AuditoriaService auditoriaService = crear(2, 50, Politica.DERRAMAR);
+        auditoriaService.registrar("Rol", 1L, Operacion.CREAR, "A");
+        auditoriaService.registrar("Rol", 2L, Operacion.CREAR, "B");
+        auditoriaService.registrar("Rol", 3L, Operacion.ELIMINAR, "C");
+
+        List<String> lineas = Files.readAllLines(archivoDerrame, StandardCharsets.UTF_8);
+        assertEquals(1, lineas.size());
+        assertTrue(lineas.get(0).contains("\"operacion\":\"ELIMINAR\""));
+        assertEquals(1.0, meterRegistry.get("usuarios.auditoria.eventos").tag("resultado", "derramado").counter().count());
+    }
+
+    @Test
+    void registrar_ConAnilloLlenoYPoliticaBloquear_DescartaAlAgotarLaEspera() {
+        AuditoriaService auditoriaService = crear(2, 50, Politica.BLOQUEAR);
+        auditoriaService.registrar("Rol", 1L, Operacion.CREAR, "A");
+        auditoriaService.registrar("Rol", 2L, Operacion.CREAR, "B");
+        auditoriaService.registrar("Rol", 3L, Operacion.CREAR, "C");
+
+        assertEquals(2, auditoriaService.pendientes());
+        assertEquals(1.0, meterRegistry.get("usuarios.auditoria.eventos").tag("resultado", "descartado").counter().count());
+    }
+
+    @Test
+    void vaciar_SiFallaLaBaseDeDatos_DerramaElLote() throws Exception {
+        when(auditoriaRepository.saveAll(anyList())).thenThrow(new RuntimeException("sin conexión"));
+        AuditoriaService auditoriaService = crear(16, 50, Politica.BLOQUEAR);
+        auditoriaService.registrar("Usuario", 1L, Operacion.ACTUALIZAR, "usuario1");
+
+        assertEquals(0, auditoriaService.vaciar());
+        assertEquals(1, Files.readAllLines(archivoDerrame, StandardCharsets.UTF_8).size());
+    }
+
+    @Test
+    void stop_EscribeLoPendienteAntesDeTerminar() {
+        AuditoriaService auditoriaService = crear(1024, 50, Politica.BLOQUEAR);
+        auditoriaService.start();
+        for (long i = 1; i <= 120; i++) {
+            auditoriaService.registrar("Usuario", i, Operacion.CREAR, "usuario" + i);
+        }
+
+        auditoriaService.stop();
+
+        assertFalse(auditoriaService.isRunning());
+        assertEquals(0, auditoriaService.pendientes());
+        assertEquals(120.0, meterRegistry.get("usuarios.auditoria.eventos").tag("resultado", "escrito").counter().count());
+    }
+
+    @Test
+    void registrar_ConEscritorDormido_LoDespiertaSinEsperarElIntervalo() throws Exception {
+        AuditoriaService auditoriaService = crear(16, 1, Politica.BLOQUEAR);
+        auditoriaService.start();
+        Thread.sleep(50);
+
+        auditoriaService.registrar("Usuario", 1L, Operacion.CREAR, "usuario1");
+
+        verify(auditoriaRepository, timeout(2000)).saveAll(anyList());
+        auditoriaService.stop();
+    }
+
+    private AuditoriaService crear(int capacidad, int tamanioLote, Politica politica) {
+        return new AuditoriaService(auditoriaRepository, new ObjectMapper().findAndRegisterModules(), meterRegistry,
+            capacidad, tamanioLote, 60000, politica, 5, archivoDerrame.toString());
+    }
+}
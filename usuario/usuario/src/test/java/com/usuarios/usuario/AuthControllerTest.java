@@ -5,18 +5,47 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 
 import com.usuarios.usuario.controllers.AuthController;
+import com.usuarios.usuario.dto.AutorizacionDTO;
+import com.usuarios.usuario.dto.ResultadoAutorizacionDTO;
 import com.usuarios.usuario.models.Rol;
 import com.usuarios.usuario.models.Usuario;
 import com.usuarios.usuario.repository.UsuarioRepository;
+import com.usuarios.usuario.services.LimitadorLoginService;
+import com.usuarios.usuario.services.LoginCacheService;
+import com.usuarios.usuario.services.PasswordHashService;
+import com.usuarios.usuario.services.PermisoEngine;
+import com.usuarios.usuario.services.TokenService;
+import com.usuarios.usuario.tokens.Token;
+import com.usuarios.usuario.tokens.TokenInvalidoException;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Instant;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -25,6 +54,24 @@ class AuthControllerTest {
     @Mock
     private UsuarioRepository usuarioRepository;
 
+    @Spy
+    private LoginCacheService loginCacheService = new LoginCacheService(60, 10, 100);
+
+    @Mock
+    private PermisoEngine permisoEngine;
+
+    @Mock
+    private LimitadorLoginService limitadorLoginService;
+
+    @Spy
+    private PasswordHashService passwordHashService =
+        new PasswordHashService(1, 16, 4, false, 100, 14, new SimpleMeterRegistry());
+
+    @Mock
+    private TokenService tokenService;
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+
     @InjectMocks
     private AuthController authController;
 
@@ -33,6 +80,25 @@ class AuthControllerTest {
         MockitoAnnotations.openMocks(this);
     }
 
+    @Test
+    void login_ConIntentosLimitados_Retorna429SinConsultarLaBaseDeDatos() {
+        // Arrange
+        request.setRemoteAddr("10.0.0.7");
+        when(limitadorLoginService.intentar("usuario1", "10.0.0.7")).thenReturn(1_500_000_000L);
+        Map<String, String> credentials = new HashMap<>();
+        credentials.put("username", "usuario1");
+        credentials.put("password", "password123");
+
+        // Act
+        ResponseEntity<?> response = authController.login(credentials, request);
+
+        // Assert
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("2", response.getHeaders().getFirst("Retry-After"));
+        verifyNoInteractions(usuarioRepository);
+        verify(loginCacheService, never()).buscarRol(any(), any());
+    }
+
     @Test
     void login_ConCredencialesValidas_RetornaLoginExitoso() {
         // Arrange
@@ -48,14 +114,14 @@ class AuthControllerTest {
         usuario.setId(1L);
         usuario.setNombreCompleto("Usuario Prueba");
         usuario.setUsername("usuario1");
-        usuario.setPassword("password123");
+        usuario.setPassword(passwordHashService.hash("password123"));
         usuario.setRol(rol);
 
-        when(usuarioRepository.findByUsernameAndPassword("usuario1", "password123"))
+        when(usuarioRepository.findLoginByUsername("usuario1"))
             .thenReturn(Optional.of(usuario));
 
         // Act
-        ResponseEntity<?> response = authController.login(credentials);
+        ResponseEntity<?> response = authController.login(credentials, request);
 
         // Assert
         assertTrue(response.getStatusCode().is2xxSuccessful());
@@ -74,11 +140,11 @@ class AuthControllerTest {
         credentials.put("username", "usuarioInvalido");
         credentials.put("password", "passwordInvalido");
 
-        when(usuarioRepository.findByUsernameAndPassword(anyString(), anyString()))
+        when(usuarioRepository.findLoginByUsername(anyString()))
             .thenReturn(Optional.empty());
 
         // Act
-        ResponseEntity<?> response = authController.login(credentials);
+        ResponseEntity<?> response = authController.login(credentials, request);
 
         // Assert
         assertTrue(response.getStatusCode().is4xxClientError());
@@ -94,14 +160,12 @@ class AuthControllerTest {
         Map<String, String> credentials = new HashMap<>();
         // No agregamos username ni password
 
-        when(usuarioRepository.findByUsernameAndPassword(null, null))
-            .thenReturn(Optional.empty());
-
         // Act
-        ResponseEntity<?> response = authController.login(credentials);
+        ResponseEntity<?> response = authController.login(credentials, request);
 
         // Assert
         assertTrue(response.getStatusCode().is4xxClientError());
+        verify(usuarioRepository, never()).findLoginByUsername(any());
         @SuppressWarnings("unchecked")
         Map<String, String> responseBody = (Map<String, String>) response.getBody();
         assertNotNull(responseBody);
@@ -115,11 +179,11 @@ class AuthControllerTest {
         credentials.put("username", "usuario1");
         // No agregamos password
 
-        when(usuarioRepository.findByUsernameAndPassword("usuario1", null))
-            .thenReturn(Optional.empty());
+        when(usuarioRepository.findLoginByUsername("usuario1"))
+            .thenReturn(Optional.of(usuarioConPassword("password123")));
 
         // Act
-        ResponseEntity<?> response = authController.login(credentials);
+        ResponseEntity<?> response = authController.login(credentials, request);
 
         // Assert
         assertTrue(response.getStatusCode().is4xxClientError());
@@ -136,17 +200,318 @@ class AuthControllerTest {
         credentials.put("password", "password123");
         // No agregamos username
 
-        when(usuarioRepository.findByUsernameAndPassword(null, "password123"))
-            .thenReturn(Optional.empty());
-
         // Act
-        ResponseEntity<?> response = authController.login(credentials);
+        ResponseEntity<?> response = authController.login(credentials, request);
 
         // Assert
         assertTrue(response.getStatusCode().is4xxClientError());
+        verify(usuarioRepository, never()).findLoginByUsername(any());
         @SuppressWarnings("unchecked")
         Map<String, String> responseBody = (Map<String, String>) response.getBody();
         assertNotNull(responseBody);
         assertEquals("Credenciales inválidas", responseBody.get("mensaje"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void login_RepetidoConCredencialesValidas_UsaLaCache() {
+        // Arrange
+        Map<String, String> credentials = new HashMap<>();
+        credentials.put("username", "usuario1");
+        credentials.put("password", "password123");
+
+        Rol rol = new Rol();
+        rol.setId(1L);
+        rol.setNombre("ADMIN");
+
+        Usuario usuario = new Usuario();
+        usuario.setId(1L);
+        usuario.setUsername("usuario1");
+        usuario.setPassword(passwordHashService.hash("password123"));
+        usuario.setRol(rol);
+
+        when(usuarioRepository.findLoginByUsername("usuario1"))
+            .thenReturn(Optional.of(usuario));
+
+        // Act
+        authController.login(credentials, request);
+        ResponseEntity<?> response = authController.login(credentials, request);
+
+        // Assert
+        assertTrue(response.getStatusCode().is2xxSuccessful());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> responseBody = (Map<String, Object>) response.getBody();
+        assertEquals("ADMIN", responseBody.get("rol"));
+        verify(usuarioRepository, times(1)).findLoginByUsername("usuario1");
+    }
+
+    @Test
+    void login_ConPasswordDistintaALaCacheada_ConsultaLaBaseDeDatos() {
+        // Arrange
+        loginCacheService.registrarExito("usuario1", "password123", "ADMIN", loginCacheService.generacion());
+        Map<String, String> credentials = new HashMap<>();
+        credentials.put("username", "usuario1");
+        credentials.put("password", "otraPassword");
+
+        when(usuarioRepository.findLoginByUsername("usuario1"))
+            .thenReturn(Optional.of(usuarioConPassword("password123")));
+
+        // Act
+        ResponseEntity<?> response = authController.login(credentials, request);
+
+        // Assert
+        assertTrue(response.getStatusCode().is4xxClientError());
+        verify(usuarioRepository, times(1)).findLoginByUsername("usuario1");
+    }
+
+    @Test
+    void login_ConUsernameDesconocidoRepetido_NoVuelveAConsultar() {
+        // Arrange
+        Map<String, String> credentials = new HashMap<>();
+        credentials.put("username", "noExiste");
+        credentials.put("password", "password123");
+
+        when(usuarioRepository.findLoginByUsername(anyString()))
+            .thenReturn(Optional.empty());
+
+        // Act
+        authController.login(credentials, request);
+        ResponseEntity<?> response = authController.login(credentials, request);
+
+        // Assert
+        assertTrue(response.getStatusCode().is4xxClientError());
+        verify(usuarioRepository, times(1)).findLoginByUsername("noExiste");
+        verify(usuarioRepository, never()).existsByUsername(any());
+    }
+
+    @Test
+    void login_DespuesDeInvalidar_VuelveAConsultar() {
+        // Arrange
+        loginCacheService.registrarExito("usuario1", "password123", "ADMIN", loginCacheService.generacion());
+        loginCacheService.invalidar("usuario1");
+        Map<String, String> credentials = new HashMap<>();
+        credentials.put("username", "usuario1");
+        credentials.put("password", "password123");
+
+        when(usuarioRepository.findLoginByUsername("usuario1"))
+            .thenReturn(Optional.of(usuarioConPassword("passwordCambiada")));
+
+        // Act
+        ResponseEntity<?> response = authController.login(credentials, request);
+
+        // Assert
+        assertTrue(response.getStatusCode().is4xxClientError());
+        verify(usuarioRepository, times(1)).findLoginByUsername("usuario1");
+        verify(loginCacheService, never()).registrarDesconocido(anyString(), anyLong());
+    }
+
+    @Test
+    void login_ConPasswordHeredadaEnTextoPlano_LaVuelveACifrar() {
+        // Arrange
+        Map<String, String> credentials = new HashMap<>();
+        credentials.put("username", "usuario1");
+        credentials.put("password", "password123");
+        when(usuarioRepository.findLoginByUsername("usuario1"))
+            .thenReturn(Optional.of(usuarioConPasswordGuardada("password123")));
+
+        // Act
+        ResponseEntity<?> response = authController.login(credentials, request);
+
+        // Assert
+        assertTrue(response.getStatusCode().is2xxSuccessful());
+        verify(usuarioRepository, timeout(2000)).actualizarPassword(eq(1L), eq("password123"),
+            argThat(hash -> passwordHashService.esHash(hash) && !hash.contains("password123")));
+    }
+
+    @Test
+    void login_ConHashVigente_NoLoVuelveACifrar() {
+        // Arrange
+        Map<String, String> credentials = new HashMap<>();
+        credentials.put("username", "usuario1");
+        credentials.put("password", "password123");
+        when(usuarioRepository.findLoginByUsername("usuario1"))
+            .thenReturn(Optional.of(usuarioConPassword("password123")));
+
+        // Act
+        ResponseEntity<?> response = authController.login(credentials, request);
+
+        // Assert
+        assertTrue(response.getStatusCode().is2xxSuccessful());
+        verify(passwordHashService, never()).hashAsync(anyString());
+        verify(usuarioRepository, never()).actualizarPassword(any(), any(), any());
+    }
+
+    @Test
+    void login_ConPoolDeContrasenasSaturado_Retorna503() {
+        // Arrange
+        Map<String, String> credentials = new HashMap<>();
+        credentials.put("username", "usuario1");
+        credentials.put("password", "password123");
+        when(usuarioRepository.findLoginByUsername("usuario1"))
+            .thenReturn(Optional.of(usuarioConPassword("password123")));
+        doReturn(CompletableFuture.failedFuture(new RejectedExecutionException()))
+            .when(passwordHashService).verificar(anyString(), anyString());
+
+        // Act
+        ResponseEntity<?> response = authController.login(credentials, request);
+
+        // Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst("Retry-After"));
+        verify(loginCacheService, never()).registrarExito(anyString(), anyString(), anyString(), anyLong());
+    }
+
+    @Test
+    void login_ConCredencialesValidas_IncluyeTokenFirmado() {
+        // Arrange
+        Map<String, String> credentials = new HashMap<>();
+        credentials.put("username", "usuario1");
+        credentials.put("password", "password123");
+        when(usuarioRepository.findLoginByUsername("usuario1"))
+            .thenReturn(Optional.of(usuarioConPassword("password123")));
+        when(tokenService.emitir("usuario1")).thenReturn("cabecera.claims.firma");
+        when(tokenService.getTtlSegundos()).thenReturn(300L);
+
+        // Act
+        ResponseEntity<?> response = authController.login(credentials, request);
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        Map<String, Object> responseBody = (Map<String, Object>) response.getBody();
+        assertEquals("cabecera.claims.firma", responseBody.get("token"));
+        assertEquals("Bearer", responseBody.get("tipoToken"));
+        assertEquals(300L, responseBody.get("expiraEn"));
+    }
+
+    @Test
+    void verify_TokenValido_RetornaClaimsYPermiso() {
+        // Arrange
+        Instant ahora = Instant.now();
+        Token token = new Token(1L, "usuario1", "ADMIN", Arrays.asList("READ", "WRITE"),
+            ahora, ahora.plusSeconds(300), "k1");
+        when(tokenService.verificar("abc.def.ghi")).thenReturn(token);
+        Map<String, String> cuerpo = new HashMap<>();
+        cuerpo.put("permiso", "WRITE");
+
+        // Act
+        ResponseEntity<?> response = authController.verify(cuerpo, "Bearer abc.def.ghi");
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> responseBody = (Map<String, Object>) response.getBody();
+        assertEquals(true, responseBody.get("valido"));
+        assertEquals(1L, responseBody.get("usuarioId"));
+        assertEquals("ADMIN", responseBody.get("rol"));
+        assertEquals(true, responseBody.get("autorizado"));
+        verifyNoInteractions(usuarioRepository, permisoEngine);
+    }
+
+    @Test
+    void verify_TokenInvalido_Retorna401() {
+        // Arrange
+        when(tokenService.verificar("abc.def.ghi")).thenThrow(new TokenInvalidoException("Firma inválida"));
+        Map<String, String> cuerpo = new HashMap<>();
+        cuerpo.put("token", "abc.def.ghi");
+
+        // Act
+        ResponseEntity<?> response = authController.verify(cuerpo, null);
+
+        // Assert
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> responseBody = (Map<String, Object>) response.getBody();
+        assertEquals(false, responseBody.get("valido"));
+        assertEquals("Firma inválida", responseBody.get("mensaje"));
+    }
+
+    @Test
+    void authorize_ConsultaIndividual_RespondeDesdeElMotor() {
+        // Arrange
+        AutorizacionDTO autorizacion = new AutorizacionDTO();
+        autorizacion.setUsername("usuario1");
+        autorizacion.setPermiso("READ");
+        when(permisoEngine.estaCargado()).thenReturn(true);
+        when(permisoEngine.autorizado("usuario1", "READ")).thenReturn(true);
+
+        // Act
+        ResponseEntity<?> response = authController.authorize(autorizacion);
+
+        // Assert
+        assertTrue(response.getStatusCode().is2xxSuccessful());
+        ResultadoAutorizacionDTO resultado = (ResultadoAutorizacionDTO) response.getBody();
+        assertTrue(resultado.isPermitido());
+        verifyNoInteractions(usuarioRepository);
+    }
+
+    @Test
+    void authorize_ConsultaEnLote_RespondeCadaVerificacion() {
+        // Arrange
+        AutorizacionDTO lectura = new AutorizacionDTO();
+        lectura.setUsername("usuario1");
+        lectura.setPermiso("READ");
+        AutorizacionDTO escritura = new AutorizacionDTO();
+        escritura.setUsername("usuario1");
+        escritura.setPermiso("WRITE");
+        AutorizacionDTO lote = new AutorizacionDTO();
+        lote.setConsultas(Arrays.asList(lectura, escritura));
+        when(permisoEngine.estaCargado()).thenReturn(true);
+        when(permisoEngine.autorizado("usuario1", "READ")).thenReturn(true);
+        when(permisoEngine.autorizado("usuario1", "WRITE")).thenReturn(false);
+
+        // Act
+        ResponseEntity<?> response = authController.authorize(lote);
+
+        // Assert
+        assertTrue(response.getStatusCode().is2xxSuccessful());
+        List<?> resultados = (List<?>) response.getBody();
+        assertEquals(2, resultados.size());
+        assertTrue(((ResultadoAutorizacionDTO) resultados.get(0)).isPermitido());
+        assertFalse(((ResultadoAutorizacionDTO) resultados.get(1)).isPermitido());
+    }
+
+    @Test
+    void authorize_SinPermiso_RetornaBadRequest() {
+        // Arrange
+        AutorizacionDTO autorizacion = new AutorizacionDTO();
+        autorizacion.setUsername("usuario1");
+        when(permisoEngine.estaCargado()).thenReturn(true);
+
+        // Act
+        ResponseEntity<?> response = authController.authorize(autorizacion);
+
+        // Assert
+        assertTrue(response.getStatusCode().is4xxClientError());
+        verify(permisoEngine, never()).autorizado(anyString(), anyString());
+    }
+
+    @Test
+    void authorize_MotorNoCargado_RetornaServicioNoDisponible() {
+        // Arrange
+        AutorizacionDTO autorizacion = new AutorizacionDTO();
+        autorizacion.setUsername("usuario1");
+        autorizacion.setPermiso("READ");
+        when(permisoEngine.estaCargado()).thenReturn(false);
+
+        // Act
+        ResponseEntity<?> response = authController.authorize(autorizacion);
+
+        // Assert
+        assertEquals(503, response.getStatusCode().value());
+    }
+
+    private Usuario usuarioConPassword(String password) {
+        return usuarioConPasswordGuardada(passwordHashService.hash(password));
+    }
+
+    private Usuario usuarioConPasswordGuardada(String guardada) {
+        Rol rol = new Rol();
+        rol.setId(1L);
+        rol.setNombre("ADMIN");
+        Usuario usuario = new Usuario();
+        usuario.setId(1L);
+        usuario.setUsername("usuario1");
+        usuario.setPassword(guardada);
+        usuario.setRol(rol);
+        return usuario;
+    }
+}
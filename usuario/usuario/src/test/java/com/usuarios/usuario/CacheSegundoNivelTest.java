@@ -0,0 +1,108 @@
+package com.usuarios.usuario;
+
+import com.usuarios.usuario.dto.RolDTO;
+import com.usuarios.usuario.models.Rol;
+import com.usuarios.usuario.repository.RolRepository;
+import com.usuarios.usuario.repository.UsuarioRepository;
+import com.usuarios.usuario.services.RolService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Perfil "cache": Rol y sus permisos en la caché de segundo nivel (READ_WRITE). Cada lectura corre
+// en su propia transacción, como las de RolService, así que no hay primer nivel compartido
+@SpringBootTest(properties = "usuarios.catalogo-roles.habilitado=false")
+@ActiveProfiles({"test", "cache"})
+class CacheSegundoNivelTest {
+
+    private static final String REGION_ROL = Rol.class.getName();
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private RolRepository rolRepository;
+
+    @Autowired
+    private RolService rolService;
+
+    private SessionFactory sessionFactory;
+    private Statistics estadisticas;
+    private Long rolId;
+
+    @BeforeEach
+    void setUp() {
+        usuarioRepository.deleteAll();
+        rolRepository.deleteAll();
+        rolId = rolRepository.save(Rol.builder().nombre("ADMIN").permisos(new ArrayList<>(Arrays.asList("READ", "WRITE")))
+            .build()).getId();
+
+        // El alta ya deja el rol en la caché: se vacía para que la primera lectura vaya a la base
+        sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        estadisticas = sessionFactory.getStatistics();
+        estadisticas.clear();
+    }
+
+    @Test
+    void findById_SegundaLectura_SeSirveDesdeLaCacheSinSentencias() {
+        leer();
+        long sentenciasPrimera = estadisticas.getPrepareStatementCount();
+        assertTrue(sentenciasPrimera > 0);
+        assertTrue(estadisticas.getDomainDataRegionStatistics(REGION_ROL).getPutCount() > 0);
+
+        Rol rol = leer();
+
+        assertEquals(sentenciasPrimera, estadisticas.getPrepareStatementCount());
+        assertEquals(1, estadisticas.getDomainDataRegionStatistics(REGION_ROL).getHitCount());
+        assertEquals(List.of("READ", "WRITE"), new ArrayList<>(rol.getPermisos()));
+    }
+
+    @Test
+    void findById_TrasActualizar_NoDevuelveElEstadoAnterior() {
+        Rol antes = leer();
+        leer();
+        assertEquals(1, estadisticas.getDomainDataRegionStatistics(REGION_ROL).getHitCount());
+
+        RolDTO cambios = new RolDTO();
+        cambios.setNombre("auditor");
+        cambios.setPermisos(new ArrayList<>(List.of("READ")));
+        rolService.actualizarRol(rolId, cambios);
+
+        // La entrada del rol y la de sus permisos se reemplazan al confirmar el UPDATE; PersistentBag
+        // compara por identidad, de ahí las copias
+        Rol despues = leer();
+        assertEquals("AUDITOR", despues.getNombre());
+        assertEquals(antes.getVersion() + 1, despues.getVersion());
+        assertEquals(List.of("READ"), new ArrayList<>(despues.getPermisos()));
+        assertEquals(List.of("READ"), new ArrayList<>(leer().getPermisos()));
+    }
+
+    private Rol leer() {
+        return transactionTemplate.execute(estado -> {
+            Rol rol = rolRepository.findById(rolId).orElseThrow();
+            Hibernate.initialize(rol.getPermisos());
+            return rol;
+        });
+    }
+}
@@ -0,0 +1,122 @@
+package com.usuarios.usuario;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.usuarios.usuario.controllers.CatalogoRolesInterceptor;
+import com.usuarios.usuario.models.Rol;
+import com.usuarios.usuario.repository.RolRepository;
+import com.usuarios.usuario.services.CatalogoRolesService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogoRolesInterceptorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private CatalogoRolesService catalogoRolesService;
+    private CatalogoRolesInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        RolRepository rolRepository = mock(RolRepository.class);
+        Rol admin = new Rol();
+        admin.setId(1L);
+        admin.setNombre("ADMIN");
+        admin.setVersion(2L);
+        admin.setPermisos(Arrays.asList("READ", "WRITE"));
+        when(rolRepository.findAll()).thenReturn(new ArrayList<>(List.of(admin)));
+
+        catalogoRolesService = new CatalogoRolesService(
+            rolRepository, new ObjectMapper(), mock(PlatformTransactionManager.class), true, true, 30);
+        catalogoRolesService.cargar();
+        meterRegistry = new SimpleMeterRegistry();
+        interceptor = new CatalogoRolesInterceptor(catalogoRolesService, meterRegistry);
+    }
+
+    @Test
+    void preHandle_ListadoSinParametros_SirveDesdeLaCache() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertFalse(interceptor.preHandle(get("/api/roles"), response, null));
+        assertEquals(200, response.getStatus());
+        assertEquals("application/json", response.getContentType());
+        assertEquals("\"" + catalogoRolesService.vigente().getLista().getHuella() + "\"", response.getHeader("ETag"));
+        assertArrayEquals(catalogoRolesService.vigente().getLista().getJson(), response.getContentAsByteArray());
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals(1.0, meterRegistry.find("usuarios.catalogo.roles.respuestas").tag("estado", "200").counter().count());
+    }
+
+    @Test
+    void preHandle_RolPorIdAceptandoGzip_SirveCuerpoComprimido() throws Exception {
+        MockHttpServletRequest request = get("/api/roles/1");
+        request.addHeader("Accept-Encoding", "br, gzip;q=0.8");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertFalse(interceptor.preHandle(request, response, null));
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertEquals("\"2\"", response.getHeader("ETag"));
+        assertEquals("Accept, Accept-Encoding", response.getHeader("Vary"));
+        assertArrayEquals(catalogoRolesService.vigente().getRol(1L).getGzip(), response.getContentAsByteArray());
+    }
+
+    @Test
+    void preHandle_IfNoneMatchCoincide_Retorna304SinCuerpo() throws Exception {
+        MockHttpServletRequest request = get("/api/roles/1");
+        request.addHeader("If-None-Match", "W/\"2\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertFalse(interceptor.preHandle(request, response, null));
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void preHandle_SolicitudNoCacheable_SigueAlControlador() throws Exception {
+        MockHttpServletRequest conParametros = get("/api/roles");
+        conParametros.setQueryString("limit=10");
+        MockHttpServletRequest xml = get("/api/roles");
+        xml.addHeader("Accept", "application/xml");
+        MockHttpServletRequest cbor = get("/api/roles");
+        cbor.addHeader("Accept", "application/cbor, application/json;q=0.5");
+        MockHttpServletRequest post = new MockHttpServletRequest("POST", "/api/roles/crear");
+
+        assertTrue(interceptor.preHandle(conParametros, new MockHttpServletResponse(), null));
+        assertTrue(interceptor.preHandle(xml, new MockHttpServletResponse(), null));
+        assertTrue(interceptor.preHandle(cbor, new MockHttpServletResponse(), null));
+        assertTrue(interceptor.preHandle(post, new MockHttpServletResponse(), null));
+        assertTrue(interceptor.preHandle(get("/api/roles/99"), new MockHttpServletResponse(), null));
+        assertTrue(interceptor.preHandle(get("/api/roles/abc"), new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    void preHandle_AcceptEncoding_ComprimeSoloSiElClienteAceptaGzip() throws Exception {
+        assertEquals("gzip", codificacion("gzip, deflate"));
+        assertEquals("gzip", codificacion("*"));
+        assertNull(codificacion("gzip;q=0"));
+        assertNull(codificacion("identity"));
+        assertNull(codificacion(null));
+    }
+
+    private String codificacion(String acceptEncoding) throws Exception {
+        MockHttpServletRequest request = get("/api/roles");
+        if (acceptEncoding != null) {
+            request.addHeader("Accept-Encoding", acceptEncoding);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, null);
+        return response.getHeader("Content-Encoding");
+    }
+
+    private static MockHttpServletRequest get(String uri) {
+        return new MockHttpServletRequest("GET", uri);
+    }
+}
@@ -0,0 +1,153 @@
+package com.usuarios.usuario;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.usuarios.usuario.dto.PaginaDTO;
+import com.usuarios.usuario.models.Rol;
+import com.usuarios.usuario.repository.RolRepository;
+import com.usuarios.usuario.services.CatalogoRolesService;
+import com.usuarios.usuario.services.CatalogoRolesService.Instantanea;
+import com.usuarios.usuario.services.RolService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogoRolesServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private RolRepository rolRepository;
+    private CatalogoRolesService catalogoRolesService;
+
+    @BeforeEach
+    void setUp() {
+        rolRepository = mock(RolRepository.class);
+        when(rolRepository.findAll()).thenReturn(Arrays.asList(rol(2L, "USER", 0L, "READ"), rol(1L, "ADMIN", 3L, "READ", "WRITE")));
+
+        catalogoRolesService = new CatalogoRolesService(
+            rolRepository, objectMapper, mock(PlatformTransactionManager.class), true, true, 30);
+        catalogoRolesService.cargar();
+    }
+
+    @Test
+    void cargar_SerializaListadoYCadaRol() throws Exception {
+        Instantanea instantanea = catalogoRolesService.vigente();
+
+        assertNotNull(instantanea);
+        assertEquals(2, instantanea.cantidadRoles());
+        // Misma huella que RolController calcula sobre la primera página
+        assertEquals(huella(rol(1L, "ADMIN", 3L), rol(2L, "USER", 0L)), instantanea.getLista().getHuella());
+        JsonNode lista = objectMapper.readTree(instantanea.getLista().getJson());
+        assertTrue(lista.get("exito").asBoolean());
+        assertEquals("Roles obtenidos exitosamente", lista.get("mensaje").asText());
+        assertEquals(1L, lista.get("data").get("items").get(0).get("id").asLong());
+        assertTrue(lista.get("data").get("siguienteCursor").isNull());
+
+        assertEquals("3", instantanea.getRol(1L).getHuella());
+        JsonNode admin = objectMapper.readTree(instantanea.getRol(1L).getJson());
+        assertEquals("ADMIN", admin.get("data").get("nombre").asText());
+        assertNull(instantanea.getRol(99L));
+    }
+
+    @Test
+    void cargar_GzipDescomprimeAlMismoJson() throws Exception {
+        Instantanea instantanea = catalogoRolesService.vigente();
+
+        try (GZIPInputStream entrada = new GZIPInputStream(new ByteArrayInputStream(instantanea.getLista().getGzip()))) {
+            assertArrayEquals(instantanea.getLista().getJson(), entrada.readAllBytes());
+        }
+    }
+
+    @Test
+    void cargar_MasRolesQueElLimite_IncluyeCursor() throws Exception {
+        List<Rol> roles = new ArrayList<>();
+        for (long id = 1; id <= 60; id++) {
+            roles.add(rol(id, "R" + id, 0L, "READ"));
+        }
+        when(rolRepository.findAll()).thenReturn(roles);
+
+        catalogoRolesService.reconstruir();
+
+        JsonNode lista = objectMapper.readTree(catalogoRolesService.vigente().getLista().getJson());
+        assertEquals(50, lista.get("data").get("items").size());
+        assertFalse(lista.get("data").get("siguienteCursor").isNull());
+        assertEquals(60, catalogoRolesService.vigente().cantidadRoles());
+    }
+
+    @Test
+    void invalidar_ReconstruyeEnSegundoPlano_YMientrasTantoNoHayInstantanea() throws Exception {
+        Instantanea anterior = catalogoRolesService.vigente();
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(rolRepository.findAll()).thenAnswer(invocacion -> {
+            liberar.await();
+            return Collections.singletonList(rol(1L, "ADMIN", 4L, "READ"));
+        });
+
+        catalogoRolesService.invalidar();
+        catalogoRolesService.invalidar();
+
+        // La reconstrucción está bloqueada en la consulta: las lecturas pasan al controlador
+        assertNull(catalogoRolesService.vigente());
+        liberar.countDown();
+
+        Instantanea nueva = esperarInstantanea();
+        assertNotSame(anterior, nueva);
+        assertEquals(huella(rol(1L, "ADMIN", 4L)), nueva.getLista().getHuella());
+        assertEquals("4", nueva.getRol(1L).getHuella());
+        assertNull(nueva.getRol(2L));
+    }
+
+    @Test
+    void reconstruir_ConError_DejaSinInstantanea() {
+        when(rolRepository.findAll()).thenThrow(new RuntimeException("sin conexión"));
+
+        catalogoRolesService.reconstruir();
+
+        assertNull(catalogoRolesService.vigente());
+    }
+
+    @Test
+    void vigente_Deshabilitado_RetornaNull() {
+        CatalogoRolesService deshabilitado = new CatalogoRolesService(
+            rolRepository, objectMapper, mock(PlatformTransactionManager.class), false, true, 30);
+        deshabilitado.cargar();
+
+        assertNull(deshabilitado.vigente());
+        verify(rolRepository, times(1)).findAll();
+    }
+
+    private Instantanea esperarInstantanea() throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        Instantanea instantanea = catalogoRolesService.vigente();
+        while (instantanea == null && System.nanoTime() < limite) {
+            Thread.sleep(10);
+            instantanea = catalogoRolesService.vigente();
+        }
+        assertNotNull(instantanea);
+        return instantanea;
+    }
+
+    private static String huella(Rol... roles) {
+        return RolService.huella(new PaginaDTO<>(Arrays.asList(roles), null, null));
+    }
+
+    private static Rol rol(Long id, String nombre, Long version, String... permisos) {
+        Rol rol = new Rol();
+        rol.setId(id);
+        rol.setNombre(nombre);
+        rol.setVersion(version);
+        rol.setPermisos(Arrays.asList(permisos));
+        return rol;
+    }
+}
@@ -0,0 +1,55 @@
+package com.usuarios.usuario;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import com.usuarios.usuario.config.ConflictosInterceptor;
+import com.usuarios.usuario.controllers.RolController;
+import com.usuarios.usuario.dto.RolDTO;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConflictosInterceptorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConflictosInterceptor interceptor;
+    private HandlerMethod crearRol;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        interceptor = new ConflictosInterceptor(meterRegistry);
+        crearRol = new HandlerMethod(new RolController(), RolController.class.getMethod("crearRol", RolDTO.class));
+    }
+
+    @Test
+    void afterCompletion_RespuestaConflicto_IncrementaContadorPorMetodo() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setStatus(409);
+
+        interceptor.afterCompletion(new MockHttpServletRequest(), response, crearRol, null);
+        interceptor.afterCompletion(new MockHttpServletRequest(), response, crearRol, null);
+
+        Counter counter = meterRegistry.find("usuarios.conflictos")
+            .tag("controlador", "RolController")
+            .tag("metodo", "crearRol")
+            .counter();
+        assertNotNull(counter);
+        assertEquals(2.0, counter.count());
+    }
+
+    @Test
+    void afterCompletion_OtroEstado_NoRegistraContador() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setStatus(200);
+
+        interceptor.afterCompletion(new MockHttpServletRequest(), response, crearRol, null);
+
+        assertNull(meterRegistry.find("usuarios.conflictos").counter());
+    }
+}
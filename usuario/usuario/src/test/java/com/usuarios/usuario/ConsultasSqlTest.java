@@ -0,0 +1,210 @@
+package com.usuarios.usuario;
+
+import com.usuarios.usuario.models.Rol;
+import com.usuarios.usuario.models.Usuario;
+import com.usuarios.usuario.repository.RolRepository;
+import com.usuarios.usuario.repository.UsuarioRepository;
+import com.usuarios.usuario.services.PasswordHashService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Cantidad de sentencias SQL por endpoint con el plan de carga de cada caso de uso. Los datos se
+// cargan con los repositorios, así que la caché serializada de roles queda fuera
+@SpringBootTest(properties = "usuarios.catalogo-roles.habilitado=false")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConsultasSqlTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private RolRepository rolRepository;
+
+    @Autowired
+    private PasswordHashService passwordHashService;
+
+    private Statistics estadisticas;
+    private Rol admin;
+    private List<Usuario> usuarios;
+
+    @BeforeEach
+    void setUp() {
+        usuarioRepository.deleteAll();
+        rolRepository.deleteAll();
+
+        admin = rolRepository.save(Rol.builder().nombre("ADMIN").permisos(Arrays.asList("READ", "WRITE")).build());
+        Rol user = rolRepository.save(Rol.builder().nombre("USER").permisos(Arrays.asList("READ")).build());
+
+        usuarios = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Usuario usuario = new Usuario();
+            usuario.setUsername("usuario" + i);
+            usuario.setPassword(passwordHashService.hash("password" + i));
+            usuario.setNombreCompleto("Usuario " + i);
+            usuario.setRol(i % 2 == 0 ? admin : user);
+            usuarios.add(usuarioRepository.save(usuario));
+        }
+
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+    }
+
+    @Test
+    void login_UnaSolaSentencia() throws Exception {
+        mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"usuario0\",\"password\":\"password0\"}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.rol").value("ADMIN"));
+
+        assertEquals(1, estadisticas.getPrepareStatementCount());
+    }
+
+    @Test
+    void login_ConPasswordHeredada_QuedaCifradaTrasElPrimerLogin() throws Exception {
+        Usuario heredado = usuarios.get(1);
+        heredado.setPassword("heredada");
+        usuarioRepository.save(heredado);
+
+        mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"usuario1\",\"password\":\"heredada\"}"))
+            .andExpect(status().isOk());
+
+        // El rehash se guarda en segundo plano
+        String guardada = heredado.getPassword();
+        for (int i = 0; i < 100 && !passwordHashService.esHash(guardada); i++) {
+            Thread.sleep(20);
+            guardada = usuarioRepository.findById(heredado.getId()).orElseThrow().getPassword();
+        }
+        assertTrue(passwordHashService.esHash(guardada));
+        assertTrue(passwordHashService.verificar("heredada", guardada).join());
+    }
+
+    @Test
+    void listaUsuarios_ProyeccionEnUnaSolaSentencia() throws Exception {
+        mockMvc.perform(get("/api/usuarios"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items.length()").value(6))
+            .andExpect(jsonPath("$.items[0].rolNombre").value("ADMIN"))
+            .andExpect(jsonPath("$.items[0].password").doesNotExist());
+
+        assertEquals(1, estadisticas.getPrepareStatementCount());
+        assertEquals(0, estadisticas.getEntityLoadCount());
+    }
+
+    @Test
+    void detalleUsuario_ProyeccionEnUnaSolaSentencia() throws Exception {
+        mockMvc.perform(get("/api/usuarios/" + usuarios.get(0).getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.username").value("usuario0"))
+            .andExpect(jsonPath("$.password").doesNotExist());
+
+        assertEquals(1, estadisticas.getPrepareStatementCount());
+        assertEquals(0, estadisticas.getEntityLoadCount());
+    }
+
+    // El 304 se decide con una proyección de ids y versiones, sin leer la página
+    @Test
+    void listaUsuarios_ConIfNoneMatchVigente_NotModifiedEnUnaSolaSentencia() throws Exception {
+        String etag = mockMvc.perform(get("/api/usuarios")).andReturn().getResponse().getHeader("ETag");
+        estadisticas.clear();
+
+        mockMvc.perform(get("/api/usuarios").header("If-None-Match", etag))
+            .andExpect(status().isNotModified());
+
+        assertEquals(1, estadisticas.getPrepareStatementCount());
+    }
+
+    @Test
+    void listaUsuarios_ConIfNoneMatchObsoleto_ProyeccionYPagina() throws Exception {
+        mockMvc.perform(get("/api/usuarios").header("If-None-Match", "\"obsoleto\""))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items.length()").value(6));
+
+        assertEquals(2, estadisticas.getPrepareStatementCount());
+        assertEquals(0, estadisticas.getEntityLoadCount());
+    }
+
+    @Test
+    void detalleUsuario_ConIfNoneMatchVigente_NotModifiedEnUnaSolaSentencia() throws Exception {
+        String ruta = "/api/usuarios/" + usuarios.get(0).getId();
+        String etag = mockMvc.perform(get(ruta)).andReturn().getResponse().getHeader("ETag");
+        estadisticas.clear();
+
+        mockMvc.perform(get(ruta).header("If-None-Match", etag))
+            .andExpect(status().isNotModified());
+
+        assertEquals(1, estadisticas.getPrepareStatementCount());
+    }
+
+    @Test
+    void listaRoles_RolesMasPermisosEnLote() throws Exception {
+        mockMvc.perform(get("/api/roles"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.items.length()").value(2));
+
+        assertEquals(2, estadisticas.getPrepareStatementCount());
+    }
+
+    @Test
+    void listaRoles_ConIfNoneMatchVigente_NotModifiedSinCargarRoles() throws Exception {
+        String etag = mockMvc.perform(get("/api/roles")).andReturn().getResponse().getHeader("ETag");
+        estadisticas.clear();
+
+        mockMvc.perform(get("/api/roles").header("If-None-Match", etag))
+            .andExpect(status().isNotModified());
+
+        assertEquals(1, estadisticas.getPrepareStatementCount());
+        assertEquals(0, estadisticas.getEntityLoadCount());
+    }
+
+    @Test
+    void detalleRol_ConIfNoneMatchVigente_NotModifiedSinCargarElRol() throws Exception {
+        String ruta = "/api/roles/" + admin.getId();
+        String etag = mockMvc.perform(get(ruta)).andReturn().getResponse().getHeader("ETag");
+        estadisticas.clear();
+
+        mockMvc.perform(get(ruta).header("If-None-Match", etag))
+            .andExpect(status().isNotModified());
+
+        assertEquals(1, estadisticas.getPrepareStatementCount());
+        assertEquals(0, estadisticas.getEntityLoadCount());
+    }
+
+    @Test
+    void detalleRol_UnaSolaSentencia() throws Exception {
+        mockMvc.perform(get("/api/roles/" + admin.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.permisos.length()").value(2));
+
+        assertEquals(1, estadisticas.getPrepareStatementCount());
+    }
+}
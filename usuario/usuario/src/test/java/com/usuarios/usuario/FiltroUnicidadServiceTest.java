@@ -0,0 +1,107 @@
+package com.usuarios.usuario;
+
+import com.usuarios.usuario.repository.UsuarioRepository;
+import com.usuarios.usuario.services.FiltroUnicidadService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.Stream;
+
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FiltroUnicidadServiceTest {
+
+    private UsuarioRepository usuarioRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private FiltroUnicidadService filtroUnicidadService;
+
+    @BeforeEach
+    void setUp() {
+        usuarioRepository = mock(UsuarioRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        filtroUnicidadService = new FiltroUnicidadService(usuarioRepository, 1000, 0.01, meterRegistry);
+        when(usuarioRepository.streamUsernamesYNombres()).thenReturn(Stream.of(
+            new Object[] {"usuario1", "Usuario Uno"},
+            new Object[] {"usuario2", "Usuario Dos"}));
+    }
+
+    @Test
+    void antesDeCargar_NuncaDescartaValores() {
+        assertFalse(filtroUnicidadService.usernameDefinitivamenteAusente("nuevo"));
+        assertFalse(filtroUnicidadService.nombreDefinitivamenteAusente("Usuario Nuevo"));
+    }
+
+    @Test
+    void despuesDeCargar_LosExistentesNuncaSeDescartan() {
+        filtroUnicidadService.cargar();
+
+        assertTrue(filtroUnicidadService.estaCargado());
+        assertFalse(filtroUnicidadService.usernameDefinitivamenteAusente("usuario1"));
+        assertFalse(filtroUnicidadService.usernameDefinitivamenteAusente("usuario2"));
+        assertFalse(filtroUnicidadService.nombreDefinitivamenteAusente("Usuario Uno"));
+    }
+
+    @Test
+    void despuesDeCargar_LaMayoriaDeValoresNuevosSeDescartan() {
+        filtroUnicidadService.cargar();
+
+        int descartados = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (filtroUnicidadService.usernameDefinitivamenteAusente("nuevo" + i)) {
+                descartados++;
+            }
+        }
+        assertTrue(descartados > 950, "descartados: " + descartados);
+    }
+
+    @Test
+    void agregarYQuitar_ActualizanElFiltro() {
+        filtroUnicidadService.cargar();
+
+        filtroUnicidadService.agregar("nuevo", "Usuario Nuevo");
+        assertFalse(filtroUnicidadService.usernameDefinitivamenteAusente("nuevo"));
+        assertFalse(filtroUnicidadService.nombreDefinitivamenteAusente("Usuario Nuevo"));
+
+        filtroUnicidadService.quitar("nuevo", "Usuario Nuevo");
+        assertTrue(filtroUnicidadService.usernameDefinitivamenteAusente("nuevo"));
+        assertTrue(filtroUnicidadService.nombreDefinitivamenteAusente("Usuario Nuevo"));
+        assertFalse(filtroUnicidadService.usernameDefinitivamenteAusente("usuario1"));
+    }
+
+    @Test
+    void reemplazar_QuitaElValorAnteriorYConservaElQueNoCambia() {
+        filtroUnicidadService.cargar();
+
+        filtroUnicidadService.reemplazar("usuario1", "Usuario Uno", "renombrado", "Usuario Uno");
+        assertTrue(filtroUnicidadService.usernameDefinitivamenteAusente("usuario1"));
+        assertFalse(filtroUnicidadService.usernameDefinitivamenteAusente("renombrado"));
+        assertFalse(filtroUnicidadService.nombreDefinitivamenteAusente("Usuario Uno"));
+
+        // Guardar sin cambios no vuelve a sumar: una sola baja deja el nombre fuera del filtro
+        for (int i = 0; i < 20; i++) {
+            filtroUnicidadService.reemplazar("renombrado", "Usuario Uno", "renombrado", "Usuario Uno");
+        }
+        filtroUnicidadService.quitar("renombrado", "Usuario Uno");
+        assertTrue(filtroUnicidadService.nombreDefinitivamenteAusente("Usuario Uno"));
+    }
+
+    @Test
+    void registrarVerificacion_PublicaTasaDeFalsosPositivos() {
+        filtroUnicidadService.cargar();
+        filtroUnicidadService.usernameDefinitivamenteAusente("nuevo");
+        filtroUnicidadService.usernameDefinitivamenteAusente("otro");
+        filtroUnicidadService.usernameDefinitivamenteAusente("tercero");
+
+        // Un "posiblemente presente" que no existía y otro que sí
+        filtroUnicidadService.registrarVerificacionUsername(false);
+        filtroUnicidadService.registrarVerificacionUsername(true);
+
+        assertEquals(1.0, meterRegistry.get("usuarios.bloom.falsos.positivos").tag("filtro", "username").counter().count());
+        double tasa = meterRegistry.get("usuarios.bloom.tasa.falsos.positivos").tag("filtro", "username").gauge().value();
+        double ausentes = meterRegistry.get("usuarios.bloom.verificaciones")
+            .tag("filtro", "username").tag("resultado", "ausente").counter().count();
+        assertEquals(1.0 / (ausentes + 1.0), tasa, 1e-9);
+    }
+}
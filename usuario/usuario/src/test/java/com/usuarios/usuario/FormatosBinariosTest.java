@@ -0,0 +1,109 @@
+package com.usuarios.usuario;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.usuarios.usuario.models.Rol;
+import com.usuarios.usuario.models.Usuario;
+import com.usuarios.usuario.repository.RolRepository;
+import com.usuarios.usuario.repository.UsuarioRepository;
+import com.usuarios.usuario.services.PasswordHashService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+// Negociación de contenido: JSON por defecto, CBOR y Smile cuando el cliente los pide.
+// Misma configuración que ConsultasSqlTest para reutilizar su contexto
+@SpringBootTest(properties = "usuarios.catalogo-roles.habilitado=false")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class FormatosBinariosTest {
+
+    private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private RolRepository rolRepository;
+
+    @Autowired
+    private PasswordHashService passwordHashService;
+
+    @BeforeEach
+    void setUp() {
+        usuarioRepository.deleteAll();
+        rolRepository.deleteAll();
+
+        Rol admin = rolRepository.save(Rol.builder().nombre("ADMIN").permisos(Arrays.asList("READ", "WRITE")).build());
+        for (int i = 0; i < 3; i++) {
+            Usuario usuario = new Usuario();
+            usuario.setUsername("usuario" + i);
+            usuario.setPassword(passwordHashService.hash("password" + i));
+            usuario.setNombreCompleto("Usuario " + i);
+            usuario.setRol(admin);
+            usuarioRepository.save(usuario);
+        }
+    }
+
+    @Test
+    void sinAccept_RespondeJson() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get("/api/usuarios")).andReturn().getResponse();
+
+        assertEquals(200, response.getStatus());
+        assertTrue(MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(response.getContentType())));
+        assertTrue(response.getHeaders("Vary").contains("Accept"));
+    }
+
+    @Test
+    void acceptCbor_RespondeCborConLosMismosDatos() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get("/api/usuarios").accept(MediaType.APPLICATION_CBOR))
+            .andReturn().getResponse();
+
+        assertEquals(200, response.getStatus());
+        assertEquals(MediaType.APPLICATION_CBOR_VALUE, response.getContentType());
+        JsonNode pagina = new CBORMapper().readTree(response.getContentAsByteArray());
+        assertEquals(3, pagina.path("items").size());
+        assertEquals("ADMIN", pagina.path("items").get(0).path("rolNombre").asText());
+    }
+
+    @Test
+    void acceptSmile_EnRolesYLogin() throws Exception {
+        MockHttpServletResponse roles = mockMvc.perform(get("/api/roles").accept(SMILE))
+            .andReturn().getResponse();
+        MockHttpServletResponse login = mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(SMILE)
+                .content("{\"username\":\"usuario0\",\"password\":\"password0\"}"))
+            .andReturn().getResponse();
+
+        assertEquals(SMILE.toString(), roles.getContentType());
+        assertEquals(1, new SmileMapper().readTree(roles.getContentAsByteArray()).path("data").path("items").size());
+        assertEquals(200, login.getStatus());
+        assertEquals("ADMIN", new SmileMapper().readTree(login.getContentAsByteArray()).path("rol").asText());
+    }
+
+    @Test
+    void jsonPreferidoSobreCbor_RespondeJson() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get("/api/usuarios")
+                .header("Accept", "application/json, application/cbor;q=0.5"))
+            .andReturn().getResponse();
+
+        assertTrue(MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(response.getContentType())));
+    }
+}
@@ -0,0 +1,52 @@
+package com.usuarios.usuario;
+
+import com.usuarios.usuario.config.HintsNativos;
+import com.usuarios.usuario.dto.ResponseDTO;
+import com.usuarios.usuario.dto.UsuarioResumenDTO;
+import com.usuarios.usuario.models.Rol;
+import com.usuarios.usuario.models.Usuario;
+import com.usuarios.usuario.repository.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.data.repository.Repository;
+import org.springframework.transaction.interceptor.TransactionalProxy;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HintsNativosTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @BeforeEach
+    void setUp() {
+        new HintsNativos().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void registerHints_EntidadesConConstructoresYCampos() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(Usuario.class)
+            .withMemberCategories(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.DECLARED_FIELDS)
+            .test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(Rol.class, "getPermisos").test(hints));
+    }
+
+    @Test
+    void registerHints_DtosParaJackson() {
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(ResponseDTO.class, "getData").test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(UsuarioResumenDTO.class)
+            .withMemberCategories(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)
+            .test(hints));
+    }
+
+    @Test
+    void registerHints_ProxiesDeRepositorios() {
+        Class<?>[] interfaces = AopProxyUtils.completeJdkProxyInterfaces(
+            UsuarioRepository.class, Repository.class, TransactionalProxy.class);
+
+        assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(interfaces).test(hints));
+    }
+}
@@ -0,0 +1,104 @@
+package com.usuarios.usuario;
+
+import com.usuarios.usuario.dto.ResultadoBusquedaDTO;
+import com.usuarios.usuario.repository.UsuarioRepository;
+import com.usuarios.usuario.services.IndiceBusquedaService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndiceBusquedaServiceTest {
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    @InjectMocks
+    private IndiceBusquedaService indiceBusquedaService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        when(usuarioRepository.streamIdsUsernamesYNombres()).thenReturn(Stream.of(
+            new Object[] {1L, "ana", "Ana García"},
+            new Object[] {2L, "anabel", "Anabel Ruiz"},
+            new Object[] {3L, "jperez", "Juan Pérez Anaya"},
+            new Object[] {4L, "mlopez", "María López"}
+        ));
+
+        indiceBusquedaService.cargar();
+    }
+
+    @Test
+    void cargar_IndexaTodosLosUsuarios() {
+        assertTrue(indiceBusquedaService.estaCargado());
+        assertEquals(4, indiceBusquedaService.tamanio());
+    }
+
+    @Test
+    void buscar_Prefijo_OrdenaExactoUsernameNombreYSubcadena() {
+        // "ana": username exacto, prefijo de username, prefijo de palabra del nombre
+        assertEquals(List.of(1L, 2L, 3L), ids(indiceBusquedaService.buscar("ana", 10)));
+    }
+
+    @Test
+    void buscar_SinTildesNiMayusculas_EncuentraNombre() {
+        assertEquals(List.of(3L), ids(indiceBusquedaService.buscar("PEREZ", 10)));
+        assertEquals(List.of(4L), ids(indiceBusquedaService.buscar("maría ló", 10)));
+    }
+
+    @Test
+    void buscar_Subcadena_UsaTrigramas() {
+        assertEquals(List.of(4L), ids(indiceBusquedaService.buscar("opez", 10)));
+        assertEquals(List.of(2L), ids(indiceBusquedaService.buscar("bel r", 10)));
+        assertTrue(indiceBusquedaService.buscar("zzz", 10).isEmpty());
+    }
+
+    @Test
+    void buscar_RespetaElLimite() {
+        assertEquals(List.of(1L), ids(indiceBusquedaService.buscar("an", 1)));
+    }
+
+    @Test
+    void indexar_ActualizacionReemplazaLosTerminosAnteriores() {
+        indiceBusquedaService.indexar(4L, "mlopez", "Marta López");
+
+        assertTrue(indiceBusquedaService.buscar("maria", 10).isEmpty());
+        assertEquals(List.of(4L), ids(indiceBusquedaService.buscar("marta", 10)));
+        assertEquals(List.of(4L), ids(indiceBusquedaService.buscar("mlo", 10)));
+        assertEquals(4, indiceBusquedaService.tamanio());
+    }
+
+    @Test
+    void quitar_EliminaDelTrieYDeLosTrigramas() {
+        indiceBusquedaService.quitar(2L);
+
+        assertEquals(List.of(1L, 3L), ids(indiceBusquedaService.buscar("ana", 10)));
+        assertTrue(indiceBusquedaService.buscar("abel", 10).isEmpty());
+        assertEquals(3, indiceBusquedaService.tamanio());
+    }
+
+    @Test
+    void indexar_IdsFueraDeOrden_MantieneLasListasOrdenadas() {
+        indiceBusquedaService.indexar(20L, "zanahoria", "Ana Zeta");
+        indiceBusquedaService.indexar(10L, "ana10", "Ana Diez");
+        indiceBusquedaService.quitar(20L);
+
+        assertEquals(List.of(1L, 10L, 2L, 3L), ids(indiceBusquedaService.buscar("ana", 10)));
+        assertTrue(indiceBusquedaService.buscar("zeta", 10).isEmpty());
+        assertEquals(List.of(10L), ids(indiceBusquedaService.buscar("ana diez", 10)));
+    }
+
+    private List<Long> ids(List<ResultadoBusquedaDTO> resultados) {
+        return resultados.stream().map(ResultadoBusquedaDTO::getId).collect(Collectors.toList());
+    }
+}
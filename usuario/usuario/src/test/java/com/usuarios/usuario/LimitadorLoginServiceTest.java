@@ -0,0 +1,107 @@
+package com.usuarios.usuario;
+
+import com.usuarios.usuario.services.LimitadorLoginService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LimitadorLoginServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void intentar_PermiteLaRafagaYLuegoLimitaPorUsername() {
+        LimitadorLoginService limitador = new LimitadorLoginService(true, 3, 10, 100, 1000, 1000, meterRegistry);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limitador.intentar("ana", "10.0.0.1"));
+        }
+        long espera = limitador.intentar("ana", "10.0.0.1");
+
+        // 10 por minuto: el siguiente intento se habilita en hasta 6 segundos
+        assertTrue(espera > 0);
+        assertTrue(espera <= TimeUnit.SECONDS.toNanos(6));
+        assertEquals(0, limitador.intentar("luis", "10.0.0.1"));
+        assertEquals(1.0, meterRegistry.counter("usuarios.login.limitados", "clave", "username").count());
+    }
+
+    @Test
+    void intentar_LimitaPorIpAunqueCambieElUsername() {
+        LimitadorLoginService limitador = new LimitadorLoginService(true, 100, 1000, 2, 10, 1000, meterRegistry);
+
+        assertEquals(0, limitador.intentar("u1", "10.0.0.2"));
+        assertEquals(0, limitador.intentar("u2", "10.0.0.2"));
+        assertTrue(limitador.intentar("u3", "10.0.0.2") > 0);
+        assertEquals(0, limitador.intentar("u3", "10.0.0.3"));
+        assertEquals(1.0, meterRegistry.counter("usuarios.login.limitados", "clave", "ip").count());
+    }
+
+    @Test
+    void intentar_SinLimitePorIp_SoloLimitaPorUsername() {
+        LimitadorLoginService limitador = new LimitadorLoginService(true, 100, 1000, 2, 0, 1000, meterRegistry);
+
+        // Detrás de un proxy todos los clientes llegan con la misma IP
+        for (int i = 0; i < 50; i++) {
+            assertEquals(0, limitador.intentar("u" + i, "10.0.0.2"));
+        }
+        assertEquals(50, limitador.claves());
+    }
+
+    @Test
+    void intentar_Deshabilitado_SiemprePermite() {
+        LimitadorLoginService limitador = new LimitadorLoginService(false, 1, 1, 1, 1, 1000, meterRegistry);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, limitador.intentar("ana", "10.0.0.1"));
+        }
+        assertEquals(0, limitador.claves());
+    }
+
+    @Test
+    void intentar_MantieneAcotadaLaCantidadDeClaves() {
+        LimitadorLoginService limitador = new LimitadorLoginService(true, 5, 10, 1_000_000, 1_000_000, 640, meterRegistry);
+
+        for (int i = 0; i < 10_000; i++) {
+            limitador.intentar("usuario" + i, "10.0.0.1");
+        }
+
+        // 640 claves repartidas en 64 franjas por cada tipo de límite
+        assertTrue(limitador.claves() <= 2 * 640);
+    }
+
+    @Test
+    void intentar_ConcurrenteSobreLaMismaClave_NoSuperaLaRafaga() throws Exception {
+        LimitadorLoginService limitador = new LimitadorLoginService(true, 50, 1, 1_000_000, 1_000_000, 1000, meterRegistry);
+        ExecutorService hilos = Executors.newFixedThreadPool(8);
+        CountDownLatch inicio = new CountDownLatch(1);
+        AtomicInteger permitidos = new AtomicInteger();
+
+        for (int h = 0; h < 8; h++) {
+            hilos.execute(() -> {
+                try {
+                    inicio.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < 100; i++) {
+                    if (limitador.intentar("objetivo", null) == 0) {
+                        permitidos.incrementAndGet();
+                    }
+                }
+            });
+        }
+        inicio.countDown();
+        hilos.shutdown();
+        assertTrue(hilos.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(50, permitidos.get());
+    }
+}
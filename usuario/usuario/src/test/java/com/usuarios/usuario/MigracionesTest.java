@@ -0,0 +1,104 @@
+package com.usuarios.usuario;
+
+import com.usuarios.usuario.config.V2__SecuenciasVersionAuditoria;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Paso de ids por identidad a secuencias sobre una base con datos: V1 es el esquema anterior,
+// se llena como lo haría la versión previa y luego se aplican V2 y V3
+class MigracionesTest {
+
+    private static final String URL = "jdbc:h2:mem:migraciones;MODE=Oracle;DB_CLOSE_DELAY=-1";
+
+    private Connection conexion;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        conexion = DriverManager.getConnection(URL, "sa", "");
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Statement sentencia = conexion.createStatement()) {
+            sentencia.execute("DROP ALL OBJECTS");
+        }
+        conexion.close();
+    }
+
+    @Test
+    void migrate_BaseConDatos_SecuenciasEmpiezanDespuesDelIdMaximo() throws SQLException {
+        flyway("1").migrate();
+        try (Statement sentencia = conexion.createStatement()) {
+            sentencia.execute("INSERT INTO roles (nombre) VALUES ('ADMIN')");
+            for (int i = 0; i < 120; i++) {
+                sentencia.execute("INSERT INTO usuarios (nombre_completo, username, password, rol_id)"
+                    + " SELECT 'Usuario " + i + "', 'usuario" + i + "', 'x', MAX(id) FROM roles");
+            }
+        }
+        long maximo = valor("SELECT MAX(id) FROM usuarios");
+
+        flyway(null).migrate();
+
+        // El optimizador pooled asigna desde nextval - 49: el primer id nuevo es max(id) + 1
+        long siguiente = valor("SELECT usuarios_seq.NEXTVAL FROM dual");
+        assertEquals(maximo + 1, siguiente - (V2__SecuenciasVersionAuditoria.INCREMENTO - 1));
+        assertEquals(valor("SELECT MAX(id) FROM roles") + 1,
+            valor("SELECT roles_seq.NEXTVAL FROM dual") - (V2__SecuenciasVersionAuditoria.INCREMENTO - 1));
+        assertEquals(0, valor("SELECT COUNT(*) FROM usuarios WHERE version <> 0"));
+    }
+
+    @Test
+    void migrate_BaseConDatos_IdsYaNoSonDeIdentidad() throws SQLException {
+        flyway("1").migrate();
+        try (Statement sentencia = conexion.createStatement()) {
+            sentencia.execute("INSERT INTO roles (nombre) VALUES ('ADMIN')");
+        }
+
+        flyway(null).migrate();
+
+        // Hibernate inserta el id de la secuencia; sin id la fila se rechaza
+        try (Statement sentencia = conexion.createStatement()) {
+            sentencia.execute("INSERT INTO roles (id, nombre, version) VALUES (roles_seq.NEXTVAL, 'USER', 0)");
+            assertThrows(SQLException.class, () -> sentencia.execute("INSERT INTO roles (nombre) VALUES ('OTRO')"));
+        }
+    }
+
+    @Test
+    void migrate_BaseVacia_PrimerIdEsUno() throws SQLException {
+        flyway(null).migrate();
+
+        assertEquals(1, valor("SELECT auditoria_seq.NEXTVAL FROM dual") - (V2__SecuenciasVersionAuditoria.INCREMENTO - 1));
+        assertEquals(3, valor("SELECT COUNT(*) FROM information_schema.indexes"
+            + " WHERE index_name IN ('USUARIOS_ROL_IDX', 'ROL_PERMISOS_ROL_IDX', 'USUARIOS_LOGIN_IDX')"));
+    }
+
+    // Mismas ubicaciones que la aplicación; V2 llega como bean allí y aquí se pasa a mano
+    private Flyway flyway(String destino) {
+        FluentConfiguration configuracion = Flyway.configure()
+            .dataSource(URL, "sa", "")
+            .locations("classpath:db/migration")
+            .javaMigrations(new V2__SecuenciasVersionAuditoria());
+        if (destino != null) {
+            configuracion.target(destino);
+        }
+        return configuracion.load();
+    }
+
+    private long valor(String consulta) throws SQLException {
+        try (Statement sentencia = conexion.createStatement(); ResultSet fila = sentencia.executeQuery(consulta)) {
+            fila.next();
+            return fila.getLong(1);
+        }
+    }
+}
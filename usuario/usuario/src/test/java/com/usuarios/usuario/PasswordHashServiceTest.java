@@ -0,0 +1,105 @@
+package com.usuarios.usuario;
+
+import com.usuarios.usuario.services.PasswordHashService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashServiceTest {
+
+    private PasswordHashService servicio = nuevo(2, 16, 4, false);
+
+    @AfterEach
+    void cerrar() {
+        servicio.cerrar();
+    }
+
+    @Test
+    void hash_GeneraBcryptVerificable() {
+        String hash = servicio.hash("secreta");
+
+        assertTrue(servicio.esHash(hash));
+        assertNotEquals("secreta", hash);
+        assertTrue(servicio.verificar("secreta", hash).join());
+        assertFalse(servicio.verificar("otra", hash).join());
+        assertFalse(servicio.requiereRehash(hash));
+    }
+
+    @Test
+    void verificar_PasswordHeredadaEnTextoPlano_SeComparaYRequiereRehash() {
+        assertTrue(servicio.verificar("secreta", "secreta").join());
+        assertFalse(servicio.verificar("secreta", "Secreta").join());
+        assertFalse(servicio.verificar(null, "secreta").join());
+        assertTrue(servicio.requiereRehash("secreta"));
+    }
+
+    @Test
+    void requiereRehash_ConCostoMenorAlActual() {
+        String hashBarato = servicio.hash("secreta");
+        PasswordHashService masCaro = nuevo(1, 16, 5, false);
+        try {
+            assertTrue(masCaro.requiereRehash(hashBarato));
+            assertTrue(masCaro.verificar("secreta", hashBarato).join());
+        } finally {
+            masCaro.cerrar();
+        }
+    }
+
+    @Test
+    void hashTodos_ConservaElOrden() {
+        List<String> hashes = servicio.hashTodos(List.of("uno", "dos", "tres", "cuatro", "cinco"));
+
+        assertEquals(5, hashes.size());
+        assertTrue(servicio.verificar("uno", hashes.get(0)).join());
+        assertTrue(servicio.verificar("cinco", hashes.get(4)).join());
+    }
+
+    @Test
+    void calibrar_EligeUnCostoEntreElMinimoYElMaximo() {
+        PasswordHashService calibrado = nuevo(1, 16, 4, true);
+        try {
+            calibrado.calibrar();
+            assertTrue(calibrado.getCosto() >= 4 && calibrado.getCosto() <= 6);
+            assertTrue(calibrado.verificar("secreta", calibrado.hash("secreta")).join());
+        } finally {
+            calibrado.cerrar();
+        }
+    }
+
+    @Test
+    void verificar_ConColaLlena_Rechaza() {
+        servicio.cerrar();
+        // Un hilo ocupado y un lugar en la cola: la tercera operación se rechaza al instante
+        servicio = new PasswordHashService(1, 1, 12, false, 1, 12, new SimpleMeterRegistry());
+        String hash = servicio.hashAsync("secreta").join();
+
+        CompletableFuture<Boolean> primera = servicio.verificar("secreta", hash);
+        CompletableFuture<Boolean> segunda = servicio.verificar("secreta", hash);
+        CompletableFuture<Boolean> tercera = servicio.verificar("secreta", hash);
+
+        CompletionException error = assertThrows(CompletionException.class, tercera::join);
+        assertInstanceOf(RejectedExecutionException.class, error.getCause());
+        assertTrue(primera.join());
+        assertTrue(segunda.join());
+    }
+
+    @Test
+    void esperar_ConRechazo_LanzaErrorDeNegocio() {
+        RuntimeException error = assertThrows(RuntimeException.class, () -> PasswordHashService.esperar(
+            CompletableFuture.failedFuture(new RejectedExecutionException())));
+
+        assertEquals("Servicio de contraseñas saturado, intente más tarde", error.getMessage());
+    }
+
+    private static PasswordHashService nuevo(int hilos, int cola, int costo, boolean calibrar) {
+        // Objetivo de 1 ms y máximo 6: la calibración termina rápido en cualquier máquina
+        return new PasswordHashService(hilos, cola, costo, calibrar, 1, 6, new SimpleMeterRegistry());
+    }
+}
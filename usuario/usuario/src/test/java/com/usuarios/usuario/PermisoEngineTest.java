@@ -0,0 +1,148 @@
+package com.usuarios.usuario;
+
+import com.usuarios.usuario.models.Rol;
+import com.usuarios.usuario.repository.RolRepository;
+import com.usuarios.usuario.repository.UsuarioRepository;
+import com.usuarios.usuario.services.PermisoEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PermisoEngineTest {
+
+    @Mock
+    private RolRepository rolRepository;
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    @InjectMocks
+    private PermisoEngine permisoEngine;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        Rol admin = rol(1L, "ADMIN", "READ", "WRITE");
+        Rol user = rol(2L, "USER", "READ");
+        when(rolRepository.findAll()).thenReturn(Arrays.asList(admin, user));
+        List<Object[]> usuarios = new ArrayList<>();
+        usuarios.add(new Object[] {10L, "ana", 1L});
+        usuarios.add(new Object[] {11L, "luis", 2L});
+        when(usuarioRepository.findIdsUsernamesYRoles()).thenReturn(usuarios);
+
+        permisoEngine.cargar();
+    }
+
+    @Test
+    void cargar_CompilaRolesYUsuarios() {
+        assertTrue(permisoEngine.estaCargado());
+        assertEquals(2, permisoEngine.cantidadPermisos());
+        assertTrue(permisoEngine.autorizado("ana", "WRITE"));
+        assertTrue(permisoEngine.autorizado("luis", "READ"));
+        assertFalse(permisoEngine.autorizado("luis", "WRITE"));
+    }
+
+    @Test
+    void autorizado_UsuarioOPermisoDesconocido_RetornaFalse() {
+        assertFalse(permisoEngine.autorizado("noExiste", "READ"));
+        assertFalse(permisoEngine.autorizado("ana", "DELETE"));
+        assertFalse(permisoEngine.autorizado(null, "READ"));
+        assertFalse(permisoEngine.autorizado("ana", null));
+    }
+
+    @Test
+    void compilarRol_ActualizaSoloEseRol() {
+        permisoEngine.compilarRol(rol(2L, "USER", "READ", "WRITE", "DELETE"));
+
+        assertTrue(permisoEngine.autorizado("luis", "DELETE"));
+        assertTrue(permisoEngine.autorizado("luis", "WRITE"));
+        assertFalse(permisoEngine.autorizado("ana", "DELETE"));
+    }
+
+    @Test
+    void compilarRol_ConMasDeSesentaYCuatroPermisos_UsaVariasPalabras() {
+        String[] permisos = new String[100];
+        for (int i = 0; i < permisos.length; i++) {
+            permisos[i] = "P" + i;
+        }
+        permisoEngine.compilarRol(rol(3L, "TODOS", permisos));
+        permisoEngine.asignarUsuario(12L, "root", 3L);
+
+        assertTrue(permisoEngine.autorizado("root", "P99"));
+        assertTrue(permisoEngine.autorizado("root", "P0"));
+        assertFalse(permisoEngine.autorizado("root", "READ"));
+        assertFalse(permisoEngine.autorizado("ana", "P99"));
+    }
+
+    @Test
+    void eliminarRol_DejaSinPermisosASusUsuarios() {
+        permisoEngine.eliminarRol(1L);
+
+        assertFalse(permisoEngine.autorizado("ana", "READ"));
+        assertTrue(permisoEngine.autorizado("luis", "READ"));
+    }
+
+    @Test
+    void asignarUsuario_ConCambioDeUsername_OlvidaElAnterior() {
+        permisoEngine.asignarUsuario(10L, "ana.maria", 2L);
+
+        assertFalse(permisoEngine.autorizado("ana", "READ"));
+        assertTrue(permisoEngine.autorizado("ana.maria", "READ"));
+        assertFalse(permisoEngine.autorizado("ana.maria", "WRITE"));
+    }
+
+    @Test
+    void reasignarUsuarios_CambiaElRolDeLosIdsConocidos() {
+        permisoEngine.reasignarUsuarios(Arrays.asList(11L, 99L), 1L);
+
+        assertTrue(permisoEngine.autorizado("luis", "WRITE"));
+        assertTrue(permisoEngine.autorizado("ana", "WRITE"));
+    }
+
+    @Test
+    void eliminarUsuario_QuitaSusPermisos() {
+        permisoEngine.eliminarUsuario(11L);
+
+        assertFalse(permisoEngine.autorizado("luis", "READ"));
+    }
+
+    @Test
+    void perfil_RetornaIdRolYPermisosOrdenados() {
+        permisoEngine.compilarRol(rol(1L, "ADMIN", "WRITE", "READ", "WRITE"));
+
+        PermisoEngine.PerfilUsuario perfil = permisoEngine.perfil("ana");
+
+        assertEquals(10L, perfil.getUsuarioId());
+        assertEquals("ADMIN", perfil.getRol());
+        assertEquals(Arrays.asList("READ", "WRITE"), perfil.getPermisos());
+    }
+
+    @Test
+    void perfil_UsuarioDesconocidoOEliminado_RetornaNull() {
+        permisoEngine.asignarUsuario(10L, "ana.maria", 1L);
+        permisoEngine.eliminarUsuario(11L);
+
+        assertNull(permisoEngine.perfil("ana"));
+        assertNull(permisoEngine.perfil("luis"));
+        assertNull(permisoEngine.perfil(null));
+        assertEquals(10L, permisoEngine.perfil("ana.maria").getUsuarioId());
+    }
+
+    private Rol rol(Long id, String nombre, String... permisos) {
+        Rol rol = new Rol();
+        rol.setId(id);
+        rol.setNombre(nombre);
+        rol.setPermisos(Arrays.asList(permisos));
+        return rol;
+    }
+}
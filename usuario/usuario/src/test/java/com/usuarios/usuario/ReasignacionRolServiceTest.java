@@ -0,0 +1,106 @@
+package com.usuarios.usuario;
+
+import com.usuarios.usuario.dto.ReasignacionDTO;
+import com.usuarios.usuario.models.Rol;
+import com.usuarios.usuario.models.Usuario;
+import com.usuarios.usuario.repository.RolRepository;
+import com.usuarios.usuario.repository.UsuarioRepository;
+import com.usuarios.usuario.services.ReasignacionRolService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Reasignación por bloques contra la base de datos embebida, con bloques de 10 usuarios
+@SpringBootTest(properties = "usuarios.reasignacion.tamanio-bloque=10")
+@ActiveProfiles("test")
+class ReasignacionRolServiceTest {
+
+    @Autowired
+    private ReasignacionRolService reasignacionRolService;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private RolRepository rolRepository;
+
+    private Rol origen;
+    private Rol destino;
+
+    @BeforeEach
+    void setUp() {
+        usuarioRepository.deleteAll();
+        rolRepository.deleteAll();
+
+        origen = rolRepository.save(Rol.builder().nombre("TEMPORAL").permisos(Arrays.asList("READ")).build());
+        destino = rolRepository.save(Rol.builder().nombre("DEFINITIVO").permisos(Arrays.asList("READ")).build());
+
+        List<Usuario> usuarios = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            Usuario usuario = new Usuario();
+            usuario.setUsername("reasignado" + i);
+            usuario.setPassword("password" + i);
+            usuario.setNombreCompleto("Reasignado " + i);
+            usuario.setRol(origen);
+            usuarios.add(usuario);
+        }
+        usuarioRepository.saveAll(usuarios);
+    }
+
+    @Test
+    void iniciar_MueveTodosLosUsuariosPorBloquesYEliminaElOrigen() throws Exception {
+        ReasignacionDTO inicial = reasignacionRolService.iniciar(origen.getId(), destino.getId(), true);
+        assertEquals(25, inicial.getTotal());
+
+        ReasignacionDTO trabajo = esperar(inicial.getId());
+
+        assertEquals("COMPLETADA", trabajo.getEstado());
+        assertEquals(25, trabajo.getProcesados());
+        assertEquals(3, trabajo.getBloques());
+        assertNotNull(trabajo.getFin());
+        assertEquals(25, usuarioRepository.countPorRol(destino));
+        assertFalse(rolRepository.existsById(origen.getId()));
+        // El UPDATE incrementa la versión de cada usuario movido
+        for (Usuario usuario : usuarioRepository.findAll()) {
+            assertEquals(1L, usuario.getVersion());
+        }
+    }
+
+    @Test
+    void iniciar_SinEliminar_ConservaElRolOrigen() throws Exception {
+        ReasignacionDTO trabajo = esperar(reasignacionRolService.iniciar(origen.getId(), destino.getId(), false).getId());
+
+        assertEquals("COMPLETADA", trabajo.getEstado());
+        assertEquals(0, usuarioRepository.countPorRol(rolRepository.getReferenceById(origen.getId())));
+        assertTrue(rolRepository.existsById(origen.getId()));
+    }
+
+    @Test
+    void iniciar_MismoRolOInexistente_LanzaExcepcion() {
+        RuntimeException mismo = assertThrows(RuntimeException.class,
+            () -> reasignacionRolService.iniciar(origen.getId(), origen.getId(), false));
+        assertEquals("El rol destino debe ser distinto del origen", mismo.getMessage());
+
+        RuntimeException inexistente = assertThrows(RuntimeException.class,
+            () -> reasignacionRolService.iniciar(origen.getId(), -1L, false));
+        assertEquals("Rol destino no encontrado", inexistente.getMessage());
+    }
+
+    private ReasignacionDTO esperar(String id) throws InterruptedException {
+        long limite = System.nanoTime() + 10_000_000_000L;
+        ReasignacionDTO trabajo = reasignacionRolService.obtener(id);
+        while (trabajo.getFin() == null && System.nanoTime() < limite) {
+            Thread.sleep(20);
+            trabajo = reasignacionRolService.obtener(id);
+        }
+        return trabajo;
+    }
+}
@@ -3,8 +3,13 @@ package com.usuarios.usuario;
 
 import com.usuarios.usuario.dto.RolDTO;
 import com.usuarios.usuario.controllers.RolController;
+import com.usuarios.usuario.dto.PaginaDTO;
+import com.usuarios.usuario.dto.ReasignacionDTO;
 import com.usuarios.usuario.dto.ResponseDTO;
 import com.usuarios.usuario.models.Rol;
+import com.usuarios.usuario.services.AuditoriaService;
+import com.usuarios.usuario.services.CacheRolesService;
+import com.usuarios.usuario.services.ReasignacionRolService;
 import com.usuarios.usuario.services.RolService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,10 +18,13 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -28,6 +36,15 @@ class RolControllerTest {
     @Mock
     private RolService rolService;
 
+    @Mock
+    private CacheRolesService cacheRolesService;
+
+    @Mock
+    private AuditoriaService auditoriaService;
+
+    @Mock
+    private ReasignacionRolService reasignacionRolService;
+
     @InjectMocks
     private RolController rolController;
 
@@ -59,6 +76,7 @@ class RolControllerTest {
         assertTrue((Boolean) response.getBody().isExito());
         assertEquals("Rol creado exitosamente", response.getBody().getMensaje());
         assertNotNull(response.getBody().getData());
+        verify(auditoriaService).registrar("Rol", 1L, AuditoriaService.Operacion.CREAR, "ADMIN");
     }
 
     @Test
@@ -99,9 +117,10 @@ class RolControllerTest {
     void obtenerTodosLosRoles_CuandoHayRoles_RetornaListaRoles() {
         List<Rol> roles = Arrays.asList(rol, 
             Rol.builder().id(2L).nombre("USER").permisos(Collections.singletonList("READ")).build());
-        when(rolService.obtenerTodosLosRoles()).thenReturn(roles);
+        when(rolService.obtenerPaginaRoles(null, null, false))
+            .thenReturn(new PaginaDTO<>(roles, null, null));
         
-        ResponseEntity<ResponseDTO> response = rolController.obtenerTodosLosRoles();
+        ResponseEntity<ResponseDTO> response = rolController.obtenerTodosLosRoles(null, null, false, null);
         
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertTrue((Boolean) response.getBody().isExito());
@@ -111,20 +130,46 @@ class RolControllerTest {
 
     @Test
     void obtenerTodosLosRoles_CuandoNoHayRoles_RetornaListaVacia() {
-        when(rolService.obtenerTodosLosRoles()).thenReturn(Collections.emptyList());
+        when(rolService.obtenerPaginaRoles(null, null, false))
+            .thenReturn(new PaginaDTO<>(Collections.emptyList(), null, null));
         
-        ResponseEntity<ResponseDTO> response = rolController.obtenerTodosLosRoles();
+        ResponseEntity<ResponseDTO> response = rolController.obtenerTodosLosRoles(null, null, false, null);
         
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertTrue((Boolean) response.getBody().isExito());
-        assertTrue(((List<?>) response.getBody().getData()).isEmpty());
+        assertTrue(((PaginaDTO<?>) response.getBody().getData()).getItems().isEmpty());
+    }
+
+    @Test
+    void obtenerTodosLosRoles_ConCursorInvalido_RetornaBadRequest() {
+        when(rolService.obtenerPaginaRoles("xx", null, false))
+            .thenThrow(new IllegalArgumentException("Cursor inválido"));
+        
+        ResponseEntity<ResponseDTO> response = rolController.obtenerTodosLosRoles(null, "xx", false, null);
+        
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertFalse((Boolean) response.getBody().isExito());
+        assertEquals("Cursor inválido", response.getBody().getMensaje());
+    }
+
+    @Test
+    void obtenerEstadisticasCache_RetornaAciertosYFallos() {
+        when(cacheRolesService.obtenerEstadisticas())
+            .thenReturn(Map.of("rol", Map.of("aciertos", 10L, "fallos", 1L)));
+        
+        ResponseEntity<ResponseDTO> response = rolController.obtenerEstadisticasCache();
+        
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue((Boolean) response.getBody().isExito());
+        assertNotNull(response.getBody().getData());
     }
 
     @Test
     void obtenerRolPorId_CuandoExisteRol_RetornaRol() {
+        rol.setVersion(0L);
         when(rolService.obtenerRolPorId(1L)).thenReturn(rol);
         
-        ResponseEntity<ResponseDTO> response = rolController.obtenerRolPorId(1L);
+        ResponseEntity<ResponseDTO> response = rolController.obtenerRolPorId(1L, null);
         
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertTrue((Boolean) response.getBody().isExito());
@@ -134,21 +179,71 @@ class RolControllerTest {
 
     @Test
     void obtenerRolPorId_CuandoNoExiste_RetornaNotFound() {
-        when(rolService.obtenerRolPorId(1L))
-            .thenThrow(new RuntimeException("Rol no encontrado"));
+        when(rolService.obtenerRolPorId(1L)).thenThrow(new RuntimeException("Rol no encontrado"));
         
-        ResponseEntity<ResponseDTO> response = rolController.obtenerRolPorId(1L);
+        ResponseEntity<ResponseDTO> response = rolController.obtenerRolPorId(1L, null);
         
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
         assertFalse((Boolean) response.getBody().isExito());
         assertEquals("Rol no encontrado", response.getBody().getMensaje());
     }
 
+    @Test
+    void obtenerRolPorId_ConIfNoneMatchVigente_RetornaNotModifiedSinCargarElRol() {
+        when(rolService.obtenerVersion(1L)).thenReturn(2L);
+
+        ResponseEntity<ResponseDTO> response = rolController.obtenerRolPorId(1L, "\"2\"");
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"2\"", response.getHeaders().getETag());
+        assertNull(response.getBody());
+        verify(rolService, never()).obtenerRolPorId(anyLong());
+    }
+
+    @Test
+    void obtenerRolPorId_ConIfNoneMatchObsoleto_CargaElRol() {
+        rol.setVersion(3L);
+        when(rolService.obtenerVersion(1L)).thenReturn(3L);
+        when(rolService.obtenerRolPorId(1L)).thenReturn(rol);
+
+        ResponseEntity<ResponseDTO> response = rolController.obtenerRolPorId(1L, "\"2\"");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"3\"", response.getHeaders().getETag());
+        assertSame(rol, response.getBody().getData());
+    }
+
+    @Test
+    void obtenerTodosLosRoles_ConIfNoneMatchVigente_RetornaNotModifiedSinLeerLaPagina() {
+        when(rolService.obtenerHuellaPagina(null, null, false)).thenReturn("abc");
+
+        ResponseEntity<ResponseDTO> response = rolController.obtenerTodosLosRoles(null, null, false, "\"abc\"");
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        verify(rolService, never()).obtenerPaginaRoles(any(), any(), anyBoolean());
+    }
+
+    @Test
+    void obtenerTodosLosRoles_ConRolModificado_CambiaElETag() {
+        rol.setVersion(3L);
+        PaginaDTO<Rol> pagina = new PaginaDTO<>(Collections.singletonList(rol), null, null);
+        String anterior = "\"" + RolService.huella(pagina) + "\"";
+        rol.setVersion(4L);
+        when(rolService.obtenerHuellaPagina(null, null, false)).thenReturn(RolService.huella(pagina));
+        when(rolService.obtenerPaginaRoles(null, null, false)).thenReturn(pagina);
+
+        ResponseEntity<ResponseDTO> response = rolController.obtenerTodosLosRoles(null, null, false, anterior);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotEquals(anterior, response.getHeaders().getETag());
+    }
+
     @Test
     void actualizarRol_CuandoActualizacionExitosa_RetornaRolActualizado() {
-        when(rolService.actualizarRol(anyLong(), any(RolDTO.class))).thenReturn(rol);
+        when(rolService.actualizarRol(anyLong(), any(RolDTO.class), isNull())).thenReturn(rol);
         
-        ResponseEntity<ResponseDTO> response = rolController.actualizarRol(1L, rolDTO);
+        ResponseEntity<ResponseDTO> response = rolController.actualizarRol(1L, rolDTO, null);
         
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertTrue((Boolean) response.getBody().isExito());
@@ -158,16 +253,68 @@ class RolControllerTest {
 
     @Test
     void actualizarRol_CuandoOcurreRuntimeException_RetornaConflict() {
-        when(rolService.actualizarRol(anyLong(), any(RolDTO.class)))
+        when(rolService.actualizarRol(anyLong(), any(RolDTO.class), isNull()))
             .thenThrow(new RuntimeException("Error al actualizar"));
         
-        ResponseEntity<ResponseDTO> response = rolController.actualizarRol(1L, rolDTO);
+        ResponseEntity<ResponseDTO> response = rolController.actualizarRol(1L, rolDTO, null);
         
         assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
         assertFalse((Boolean) response.getBody().isExito());
         assertEquals("Error al actualizar", response.getBody().getMensaje());
     }
 
+    @Test
+    void actualizarRol_ConIfMatchDesactualizado_RetornaPreconditionFailed() {
+        when(rolService.actualizarRol(1L, rolDTO, 3L))
+            .thenThrow(new ObjectOptimisticLockingFailureException(Rol.class, 1L));
+
+        ResponseEntity<ResponseDTO> response = rolController.actualizarRol(1L, rolDTO, "\"3\"");
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+        verify(auditoriaService, never()).registrar(any(), any(), any(), any());
+    }
+
+    @Test
+    void actualizarRol_ConIfMatchDebil_RetornaPreconditionFailedSinActualizar() {
+        ResponseEntity<ResponseDTO> response = rolController.actualizarRol(1L, rolDTO, "W/\"3\"");
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+        verify(rolService, never()).actualizarRol(anyLong(), any(RolDTO.class), any());
+    }
+
+    @Test
+    void reasignarUsuarios_CuandoSeInicia_RetornaAcceptedConUbicacion() {
+        ReasignacionDTO trabajo = new ReasignacionDTO("t1", 1L, 2L, true, "PENDIENTE", 30, 0, 0, null,
+            Instant.now(), null);
+        when(reasignacionRolService.iniciar(1L, 2L, true)).thenReturn(trabajo);
+
+        ResponseEntity<ResponseDTO> response = rolController.reasignarUsuarios(1L, 2L, true);
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals("/api/roles/reassign/t1", response.getHeaders().getLocation().toString());
+        assertEquals(trabajo, response.getBody().getData());
+    }
+
+    @Test
+    void reasignarUsuarios_CuandoRolDestinoNoExiste_RetornaConflict() {
+        when(reasignacionRolService.iniciar(1L, 9L, false))
+            .thenThrow(new RuntimeException("Rol destino no encontrado"));
+
+        ResponseEntity<ResponseDTO> response = rolController.reasignarUsuarios(1L, 9L, false);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals("Rol destino no encontrado", response.getBody().getMensaje());
+    }
+
+    @Test
+    void obtenerReasignacion_CuandoNoExiste_RetornaNotFound() {
+        when(reasignacionRolService.obtener("x")).thenReturn(null);
+
+        ResponseEntity<ResponseDTO> response = rolController.obtenerReasignacion("x");
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
     @Test
     void eliminarRol_CuandoEliminacionExitosa_RetornaOk() {
         doNothing().when(rolService).eliminarRol(1L);
@@ -177,6 +324,7 @@ class RolControllerTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertTrue((Boolean) response.getBody().isExito());
         assertEquals("Rol eliminado exitosamente", response.getBody().getMensaje());
+        verify(auditoriaService).registrar("Rol", 1L, AuditoriaService.Operacion.ELIMINAR, null);
     }
 
     @Test
@@ -189,5 +337,6 @@ class RolControllerTest {
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
         assertFalse((Boolean) response.getBody().isExito());
         assertEquals("Rol no encontrado", response.getBody().getMensaje());
+        verifyNoInteractions(auditoriaService);
     }
 }
\ No newline at end of file
@@ -2,13 +2,20 @@ package com.usuarios.usuario;
 
 import com.usuarios.usuario.models.Rol;
 import com.usuarios.usuario.repository.RolRepository;
+import com.usuarios.usuario.dto.PaginaDTO;
 import com.usuarios.usuario.dto.RolDTO;
+import com.usuarios.usuario.services.CatalogoRolesService;
+import com.usuarios.usuario.services.LoginCacheService;
+import com.usuarios.usuario.services.PermisoEngine;
 import com.usuarios.usuario.services.RolService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -24,6 +31,15 @@ class RolServiceTest {
     @Mock
     private RolRepository rolRepository;
 
+    @Mock
+    private LoginCacheService loginCacheService;
+
+    @Mock
+    private PermisoEngine permisoEngine;
+
+    @Mock
+    private CatalogoRolesService catalogoRolesService;
+
     @InjectMocks
     private RolService rolService;
 
@@ -55,6 +71,8 @@ class RolServiceTest {
         assertEquals("ADMIN", resultado.getNombre());
         assertEquals(2, resultado.getPermisos().size());
         verify(rolRepository).save(any(Rol.class));
+        verify(permisoEngine).compilarRol(rol);
+        verify(catalogoRolesService).invalidar();
     }
 
     @Test
@@ -107,6 +125,34 @@ class RolServiceTest {
         verify(rolRepository).findAll();
     }
 
+    @Test
+    void obtenerPaginaRoles_CuandoHayMasFilas_RetornaCursorSiguiente() {
+        Rol otroRol = Rol.builder().id(2L).nombre("USER").build();
+        when(rolRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 2)))
+            .thenReturn(Arrays.asList(rol, otroRol));
+
+        PaginaDTO<Rol> pagina = rolService.obtenerPaginaRoles(null, 1, false);
+
+        assertEquals(1, pagina.getItems().size());
+        assertEquals(1L, PaginaDTO.decodificarCursor(pagina.getSiguienteCursor()));
+        assertNull(pagina.getTotal());
+        verify(rolRepository, never()).count();
+    }
+
+    @Test
+    void obtenerPaginaRoles_ConTotal_CuentaEnBaseDeDatos() {
+        String cursor = PaginaDTO.codificarCursor(1L);
+        when(rolRepository.findByIdGreaterThanOrderByIdAsc(1L, PageRequest.of(0, 51)))
+            .thenReturn(Collections.emptyList());
+        when(rolRepository.count()).thenReturn(1L);
+
+        PaginaDTO<Rol> pagina = rolService.obtenerPaginaRoles(cursor, null, true);
+
+        assertTrue(pagina.getItems().isEmpty());
+        assertNull(pagina.getSiguienteCursor());
+        assertEquals(1L, pagina.getTotal());
+    }
+
     @Test
     void obtenerRolPorId_CuandoExiste_RetornaRol() {
         when(rolRepository.findById(1L)).thenReturn(Optional.of(rol));
@@ -139,6 +185,27 @@ class RolServiceTest {
 
         verify(rolRepository).findById(1L);
         verify(rolRepository).delete(rol);
+        verify(loginCacheService).invalidarPorRol("ADMIN");
+        verify(permisoEngine).eliminarRol(1L);
+        verify(catalogoRolesService).invalidar();
+    }
+
+    @Test
+    void actualizarRol_EnTransaccion_InvalidaCacheDeLoginTrasElCommit() {
+        when(rolRepository.findById(1L)).thenReturn(Optional.of(rol));
+        when(rolRepository.findByNombre(anyString())).thenReturn(null);
+        when(rolRepository.save(any(Rol.class))).thenReturn(rol);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            rolService.actualizarRol(1L, rolDTO);
+            verify(loginCacheService, never()).invalidarPorRol(anyString());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(loginCacheService).invalidarPorRol("ADMIN");
     }
 
     @Test
@@ -165,6 +232,21 @@ class RolServiceTest {
         assertNotNull(resultado);
         assertEquals("ADMIN", resultado.getNombre());
         verify(rolRepository).save(any(Rol.class));
+        verify(loginCacheService).invalidarPorRol("ADMIN");
+        verify(permisoEngine).compilarRol(any(Rol.class));
+        verify(catalogoRolesService).invalidar();
+    }
+
+    @Test
+    void actualizarRol_CuandoCambiaNombre_InvalidaCacheDeLoginDelNombreAnterior() {
+        rolDTO.setNombre("superadmin");
+        when(rolRepository.findById(1L)).thenReturn(Optional.of(rol));
+        when(rolRepository.findByNombre(anyString())).thenReturn(null);
+        when(rolRepository.save(any(Rol.class))).thenReturn(rol);
+
+        rolService.actualizarRol(1L, rolDTO);
+
+        verify(loginCacheService).invalidarPorRol("ADMIN");
     }
 
     @Test
@@ -196,6 +278,29 @@ class RolServiceTest {
         verify(rolRepository, never()).save(any(Rol.class));
     }
 
+    @Test
+    void actualizarRol_ConVersionEsperadaDistinta_LanzaExcepcionOptimista() {
+        rol.setVersion(4L);
+        when(rolRepository.findById(1L)).thenReturn(Optional.of(rol));
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () ->
+            rolService.actualizarRol(1L, rolDTO, 3L)
+        );
+
+        verify(rolRepository, never()).save(any(Rol.class));
+    }
+
+    @Test
+    void huella_CambiaConLaVersionDeUnRol() {
+        rol.setVersion(5L);
+        PaginaDTO<Rol> pagina = new PaginaDTO<>(Collections.singletonList(rol), null, null);
+        String anterior = RolService.huella(pagina);
+
+        assertEquals(anterior, RolService.huella(new PaginaDTO<>(Collections.singletonList(rol), null, null)));
+        rol.setVersion(6L);
+        assertNotEquals(anterior, RolService.huella(pagina));
+    }
+
     @Test
     void actualizarRol_CuandoMismoNombre_ActualizaRol() {
         when(rolRepository.findById(1L)).thenReturn(Optional.of(rol));
@@ -0,0 +1,194 @@
+package com.usuarios.usuario;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.usuarios.usuario.services.PermisoEngine;
+import com.usuarios.usuario.services.TokenService;
+import com.usuarios.usuario.tokens.ArchivoClaves;
+import com.usuarios.usuario.tokens.ConjuntoClaves;
+import com.usuarios.usuario.tokens.Token;
+import com.usuarios.usuario.tokens.TokenEmisor;
+import com.usuarios.usuario.tokens.TokenInvalidoException;
+import com.usuarios.usuario.tokens.TokenVerificador;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenVerificadorTest {
+
+    private static final Instant AHORA = Instant.parse("2026-01-01T12:00:00Z");
+    private static final byte[] SECRETO_1 = secreto('a');
+    private static final byte[] SECRETO_2 = secreto('b');
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ConjuntoClaves claves = ConjuntoClaves.de("k1", Map.of("k1", SECRETO_1));
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void verificar_TokenRecienEmitido_RecuperaLosClaims() {
+        String firmado = firmar(claves, AHORA);
+
+        Token token = verificador(() -> claves, AHORA.plusSeconds(10)).verificar(firmado);
+
+        assertEquals(7L, token.getUsuarioId());
+        assertEquals("ana", token.getUsername());
+        assertEquals("ADMIN", token.getRol());
+        assertEquals("k1", token.getKid());
+        assertEquals(AHORA.plusSeconds(300), token.getExpira());
+        assertTrue(token.tienePermiso("WRITE"));
+        assertFalse(token.tienePermiso("DELETE"));
+    }
+
+    @Test
+    void verificar_FirmaOContenidoAlterado_Rechaza() {
+        String firmado = firmar(claves, AHORA);
+        String[] partes = firmado.split("\\.");
+        String claimsAjenos = Base64.getUrlEncoder().withoutPadding().encodeToString(
+            "{\"iss\":\"usuario\",\"sub\":\"7\",\"rol\":\"ADMIN\",\"per\":[\"ROOT\"],\"iat\":0,\"exp\":9999999999}"
+                .getBytes(StandardCharsets.UTF_8));
+        TokenVerificador verificador = verificador(() -> claves, AHORA);
+
+        assertThrows(TokenInvalidoException.class,
+            () -> verificador.verificar(partes[0] + "." + claimsAjenos + "." + partes[2]));
+        assertThrows(TokenInvalidoException.class,
+            () -> verificador.verificar(partes[0] + "." + partes[1] + "." + partes[2].substring(1)));
+        assertThrows(TokenInvalidoException.class, () -> verificador.verificar("no-es-un-token"));
+        assertThrows(TokenInvalidoException.class, () -> verificador.verificar(null));
+    }
+
+    @Test
+    void verificar_AlgoritmoNone_Rechaza() {
+        String firmado = firmar(claves, AHORA);
+        String cabeceraNone = Base64.getUrlEncoder().withoutPadding().encodeToString(
+            "{\"alg\":\"none\",\"kid\":\"k1\"}".getBytes(StandardCharsets.UTF_8));
+        String sinFirma = cabeceraNone + "." + firmado.split("\\.")[1] + ".";
+
+        TokenInvalidoException error = assertThrows(TokenInvalidoException.class,
+            () -> verificador(() -> claves, AHORA).verificar(sinFirma));
+        assertEquals("Algoritmo de firma no admitido", error.getMessage());
+    }
+
+    @Test
+    void verificar_Expirado_RechazaPasadaLaTolerancia() {
+        String firmado = firmar(claves, AHORA);
+
+        assertNotNull(verificador(() -> claves, AHORA.plusSeconds(320)).verificar(firmado));
+        TokenInvalidoException error = assertThrows(TokenInvalidoException.class,
+            () -> verificador(() -> claves, AHORA.plusSeconds(331)).verificar(firmado));
+        assertEquals("Token expirado", error.getMessage());
+    }
+
+    @Test
+    void verificar_OtroEmisor_Rechaza() {
+        String firmado = firmar(claves, AHORA);
+        TokenVerificador otroEmisor = new TokenVerificador(() -> claves, objectMapper, "pedidos",
+            Duration.ofSeconds(30), Clock.fixed(AHORA, ZoneOffset.UTC));
+
+        assertThrows(TokenInvalidoException.class, () -> otroEmisor.verificar(firmado));
+    }
+
+    @Test
+    void archivoClaves_Rotacion_SinReiniciar() throws IOException {
+        Path archivo = directorio.resolve("tokens.properties");
+        escribir(archivo, "activa=k1\nk1=" + base64(SECRETO_1) + "\n", 1_000);
+        ArchivoClaves claves = new ArchivoClaves(archivo, Duration.ZERO);
+        TokenVerificador verificador = verificador(claves, AHORA);
+        String anterior = firmar(claves, AHORA);
+
+        // Se agrega k2 como activa: los tokens de k1 siguen siendo válidos
+        escribir(archivo, "activa=k2\nk1=" + base64(SECRETO_1) + "\nk2=" + base64(SECRETO_2) + "\n", 2_000);
+        String nuevo = firmar(claves, AHORA);
+        assertEquals("k2", verificador.verificar(nuevo).getKid());
+        assertEquals("k1", verificador.verificar(anterior).getKid());
+
+        // Se retira k1
+        escribir(archivo, "activa=k2\nk2=" + base64(SECRETO_2) + "\n", 3_000);
+        assertThrows(TokenInvalidoException.class, () -> verificador.verificar(anterior));
+        assertNotNull(verificador.verificar(nuevo));
+    }
+
+    @Test
+    void archivoClaves_ArchivoInvalido_ConservaLasClavesAnteriores() throws IOException {
+        Path archivo = directorio.resolve("tokens.properties");
+        escribir(archivo, "activa=k1\nk1=" + base64(SECRETO_1) + "\n", 1_000);
+        ArchivoClaves claves = new ArchivoClaves(archivo, Duration.ZERO);
+
+        escribir(archivo, "activa=k9\nk1=corta\n", 2_000);
+
+        assertEquals("k1", claves.get().getActiva());
+    }
+
+    @Test
+    void conjuntoClaves_ClaveCorta_Rechaza() {
+        assertThrows(IllegalArgumentException.class, () -> ConjuntoClaves.de("k1", Map.of("k1", new byte[16])));
+    }
+
+    @Test
+    void tokenService_EmiteDesdeElMotorYVerifica() throws IOException {
+        Path archivo = directorio.resolve("tokens.properties");
+        escribir(archivo, "activa=k1\nk1=" + base64(SECRETO_1) + "\n", 1_000);
+        PermisoEngine permisoEngine = mock(PermisoEngine.class);
+        PermisoEngine.PerfilUsuario perfil = mock(PermisoEngine.PerfilUsuario.class);
+        when(perfil.getUsuarioId()).thenReturn(7L);
+        when(perfil.getUsername()).thenReturn("ana");
+        when(perfil.getRol()).thenReturn("ADMIN");
+        when(perfil.getPermisos()).thenReturn(List.of("READ", "WRITE"));
+        when(permisoEngine.perfil("ana")).thenReturn(perfil);
+        TokenService tokenService = new TokenService(permisoEngine, objectMapper, archivo.toString(), "usuario", 300, 30, 10);
+
+        String firmado = tokenService.emitir("ana");
+
+        assertNull(tokenService.emitir("desconocido"));
+        // Un servicio que solo tiene el archivo de claves valida el mismo token
+        Token token = TokenVerificador.desdeArchivo(archivo, "usuario").verificar(firmado);
+        assertEquals(7L, token.getUsuarioId());
+        assertTrue(token.tienePermiso("WRITE"));
+        assertEquals(300, tokenService.getTtlSegundos());
+    }
+
+    private String firmar(Supplier<ConjuntoClaves> claves, Instant instante) {
+        TokenEmisor emisor = new TokenEmisor(claves, objectMapper, "usuario", Duration.ofSeconds(300),
+            Clock.fixed(instante, ZoneOffset.UTC));
+        return emisor.firmar(emisor.emitir(7L, "ana", "ADMIN", Arrays.asList("READ", "WRITE")));
+    }
+
+    private TokenVerificador verificador(Supplier<ConjuntoClaves> claves, Instant instante) {
+        return new TokenVerificador(claves, objectMapper, "usuario", Duration.ofSeconds(30),
+            Clock.fixed(instante, ZoneOffset.UTC));
+    }
+
+    // La fecha se fija a mano: dos escrituras seguidas pueden caer en el mismo tick del sistema de archivos
+    private static void escribir(Path archivo, String contenido, long modificado) throws IOException {
+        Files.writeString(archivo, contenido, StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(archivo, FileTime.fromMillis(modificado));
+    }
+
+    private static String base64(byte[] secreto) {
+        return Base64.getEncoder().encodeToString(secreto);
+    }
+
+    private static byte[] secreto(char relleno) {
+        byte[] secreto = new byte[32];
+        Arrays.fill(secreto, (byte) relleno);
+        return secreto;
+    }
+}
@@ -1,20 +1,32 @@
 package com.usuarios.usuario;
 
 import com.usuarios.usuario.controllers.UsuarioController;
+import com.usuarios.usuario.dto.PaginaDTO;
 import com.usuarios.usuario.dto.ResponseDTO;
+import com.usuarios.usuario.dto.ResultadoBusquedaDTO;
+import com.usuarios.usuario.dto.ResultadoMasivoDTO;
 import com.usuarios.usuario.dto.UsuarioDTO;
+import com.usuarios.usuario.dto.UsuarioResumenDTO;
 import com.usuarios.usuario.models.Usuario;
 import com.usuarios.usuario.models.Rol;
+import com.usuarios.usuario.services.AuditoriaService;
+import com.usuarios.usuario.services.LoginCacheService;
 import com.usuarios.usuario.services.UsuarioService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -26,6 +38,12 @@ class UsuarioControllerTest {
     @Mock
     private UsuarioService usuarioService;
 
+    @Mock
+    private LoginCacheService loginCacheService;
+
+    @Mock
+    private AuditoriaService auditoriaService;
+
     @InjectMocks
     private UsuarioController usuarioController;
 
@@ -64,6 +82,7 @@ class UsuarioControllerTest {
         assertTrue(response.getBody().isExito());
         assertEquals("Usuario creado exitosamente", response.getBody().getMensaje());
         assertNotNull(response.getBody().getData());
+        verify(auditoriaService).registrar("Usuario", 1L, AuditoriaService.Operacion.CREAR, "usuario1");
     }
 
     @Test
@@ -134,48 +153,217 @@ class UsuarioControllerTest {
         assertEquals("El rol es requerido", response.getBody().getMensaje());
     }
 
+    @Test
+    void crearUsuariosMasivo_ConFilas_RetornaResultadosPorFila() {
+        // Arrange
+        UsuarioDTO usuarioDTO = new UsuarioDTO();
+        usuarioDTO.setUsername("usuario1");
+        List<ResultadoMasivoDTO> resultados = Arrays.asList(
+            new ResultadoMasivoDTO(0, "usuario1", true, "Usuario creado", 1L),
+            new ResultadoMasivoDTO(1, "usuario2", false, "El username ya está en uso", null)
+        );
+        when(usuarioService.crearUsuariosMasivo(anyList())).thenReturn(resultados);
+
+        // Act
+        ResponseEntity<ResponseDTO> response = usuarioController.crearUsuariosMasivo(Arrays.asList(usuarioDTO, usuarioDTO));
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("1 de 2 usuarios creados", response.getBody().getMensaje());
+        verify(loginCacheService).invalidar("usuario1");
+        verify(loginCacheService, never()).invalidar("usuario2");
+    }
+
+    @Test
+    void crearUsuariosMasivo_SinFilas_RetornaBadRequest() {
+        // Act
+        ResponseEntity<ResponseDTO> response = usuarioController.crearUsuariosMasivo(Collections.emptyList());
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(usuarioService, never()).crearUsuariosMasivo(anyList());
+    }
+
     @Test
     void getAllUsuarios_RetornaListaUsuarios() {
         // Arrange
-        List<Usuario> usuariosEsperados = Arrays.asList(
-            crearUsuarioPrueba(1L, "usuario1", "Usuario Uno"),
-            crearUsuarioPrueba(2L, "usuario2", "Usuario Dos")
+        List<UsuarioResumenDTO> usuariosEsperados = Arrays.asList(
+            new UsuarioResumenDTO(1L, "usuario1", "Usuario Uno", 1L, "USER"),
+            new UsuarioResumenDTO(2L, "usuario2", "Usuario Dos", 1L, "USER")
         );
-        when(usuarioService.findAll()).thenReturn(usuariosEsperados);
+        when(usuarioService.findPagina(null, null, false))
+            .thenReturn(new PaginaDTO<>(usuariosEsperados, null, null));
+
+        // Act
+        ResponseEntity<PaginaDTO<UsuarioResumenDTO>> resultado = usuarioController.getAllUsuarios(null, null, false, null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, resultado.getStatusCode());
+        assertNotNull(resultado.getBody());
+        assertEquals(2, resultado.getBody().getItems().size());
+        verify(usuarioService, times(1)).findPagina(null, null, false);
+        verify(usuarioService, never()).findAll();
+    }
+
+    @Test
+    void getAllUsuarios_ConCursorInvalido_RetornaBadRequest() {
+        // Arrange
+        when(usuarioService.findPagina("invalido", 10, false))
+            .thenThrow(new IllegalArgumentException("Cursor inválido"));
+
+        // Act
+        ResponseEntity<PaginaDTO<UsuarioResumenDTO>> resultado = usuarioController.getAllUsuarios(10, "invalido", false, null);
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, resultado.getStatusCode());
+    }
+
+    @Test
+    void buscarUsuarios_ConIndiceCargado_RetornaResultados() {
+        // Arrange
+        List<ResultadoBusquedaDTO> resultados = Arrays.asList(new ResultadoBusquedaDTO(1L, "ana", "Ana García"));
+        when(usuarioService.busquedaDisponible()).thenReturn(true);
+        when(usuarioService.buscar("an", 5)).thenReturn(resultados);
+
+        // Act
+        ResponseEntity<?> response = usuarioController.buscarUsuarios("an", 5);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(resultados, response.getBody());
+    }
 
+    @Test
+    void buscarUsuarios_SinTexto_RetornaBadRequest() {
         // Act
-        List<Usuario> resultado = usuarioController.getAllUsuarios();
+        ResponseEntity<?> response = usuarioController.buscarUsuarios("  ", null);
 
         // Assert
-        assertNotNull(resultado);
-        assertEquals(2, resultado.size());
-        verify(usuarioService, times(1)).findAll();
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(usuarioService, never()).buscar(anyString(), any());
+    }
+
+    @Test
+    void buscarUsuarios_IndiceSinCargar_RetornaServiceUnavailable() {
+        // Arrange
+        when(usuarioService.busquedaDisponible()).thenReturn(false);
+
+        // Act
+        ResponseEntity<?> response = usuarioController.buscarUsuarios("ana", null);
+
+        // Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+    }
+
+    @Test
+    void exportarUsuarios_EnNdjson_DelegaEnElServicio() throws Exception {
+        // Act
+        ResponseEntity<StreamingResponseBody> response = usuarioController.exportarUsuarios("ndjson");
+        response.getBody().writeTo(new ByteArrayOutputStream());
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        verify(usuarioService, times(1)).exportar(any(), eq("ndjson"));
+    }
+
+    @Test
+    void exportarUsuarios_ConFormatoDesconocido_RetornaBadRequest() throws Exception {
+        // Act
+        ResponseEntity<StreamingResponseBody> response = usuarioController.exportarUsuarios("xml");
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(usuarioService, never()).exportar(any(), anyString());
     }
 
     @Test
     void getUsuarioById_ConIdExistente_RetornaUsuario() {
         // Arrange
         Long id = 1L;
-        Usuario usuarioEsperado = crearUsuarioPrueba(id, "usuario1", "Usuario Uno");
-        when(usuarioService.findById(id)).thenReturn(usuarioEsperado);
+        UsuarioResumenDTO usuarioEsperado = new UsuarioResumenDTO(id, "usuario1", "Usuario Uno", 1L, "USER", 3L, 1L);
+        when(usuarioService.findResumenById(id)).thenReturn(usuarioEsperado);
 
         // Act
-        ResponseEntity<Usuario> response = usuarioController.getUsuarioById(id);
+        ResponseEntity<UsuarioResumenDTO> response = usuarioController.getUsuarioById(id, null);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals(id, response.getBody().getId());
+        assertEquals("USER", response.getBody().getRolNombre());
+        assertEquals("\"3-1\"", response.getHeaders().getETag());
+        verify(usuarioService, never()).findById(anyLong());
+    }
+
+    @Test
+    void getUsuarioById_ConIfNoneMatchVigente_RetornaNotModified() {
+        // Arrange
+        when(usuarioService.findResumenById(1L))
+            .thenReturn(new UsuarioResumenDTO(1L, "usuario1", "Usuario Uno", 1L, "USER", 3L, 1L));
+
+        // Act
+        ResponseEntity<UsuarioResumenDTO> response = usuarioController.getUsuarioById(1L, "\"2-1\", \"3-1\"");
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        verify(usuarioService, never()).obtenerHuella(anyLong());
+    }
+
+    @Test
+    void getAllUsuarios_ConIfNoneMatchVigente_RetornaNotModifiedSinLeerLaPagina() {
+        // Arrange
+        when(usuarioService.obtenerHuellaPagina(null, null, false)).thenReturn("abc");
+
+        // Act
+        ResponseEntity<PaginaDTO<UsuarioResumenDTO>> response =
+            usuarioController.getAllUsuarios(null, null, false, "W/\"abc\"");
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        verify(usuarioService, never()).findPagina(any(), any(), anyBoolean());
+    }
+
+    @Test
+    void getAllUsuarios_ConIfNoneMatchObsoleto_RetornaLaPagina() {
+        // Arrange
+        PaginaDTO<UsuarioResumenDTO> pagina = new PaginaDTO<>(Collections.singletonList(
+            new UsuarioResumenDTO(1L, "usuario1", "Usuario Uno", 1L, "LECTOR", 3L, 2L)), null, null);
+        when(usuarioService.obtenerHuellaPagina(null, null, false)).thenReturn(UsuarioService.huella(pagina));
+        when(usuarioService.findPagina(null, null, false)).thenReturn(pagina);
+
+        // Act
+        ResponseEntity<PaginaDTO<UsuarioResumenDTO>> response =
+            usuarioController.getAllUsuarios(null, null, false, "\"anterior\"");
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(pagina, response.getBody());
+        assertEquals("\"" + UsuarioService.huella(pagina) + "\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void huella_ConRolRenombrado_CambiaPorLaVersionDelRol() {
+        // Arrange
+        PaginaDTO<UsuarioResumenDTO> anterior = new PaginaDTO<>(Collections.singletonList(
+            new UsuarioResumenDTO(1L, "usuario1", "Usuario Uno", 1L, "USER", 3L, 1L)), null, null);
+        PaginaDTO<UsuarioResumenDTO> actual = new PaginaDTO<>(Collections.singletonList(
+            new UsuarioResumenDTO(1L, "usuario1", "Usuario Uno", 1L, "LECTOR", 3L, 2L)), null, null);
+
+        // Act & Assert
+        assertNotEquals(UsuarioService.huella(anterior), UsuarioService.huella(actual));
     }
 
     @Test
     void getUsuarioById_ConIdInexistente_RetornaNotFound() {
         // Arrange
         Long id = 999L;
-        when(usuarioService.findById(id)).thenReturn(null);
+        when(usuarioService.findResumenById(id)).thenReturn(null);
 
         // Act
-        ResponseEntity<Usuario> response = usuarioController.getUsuarioById(id);
+        ResponseEntity<UsuarioResumenDTO> response = usuarioController.getUsuarioById(id, null);
 
         // Assert
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
@@ -190,12 +378,45 @@ class UsuarioControllerTest {
         when(usuarioService.save(any(Usuario.class))).thenReturn(usuarioActualizado);
 
         // Act
-        ResponseEntity<Usuario> response = usuarioController.updateUsuario(id, usuarioActualizado);
+        ResponseEntity<Usuario> response = usuarioController.updateUsuario(id, usuarioActualizado, null);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals("Usuario Actualizado", response.getBody().getNombreCompleto());
+        verify(loginCacheService, atLeastOnce()).invalidar("usuario1");
+    }
+
+    @Test
+    void updateUsuario_ConPasswordYaCifrada_RetornaBadRequest() {
+        // Arrange
+        Long id = 1L;
+        Usuario usuario = crearUsuarioPrueba(id, "usuario1", "Usuario Uno");
+        when(usuarioService.findById(id)).thenReturn(usuario);
+        when(usuarioService.save(any(Usuario.class)))
+            .thenThrow(new IllegalArgumentException("La contraseña debe enviarse en texto plano"));
+
+        // Act
+        ResponseEntity<Usuario> response = usuarioController.updateUsuario(id, usuario, null);
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(auditoriaService, never()).registrar(any(), any(), any(), any());
+    }
+
+    @Test
+    void usuario_AlSerializar_NoIncluyeElPassword() throws Exception {
+        // Arrange
+        Usuario usuario = crearUsuarioPrueba(1L, "usuario1", "Usuario Uno");
+        usuario.setPassword("$2a$10$abcdefghijklmnopqrstuuN0aTMbEwOkdZa5MqZgT6bO3o1Vsl8ka");
+
+        // Act
+        String json = new ObjectMapper().writeValueAsString(usuario);
+        Usuario leido = new ObjectMapper().readValue("{\"username\":\"u\",\"password\":\"secreta\"}", Usuario.class);
+
+        // Assert
+        assertFalse(json.contains("password"));
+        assertEquals("secreta", leido.getPassword());
     }
 
     @Test
@@ -206,12 +427,49 @@ class UsuarioControllerTest {
         when(usuarioService.findById(id)).thenReturn(null);
 
         // Act
-        ResponseEntity<Usuario> response = usuarioController.updateUsuario(id, usuario);
+        ResponseEntity<Usuario> response = usuarioController.updateUsuario(id, usuario, null);
 
         // Assert
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
 
+    @Test
+    void updateUsuario_ConIfMatchDesactualizado_RetornaPreconditionFailed() {
+        // Arrange
+        Long id = 1L;
+        Usuario usuario = crearUsuarioPrueba(id, "usuario1", "Usuario Uno");
+        when(usuarioService.findById(id)).thenReturn(usuario);
+        when(usuarioService.obtenerHuella(id)).thenReturn("4-1");
+
+        // Act
+        ResponseEntity<Usuario> response = usuarioController.updateUsuario(id, usuario, "\"3-1\"");
+
+        // Assert
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+        verify(usuarioService, never()).save(any(Usuario.class));
+    }
+
+    @Test
+    void updateUsuario_ConVersionObsoleta_RetornaConflict() {
+        // Arrange
+        Long id = 1L;
+        Usuario existente = crearUsuarioPrueba(id, "usuario1", "Usuario Uno");
+        existente.setVersion(4L);
+        Usuario usuario = crearUsuarioPrueba(id, "usuario1", "Usuario Cambiado");
+        usuario.setVersion(3L);
+        when(usuarioService.findById(id)).thenReturn(existente);
+        when(usuarioService.save(any(Usuario.class)))
+            .thenThrow(new ObjectOptimisticLockingFailureException(Usuario.class, id));
+
+        // Act
+        ResponseEntity<Usuario> response = usuarioController.updateUsuario(id, usuario, null);
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals(3L, usuario.getVersion());
+        verify(auditoriaService, never()).registrar(any(), any(), any(), any());
+    }
+
     @Test
     void deleteUsuario_ConIdExistente_RetornaOk() {
         // Arrange
@@ -226,6 +484,8 @@ class UsuarioControllerTest {
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
         verify(usuarioService, times(1)).deleteById(id);
+        verify(loginCacheService).invalidar("usuario1");
+        verify(auditoriaService).registrar("Usuario", 1L, AuditoriaService.Operacion.ELIMINAR, "usuario1");
     }
 
     @Test
@@ -1,21 +1,44 @@
 package com.usuarios.usuario;
 
+import com.usuarios.usuario.dto.PaginaDTO;
+import com.usuarios.usuario.dto.ResultadoMasivoDTO;
 import com.usuarios.usuario.dto.UsuarioDTO;
+import com.usuarios.usuario.dto.UsuarioResumenDTO;
 import com.usuarios.usuario.models.Rol;
 import com.usuarios.usuario.models.Usuario;
 import com.usuarios.usuario.repository.RolRepository;
 import com.usuarios.usuario.repository.UsuarioRepository;
+import com.usuarios.usuario.services.FiltroUnicidadService;
+import com.usuarios.usuario.services.IndiceBusquedaService;
+import com.usuarios.usuario.services.PasswordHashService;
+import com.usuarios.usuario.services.PermisoEngine;
 import com.usuarios.usuario.services.UsuarioService;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import jakarta.persistence.EntityManager;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -29,6 +52,28 @@ class UsuarioServiceTest {
     @Mock
     private RolRepository rolRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private PermisoEngine permisoEngine;
+
+    @Mock
+    private FiltroUnicidadService filtroUnicidadService;
+
+    @Mock
+    private IndiceBusquedaService indiceBusquedaService;
+
+    @Spy
+    private PasswordHashService passwordHashService =
+        new PasswordHashService(2, 16, 4, false, 100, 14, new SimpleMeterRegistry());
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     @InjectMocks
     private UsuarioService usuarioService;
 
@@ -70,6 +115,50 @@ class UsuarioServiceTest {
         assertEquals("usuario1", resultado.getUsername());
         assertEquals("Usuario Prueba", resultado.getNombreCompleto());
         assertEquals(rol.getId(), resultado.getRol().getId());
+        ArgumentCaptor<Usuario> guardado = ArgumentCaptor.forClass(Usuario.class);
+        verify(usuarioRepository).save(guardado.capture());
+        assertTrue(passwordHashService.esHash(guardado.getValue().getPassword()));
+        assertTrue(passwordHashService.verificar("password123", guardado.getValue().getPassword()).join());
+        verify(permisoEngine).asignarUsuario(1L, "usuario1", 1L);
+        verify(filtroUnicidadService).agregar("usuario1", "Usuario Prueba");
+    }
+
+    @Test
+    void crearUsuario_ConFiltroQueDescartaElUsername_NoConsultaUnicidad() {
+        // Arrange
+        UsuarioDTO usuarioDTO = crearUsuarioDTO("nuevo", "Usuario Nuevo", 1L);
+        Rol rol = new Rol();
+        rol.setId(1L);
+        rol.setNombre("USER");
+
+        when(filtroUnicidadService.usernameDefinitivamenteAusente("nuevo")).thenReturn(true);
+        when(filtroUnicidadService.nombreDefinitivamenteAusente("Usuario Nuevo")).thenReturn(true);
+        when(rolRepository.findById(1L)).thenReturn(Optional.of(rol));
+        when(usuarioRepository.save(any(Usuario.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Usuario resultado = usuarioService.crearUsuario(usuarioDTO);
+
+        // Assert
+        assertEquals("nuevo", resultado.getUsername());
+        verify(usuarioRepository, never()).findByUsername(anyString());
+        verify(usuarioRepository, never()).existsByNombreCompleto(anyString());
+        verify(filtroUnicidadService, never()).registrarVerificacionUsername(anyBoolean());
+    }
+
+    @Test
+    void crearUsuario_ConNombreCompletoExistente_LanzaExcepcion() {
+        // Arrange
+        UsuarioDTO usuarioDTO = crearUsuarioDTO("nuevo", "Usuario Existente", 1L);
+        when(usuarioRepository.findByUsername("nuevo")).thenReturn(null);
+        when(usuarioRepository.existsByNombreCompleto("Usuario Existente")).thenReturn(true);
+
+        // Act & Assert
+        Exception exception = assertThrows(RuntimeException.class, () -> usuarioService.crearUsuario(usuarioDTO));
+        assertEquals("El nombre completo ya está en uso", exception.getMessage());
+        verify(filtroUnicidadService).registrarVerificacionUsername(false);
+        verify(filtroUnicidadService).registrarVerificacionNombre(true);
+        verify(usuarioRepository, never()).save(any(Usuario.class));
     }
 
     @Test
@@ -128,6 +217,55 @@ class UsuarioServiceTest {
         assertEquals("Rol no encontrado", exception.getMessage());
     }
 
+    @Test
+    void crearUsuariosMasivo_ReportaResultadoPorFila() {
+        // Arrange
+        Rol rol = new Rol();
+        rol.setId(1L);
+        rol.setNombre("USER");
+
+        List<UsuarioDTO> usuarios = Arrays.asList(
+            crearUsuarioDTO("nuevo1", "Nuevo Uno", 1L),
+            crearUsuarioDTO("existente", "Existente", 1L),
+            crearUsuarioDTO("nuevo1", "Nuevo Repetido", 1L),
+            crearUsuarioDTO("nuevo2", "Nuevo Dos", 99L),
+            crearUsuarioDTO("", "Sin Username", 1L)
+        );
+
+        when(usuarioRepository.findExistentes(anyCollection(), anyCollection()))
+            .thenReturn(List.<Object[]>of(new Object[] {"existente", "Existente"}));
+        when(rolRepository.findAllById(anyIterable())).thenReturn(List.of(rol));
+        when(usuarioRepository.save(any(Usuario.class))).thenAnswer(invocation -> {
+            Usuario usuario = invocation.getArgument(0);
+            usuario.setId(10L);
+            return usuario;
+        });
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        // Act
+        List<ResultadoMasivoDTO> resultados = usuarioService.crearUsuariosMasivo(usuarios);
+
+        // Assert
+        assertEquals(5, resultados.size());
+        assertTrue(resultados.get(0).isExito());
+        assertEquals(10L, resultados.get(0).getId());
+        assertEquals("El username ya está en uso", resultados.get(1).getMensaje());
+        assertEquals("Username duplicado en la solicitud", resultados.get(2).getMensaje());
+        assertEquals("Rol no encontrado", resultados.get(3).getMensaje());
+        assertEquals("El username es requerido", resultados.get(4).getMensaje());
+        verify(usuarioRepository, times(1)).findExistentes(anyCollection(), anyCollection());
+        verify(rolRepository, times(1)).findAllById(anyIterable());
+        verify(usuarioRepository, times(1)).save(any(Usuario.class));
+        verify(usuarioRepository, never()).findByUsername(anyString());
+        verify(entityManager).flush();
+        // Solo se cifra la fila que se inserta, y antes de abrir la transacción de la inserción
+        InOrder orden = inOrder(passwordHashService, transactionTemplate);
+        orden.verify(passwordHashService, times(1)).hashAsync("password123");
+        orden.verify(transactionTemplate).execute(any());
+        verify(permisoEngine).asignarUsuario(10L, "nuevo1", 1L);
+    }
+
     @Test
     void findAll_RetornaListaUsuarios() {
         // Arrange
@@ -145,6 +283,134 @@ class UsuarioServiceTest {
         assertEquals(2, resultado.size());
     }
 
+    @Test
+    void findPagina_ConMasFilasQueElLimite_RetornaCursorSiguiente() {
+        // Arrange
+        List<UsuarioResumenDTO> filas = Arrays.asList(
+            new UsuarioResumenDTO(5L, "usuario5", "Usuario Cinco", 1L, "USER"),
+            new UsuarioResumenDTO(6L, "usuario6", "Usuario Seis", 1L, "USER"),
+            new UsuarioResumenDTO(7L, "usuario7", "Usuario Siete", 1L, "USER")
+        );
+        String cursor = PaginaDTO.codificarCursor(4L);
+        when(usuarioRepository.findResumenes(4L, PageRequest.of(0, 3))).thenReturn(filas);
+
+        // Act
+        PaginaDTO<UsuarioResumenDTO> pagina = usuarioService.findPagina(cursor, 2, false);
+
+        // Assert
+        assertEquals(2, pagina.getItems().size());
+        assertEquals(6L, PaginaDTO.decodificarCursor(pagina.getSiguienteCursor()));
+        assertNull(pagina.getTotal());
+        verify(usuarioRepository, never()).count();
+        verify(usuarioRepository, never()).findAll();
+    }
+
+    @Test
+    void findPagina_UltimaPaginaConTotal_RetornaSinCursor() {
+        // Arrange
+        List<UsuarioResumenDTO> filas = Arrays.asList(new UsuarioResumenDTO(1L, "usuario1", "Usuario Uno", 1L, "USER"));
+        when(usuarioRepository.findResumenes(0L, PageRequest.of(0, 51))).thenReturn(filas);
+        when(usuarioRepository.count()).thenReturn(1L);
+
+        // Act
+        PaginaDTO<UsuarioResumenDTO> pagina = usuarioService.findPagina(null, null, true);
+
+        // Assert
+        assertEquals(1, pagina.getItems().size());
+        assertNull(pagina.getSiguienteCursor());
+        assertEquals(1L, pagina.getTotal());
+    }
+
+    @Test
+    void obtenerHuellaPagina_ConLasMismasVersiones_CoincideConLaDeLaPagina() {
+        // Arrange
+        when(usuarioRepository.findResumenes(4L, PageRequest.of(0, 3))).thenReturn(Arrays.asList(
+            new UsuarioResumenDTO(5L, "usuario5", "Usuario Cinco", 1L, "USER", 2L, 1L),
+            new UsuarioResumenDTO(6L, "usuario6", "Usuario Seis", 1L, "USER", 1L, 1L),
+            new UsuarioResumenDTO(7L, "usuario7", "Usuario Siete", 1L, "USER", 1L, 1L)
+        ));
+        when(usuarioRepository.findVersionesPagina(4L, PageRequest.of(0, 3))).thenReturn(Arrays.asList(
+            new Object[] {5L, 2L, 1L}, new Object[] {6L, 1L, 1L}, new Object[] {7L, 1L, 1L}));
+        String cursor = PaginaDTO.codificarCursor(4L);
+
+        // Act
+        String huella = usuarioService.obtenerHuellaPagina(cursor, 2, false);
+
+        // Assert
+        assertEquals(UsuarioService.huella(usuarioService.findPagina(cursor, 2, false)), huella);
+        verify(usuarioRepository, never()).count();
+    }
+
+    @Test
+    void findPagina_ConCursorInvalido_LanzaExcepcion() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> usuarioService.findPagina("no-es-cursor", 10, false));
+    }
+
+    @Test
+    void exportar_EnNdjson_EscribeUnaLineaPorUsuarioSinPassword() throws Exception {
+        // Arrange
+        when(usuarioRepository.streamAllOrderById()).thenReturn(Stream.of(
+            crearUsuarioPrueba(1L, "usuario1", "Usuario Uno"),
+            crearUsuarioPrueba(2L, "usuario2", "Usuario Dos")
+        ));
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        // Act
+        long filas = usuarioService.exportar(salida, "ndjson");
+
+        // Assert
+        String[] lineas = salida.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, filas);
+        assertEquals(2, lineas.length);
+        JsonNode primera = objectMapper.readTree(lineas[0]);
+        assertEquals("usuario1", primera.get("username").asText());
+        assertEquals("USER", primera.get("rolNombre").asText());
+        assertFalse(primera.has("password"));
+        verify(usuarioRepository, never()).findAll();
+    }
+
+    @Test
+    void exportar_EnCsv_EscapaCamposConComas() throws Exception {
+        // Arrange
+        when(usuarioRepository.streamAllOrderById()).thenReturn(Stream.of(
+            crearUsuarioPrueba(1L, "usuario1", "Pérez, Juan")
+        ));
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        // Act
+        usuarioService.exportar(salida, "csv");
+
+        // Assert
+        String[] lineas = salida.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals("id,username,nombreCompleto,rolId,rolNombre", lineas[0]);
+        assertEquals("1,usuario1,\"Pérez, Juan\",1,USER", lineas[1]);
+    }
+
+    @Test
+    void findResumenById_ConIdExistente_RetornaProyeccion() {
+        // Arrange
+        when(usuarioRepository.findResumenById(1L))
+            .thenReturn(Optional.of(new UsuarioResumenDTO(1L, "usuario1", "Usuario Uno", 1L, "USER")));
+
+        // Act
+        UsuarioResumenDTO resultado = usuarioService.findResumenById(1L);
+
+        // Assert
+        assertNotNull(resultado);
+        assertEquals("USER", resultado.getRolNombre());
+        verify(usuarioRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void findResumenById_ConIdInexistente_RetornaNull() {
+        // Arrange
+        when(usuarioRepository.findResumenById(999L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertNull(usuarioService.findResumenById(999L));
+    }
+
     @Test
     void findById_ConIdExistente_RetornaUsuario() {
         // Arrange
@@ -187,17 +453,125 @@ class UsuarioServiceTest {
         assertEquals(usuario.getId(), resultado.getId());
     }
 
+    @Test
+    void save_ConPasswordEnTextoPlano_GuardaElHash() {
+        // Arrange
+        Usuario usuario = crearUsuarioPrueba(1L, "usuario1", "Usuario Uno");
+        when(usuarioRepository.save(any(Usuario.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Usuario resultado = usuarioService.save(usuario);
+
+        // Assert
+        assertTrue(passwordHashService.esHash(resultado.getPassword()));
+        assertTrue(passwordHashService.verificar("password", resultado.getPassword()).join());
+    }
+
+    @Test
+    void save_ConPasswordYaCifrada_LaRechaza() {
+        // Arrange
+        Usuario usuario = crearUsuarioPrueba(1L, "usuario1", "Usuario Uno");
+        usuario.setPassword(passwordHashService.hash("password"));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> usuarioService.save(usuario));
+        verify(usuarioRepository, never()).save(any(Usuario.class));
+    }
+
+    @Test
+    void save_ActualizacionSinPassword_ConservaLaGuardada() {
+        // Arrange
+        Usuario anterior = crearUsuarioPrueba(1L, "usuario1", "Usuario Uno");
+        String hash = passwordHashService.hash("password");
+        anterior.setPassword(hash);
+        Usuario cambiado = crearUsuarioPrueba(1L, "usuario1", "Usuario Uno Bis");
+        cambiado.setPassword(null);
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(anterior));
+        when(usuarioRepository.save(any(Usuario.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Usuario resultado = usuarioService.save(cambiado);
+
+        // Assert
+        assertEquals(hash, resultado.getPassword());
+    }
+
+    @Test
+    void save_UsuarioNuevo_LoAgregaAlFiltro() {
+        // Arrange
+        Usuario usuario = crearUsuarioPrueba(null, "usuario1", "Usuario Uno");
+        when(usuarioRepository.save(any(Usuario.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        usuarioService.save(usuario);
+
+        // Assert
+        verify(filtroUnicidadService).agregar("usuario1", "Usuario Uno");
+        verify(filtroUnicidadService, never()).reemplazar(any(), any(), any(), any());
+    }
+
+    @Test
+    void save_UsuarioExistente_ReemplazaEnElFiltroSinVolverAAgregar() {
+        // Arrange
+        Usuario anterior = crearUsuarioPrueba(1L, "usuario1", "Usuario Uno");
+        Usuario cambiado = crearUsuarioPrueba(1L, "usuario1b", "Usuario Uno");
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(anterior));
+        when(usuarioRepository.save(any(Usuario.class))).thenReturn(cambiado);
+
+        // Act
+        usuarioService.save(cambiado);
+
+        // Assert
+        verify(filtroUnicidadService).reemplazar("usuario1", "Usuario Uno", "usuario1b", "Usuario Uno");
+        verify(filtroUnicidadService, never()).agregar(any(), any());
+    }
+
     @Test
     void deleteById_EliminaUsuario() {
         // Arrange
         Long id = 1L;
-        doNothing().when(usuarioRepository).deleteById(id);
+        Usuario usuario = crearUsuarioPrueba(id, "usuario1", "Usuario Uno");
+        when(usuarioRepository.findById(id)).thenReturn(Optional.of(usuario));
 
         // Act
         usuarioService.deleteById(id);
 
         // Assert
-        verify(usuarioRepository, times(1)).deleteById(id);
+        verify(usuarioRepository, times(1)).delete(usuario);
+        verify(permisoEngine).eliminarUsuario(id);
+        verify(filtroUnicidadService).quitar("usuario1", "Usuario Uno");
+        verify(indiceBusquedaService, times(1)).quitar(id);
+    }
+
+    @Test
+    void deleteById_ConIdInexistente_NoTocaLasEstructuras() {
+        // Act
+        usuarioService.deleteById(999L);
+
+        // Assert
+        verify(usuarioRepository, never()).delete(any(Usuario.class));
+        verify(filtroUnicidadService, never()).quitar(any(), any());
+        verify(indiceBusquedaService, never()).quitar(anyLong());
+    }
+
+    @Test
+    void buscar_AcotaElLimiteAlMaximo() {
+        // Act
+        usuarioService.buscar("ana", 500);
+        usuarioService.buscar("ana", null);
+
+        // Assert
+        verify(indiceBusquedaService).buscar("ana", IndiceBusquedaService.LIMITE_MAXIMO);
+        verify(indiceBusquedaService).buscar("ana", IndiceBusquedaService.LIMITE_POR_DEFECTO);
+    }
+
+    private UsuarioDTO crearUsuarioDTO(String username, String nombreCompleto, Long rolId) {
+        UsuarioDTO usuarioDTO = new UsuarioDTO();
+        usuarioDTO.setUsername(username);
+        usuarioDTO.setPassword("password123");
+        usuarioDTO.setNombreCompleto(nombreCompleto);
+        usuarioDTO.setRolId(rolId);
+        return usuarioDTO;
     }
 
     private Usuario crearUsuarioPrueba(Long id, String username, String nombreCompleto) {